@@ -0,0 +1,46 @@
+package com.wswork.carcatalog.config;
+
+import com.wswork.carcatalog.dto.EstatisticaCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Endpoint /actuator/cache: acertos, falhas e taxa de acerto por região do cache de segundo nível
+ * (entidades Marca e Modelo e resultados de consultas)
+ */
+@Component
+@Endpoint(id = "cache")
+public class CacheEndpoint {
+
+    private final Statistics estatisticas;
+
+    public CacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public List<EstatisticaCacheDTO> regioes() {
+        List<EstatisticaCacheDTO> regioes = new ArrayList<>();
+        String[] nomes = estatisticas.getSecondLevelCacheRegionNames();
+        Arrays.sort(nomes);
+        for (String nome : nomes) {
+            // A região de timestamps das tabelas não tem estatísticas próprias
+            CacheRegionStatistics regiao = estatisticas.getCacheRegionStatistics(nome);
+            if (regiao != null) {
+                long consultas = regiao.getHitCount() + regiao.getMissCount();
+                regioes.add(new EstatisticaCacheDTO(nome, regiao.getHitCount(), regiao.getMissCount(), regiao.getPutCount(),
+                        consultas > 0 ? (double) regiao.getHitCount() / consultas : null));
+            }
+        }
+        return regioes;
+    }
+}
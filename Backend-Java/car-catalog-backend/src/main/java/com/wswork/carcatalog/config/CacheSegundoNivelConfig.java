@@ -0,0 +1,59 @@
+package com.wswork.carcatalog.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate (JCache com Caffeine).
+ *
+ * As regiões são criadas aqui em vez de deixadas para o Hibernate: as que ele cria usam a configuração
+ * padrão do JCache, que guarda cópias serializadas e paga uma desserialização a cada acerto. Aqui os
+ * valores são guardados por referência (o Hibernate já guarda um estado desmontado e imutável) e as
+ * regiões de entidades e consultas têm tamanho máximo. Cada contexto tem o seu gerenciador, fechado com ele.
+ */
+@Configuration
+public class CacheSegundoNivelConfig {
+
+    private static final String[] REGIOES_LIMITADAS = {
+            Marca.class.getName(),
+            Modelo.class.getName(),
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME
+    };
+
+    @Bean(destroyMethod = "close")
+    public CacheManager gerenciadorCacheSegundoNivel(@Value("${catalogo.cache.maximo-entradas:100000}") long maximoEntradas) {
+        CacheManager gerenciador = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("urn:catalogo:segundo-nivel:" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String regiao : REGIOES_LIMITADAS) {
+            gerenciador.createCache(regiao, porReferencia().setMaximumSize(OptionalLong.of(maximoEntradas)));
+        }
+        // Sem limite: descartar o horário da última escrita de uma tabela deixaria consultas desatualizadas no cache
+        gerenciador.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, porReferencia());
+        return gerenciador;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSegundoNivel(CacheManager gerenciadorCacheSegundoNivel) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, gerenciadorCacheSegundoNivel);
+    }
+
+    private static CaffeineConfiguration<Object, Object> porReferencia() {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setStoreByValue(false);
+        return configuracao;
+    }
+}
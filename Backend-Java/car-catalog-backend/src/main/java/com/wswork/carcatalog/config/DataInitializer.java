@@ -5,6 +5,7 @@ import com.wswork.carcatalog.entity.Modelo;
 import com.wswork.carcatalog.repository.MarcaRepository;
 import com.wswork.carcatalog.repository.ModeloRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +15,7 @@ import java.util.List;
 /**
  * Inicializador de dados para popular o banco com dados iniciais
  */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
@@ -25,7 +27,7 @@ public class DataInitializer implements CommandLineRunner {
     public void run(String... args) throws Exception {
         // Verificar se já existem dados
         if (marcaRepository.count() == 0) {
-            System.out.println("🚗 Inicializando dados do banco...");
+            log.info("Inicializando dados do banco");
             
             // Criar marcas
             List<Marca> marcas = Arrays.asList(
@@ -42,7 +44,7 @@ public class DataInitializer implements CommandLineRunner {
             );
             
             marcaRepository.saveAll(marcas);
-            System.out.println("✅ Marcas criadas: " + marcas.size());
+            log.info("Marcas criadas: {}", marcas.size());
             
             // Criar modelos
             List<Modelo> modelos = Arrays.asList(
@@ -59,10 +61,9 @@ public class DataInitializer implements CommandLineRunner {
             );
             
             modeloRepository.saveAll(modelos);
-            System.out.println("✅ Modelos criados: " + modelos.size());
-            System.out.println("🚗 Dados inicializados com sucesso!");
+            log.info("Modelos criados: {}", modelos.size());
         } else {
-            System.out.println("✅ Banco já possui dados iniciais");
+            log.debug("Banco já possui dados iniciais");
         }
     }
 }
@@ -0,0 +1,32 @@
+package com.wswork.carcatalog.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool de threads compartilhado pelas importações de arquivos (POST /api/carros/import).
+ *
+ * Tem catalogo.importacao.paralelismo threads e uma fila do mesmo tamanho, criados uma vez para a aplicação
+ * em vez de a cada requisição. Com a fila cheia (várias importações ao mesmo tempo), o bloco é gravado pela
+ * própria thread que lê o arquivo, o que também desacelera a leitura; nenhum bloco é recusado.
+ */
+@Configuration
+public class ExecutorImportacaoConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor executorImportacao(@Value("${catalogo.importacao.paralelismo:4}") int paralelismo) {
+        int threads = Math.max(1, paralelismo);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new ArrayBlockingQueue<>(threads), new CustomizableThreadFactory("importacao-"),
+                (tarefa, pool) -> tarefa.run());
+        // Sem importações em andamento, as threads são encerradas
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
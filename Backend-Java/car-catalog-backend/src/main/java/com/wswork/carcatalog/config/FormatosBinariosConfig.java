@@ -0,0 +1,25 @@
+package com.wswork.carcatalog.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Conversores CBOR e Smile do Spring MVC com os mapeadores de FormatosResposta
+ * (substituem os padrão, que não recebem a configuração Jackson do Spring Boot)
+ */
+@Configuration
+public class FormatosBinariosConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter conversorCbor(FormatosResposta formatos) {
+        return new MappingJackson2CborHttpMessageConverter(formatos.mapeador(MediaType.APPLICATION_CBOR));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter conversorSmile(FormatosResposta formatos) {
+        return new MappingJackson2SmileHttpMessageConverter(formatos.mapeador(FormatosResposta.SMILE));
+    }
+}
@@ -0,0 +1,83 @@
+package com.wswork.carcatalog.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+
+/**
+ * Formatos de resposta das listagens: JSON (padrão), CBOR e Smile, escolhidos pelo Accept.
+ * Os mapeadores binários saem do mesmo Jackson2ObjectMapperBuilder do Spring Boot que o JSON,
+ * então serializam os DTOs com a mesma configuração (datas em ISO-8601, etc.).
+ */
+@Component
+public class FormatosResposta {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    // Na mesma ordem dos conversores do Spring MVC: com */* ou sem Accept a resposta é JSON
+    private static final List<MediaType> SUPORTADOS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE);
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+    private final ObjectMapper smile;
+
+    public FormatosResposta(ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        this.json = objectMapper;
+        this.cbor = builder.factory(new CBORFactory()).build();
+        this.smile = builder.factory(new SmileFactory()).build();
+    }
+
+    /**
+     * Formato pedido no Accept: o primeiro suportado, do mais específico para o menos; JSON se nenhum for
+     */
+    public static MediaType negociar(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(aceitos);
+        for (MediaType aceito : aceitos) {
+            if (aceito.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType suportado : SUPORTADOS) {
+                if (aceito.isCompatibleWith(suportado)) {
+                    return suportado;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Sufixo que distingue na ETag a representação em cada formato
+     */
+    public static String sufixoEtag(MediaType formato) {
+        return MediaType.APPLICATION_JSON.equals(formato) ? "" : "-" + formato.getSubtype().replace("x-jackson-", "");
+    }
+
+    /**
+     * Mapeador Jackson do formato (CBOR, Smile ou JSON)
+     */
+    public ObjectMapper mapeador(MediaType formato) {
+        if (MediaType.APPLICATION_CBOR.equals(formato)) {
+            return cbor;
+        }
+        if (SMILE.equals(formato)) {
+            return smile;
+        }
+        return json;
+    }
+}
@@ -0,0 +1,178 @@
+package com.wswork.carcatalog.config;
+
+import com.wswork.carcatalog.service.MetricasRotas;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+/**
+ * Mede cada requisição (latência, status e bytes escritos na resposta) e registra por rota.
+ *
+ * Os bytes são contados enquanto passam para a resposta original, sem guardar o corpo,
+ * então respostas em streaming continuam indo direto para o cliente.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class MetricasRotasFilter extends OncePerRequestFilter {
+
+    // Rotas sem padrão mapeado (404, arquivos estáticos) ficam agrupadas para não multiplicar as séries
+    private static final String ROTA_DESCONHECIDA = "UNKNOWN";
+
+    private final MetricasRotas metricasRotas;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long inicio = System.nanoTime();
+        RespostaContada resposta = new RespostaContada(response);
+        boolean falhou = true;
+        try {
+            chain.doFilter(request, resposta);
+            resposta.descarregar();
+            falhou = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Resposta assíncrona (SSE, streaming): registrar quando terminar de fato
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrar(request, resposta, response.getStatus(), inicio);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                registrar(request, resposta, falhou ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), inicio);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, RespostaContada resposta, int status, long inicio) {
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String rota = padrao != null ? padrao.toString() : ROTA_DESCONHECIDA;
+        metricasRotas.registrar(request.getMethod(), rota, status, System.nanoTime() - inicio, resposta.bytes());
+    }
+
+    /**
+     * Resposta que conta os bytes enviados pelo corpo, seja por getOutputStream ou por getWriter
+     */
+    private static final class RespostaContada extends HttpServletResponseWrapper {
+
+        private SaidaContada saida;
+        private PrintWriter escritor;
+
+        RespostaContada(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (saida == null) {
+                saida = new SaidaContada(super.getOutputStream());
+            }
+            return saida;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (escritor == null) {
+                Charset charset = Charset.forName(getCharacterEncoding());
+                escritor = new PrintWriter(new OutputStreamWriter(getOutputStream(), charset));
+            }
+            return escritor;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (escritor != null) {
+                escritor.flush();
+            }
+            super.flushBuffer();
+        }
+
+        void descarregar() {
+            if (escritor != null) {
+                escritor.flush();
+            }
+        }
+
+        long bytes() {
+            return saida != null ? saida.bytes : 0;
+        }
+    }
+
+    private static final class SaidaContada extends ServletOutputStream {
+
+        private final ServletOutputStream destino;
+        private volatile long bytes;
+
+        SaidaContada(ServletOutputStream destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            destino.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            destino.write(b, off, len);
+            bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            destino.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            destino.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return destino.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            destino.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.wswork.carcatalog.config;
+
+import com.wswork.carcatalog.dto.MetricasRotaDTO;
+import com.wswork.carcatalog.service.MetricasRotas;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoint /actuator/rotas: latência (p50/p90/p99/p999), requisições, erros e bytes por rota
+ */
+@Component
+@Endpoint(id = "rotas")
+@RequiredArgsConstructor
+public class RotasEndpoint {
+
+    private final MetricasRotas metricasRotas;
+
+    @ReadOperation
+    public List<MetricasRotaDTO> rotas() {
+        return metricasRotas.resumo();
+    }
+}
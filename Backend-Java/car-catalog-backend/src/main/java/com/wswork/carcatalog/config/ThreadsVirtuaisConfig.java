@@ -0,0 +1,41 @@
+package com.wswork.carcatalog.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Ajustes do modo com threads virtuais (spring.threads.virtual.enabled=true).
+ *
+ * O Tomcat passa a atender cada requisição em uma thread virtual; o acesso ao banco fica atrás
+ * de um limitador com o tamanho do pool, para que a espera por conexão aconteça em um semáforo
+ * (que não prende a thread portadora) e tenha prazo definido.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ThreadsVirtuaisConfig {
+
+    @Bean
+    public static BeanPostProcessor limitadorConexoes(Environment environment) {
+        int limite = environment.getProperty("catalogo.banco.limite-concorrencia", Integer.class, 10);
+        long esperaMaximaMs = environment.getProperty("catalogo.banco.espera-maxima-ms", Long.class, 30_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceLimitado)) {
+                    log.info("Threads virtuais: DataSource {} limitado a {} conexões simultâneas (espera máxima {}ms)",
+                            beanName, limite, esperaMaximaMs);
+                    return new DataSourceLimitado(dataSource, limite, esperaMaximaMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
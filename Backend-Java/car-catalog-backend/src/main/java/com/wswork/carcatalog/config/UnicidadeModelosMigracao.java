@@ -0,0 +1,98 @@
+package com.wswork.carcatalog.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Migração da restrição uk_modelos_marca_nome (Modelo) em bancos criados antes dela.
+ *
+ * O ddl-auto=update tenta criar a restrição, mas se a tabela já tiver modelos repetidos (mesma marca e nome)
+ * o ALTER TABLE falha e o Hibernate só registra um aviso. Com o schema já atualizado, este componente confere
+ * se o índice único existe; se não existir, aponta os carros de cada modelo repetido para o mais antigo,
+ * remove os demais e cria a restrição. Repetidos são agrupados pela collation da coluna, a mesma que a
+ * restrição usará.
+ */
+@Slf4j
+@Component
+public class UnicidadeModelosMigracao {
+
+    private static final String REAPONTAR_CARROS = """
+            UPDATE carros SET modelo_id = (
+                SELECT MIN(mantido.id) FROM modelos mantido JOIN modelos atual
+                    ON mantido.marca_id = atual.marca_id AND mantido.nome = atual.nome
+                WHERE atual.id = carros.modelo_id)
+            WHERE modelo_id NOT IN (SELECT id FROM (SELECT MIN(id) AS id FROM modelos GROUP BY marca_id, nome) mantidos)
+            """;
+
+    // A tabela derivada evita o erro do MySQL ao consultar a própria tabela do DELETE
+    private static final String REMOVER_REPETIDOS = """
+            DELETE FROM modelos
+            WHERE id NOT IN (SELECT id FROM (SELECT MIN(id) AS id FROM modelos GROUP BY marca_id, nome) mantidos)
+            """;
+
+    private static final String CRIAR_RESTRICAO =
+            "ALTER TABLE modelos ADD CONSTRAINT uk_modelos_marca_nome UNIQUE (marca_id, nome)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // O EntityManagerFactory garante que o schema do Hibernate já foi aplicado quando a migração roda
+    public UnicidadeModelosMigracao(EntityManagerFactory entityManagerFactory,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrar() {
+        if (existeIndiceUnico()) {
+            return;
+        }
+        Integer removidos = transactionTemplate.execute(status -> {
+            int carros = jdbcTemplate.update(REAPONTAR_CARROS);
+            int modelos = jdbcTemplate.update(REMOVER_REPETIDOS);
+            log.warn("Modelos repetidos (mesma marca e nome) unificados: {} removidos, {} carros reapontados",
+                    modelos, carros);
+            return modelos;
+        });
+        jdbcTemplate.execute(CRIAR_RESTRICAO);
+        log.info("Restrição uk_modelos_marca_nome criada ({} modelos repetidos removidos)", removidos);
+    }
+
+    /**
+     * Conferir pelos metadados do JDBC se há índice único exatamente em (marca_id, nome)
+     */
+    private boolean existeIndiceUnico() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) conexao -> {
+            DatabaseMetaData metadados = conexao.getMetaData();
+            String tabela = metadados.storesUpperCaseIdentifiers() ? "MODELOS" : "modelos";
+            Map<String, Set<String>> colunasPorIndice = new HashMap<>();
+            try (ResultSet indices = metadados.getIndexInfo(conexao.getCatalog(), conexao.getSchema(), tabela, true, false)) {
+                while (indices.next()) {
+                    String indice = indices.getString("INDEX_NAME");
+                    String coluna = indices.getString("COLUMN_NAME");
+                    if (indice != null && coluna != null) {
+                        colunasPorIndice.computeIfAbsent(indice, chave -> new HashSet<>())
+                                .add(coluna.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            return colunasPorIndice.containsValue(Set.of("marca_id", "nome"));
+        });
+    }
+}
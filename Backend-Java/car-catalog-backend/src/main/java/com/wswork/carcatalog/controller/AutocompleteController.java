@@ -0,0 +1,31 @@
+package com.wswork.carcatalog.controller;
+
+import com.wswork.carcatalog.dto.SugestaoDTO;
+import com.wswork.carcatalog.service.IndiceAutocomplete;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller do autocomplete de marcas e modelos (type-ahead do frontend)
+ */
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*") // Permite requisições de qualquer origem
+public class AutocompleteController {
+
+    private final IndiceAutocomplete indiceAutocomplete;
+
+    /**
+     * GET /api/autocomplete?q={prefixo}&limite={limite} - Marcas e modelos cujo nome (ou uma palavra dele)
+     * começa com o prefixo, dos que têm mais carros para os que têm menos
+     */
+    @GetMapping
+    public ResponseEntity<List<SugestaoDTO>> sugerir(@RequestParam(defaultValue = "") String q,
+                                                     @RequestParam(defaultValue = "" + IndiceAutocomplete.SUGESTOES_POR_NO) int limite) {
+        return ResponseEntity.ok(indiceAutocomplete.sugerir(q, Math.max(1, Math.min(limite, IndiceAutocomplete.SUGESTOES_POR_NO))));
+    }
+}
@@ -0,0 +1,33 @@
+package com.wswork.carcatalog.controller;
+
+import com.wswork.carcatalog.dto.ResultadoNomeDTO;
+import com.wswork.carcatalog.service.IndiceTrigramasNomes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller da busca por nome de marcas e modelos (caixa de busca do frontend)
+ */
+@RestController
+@RequestMapping("/api/busca")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*") // Permite requisições de qualquer origem
+public class BuscaController {
+    
+    private static final int LIMITE_MAXIMO = 100;
+    
+    private final IndiceTrigramasNomes indiceNomes;
+    
+    /**
+     * GET /api/busca?q={texto}&limite={limite} - Buscar marcas e modelos por trecho do nome,
+     * tolerando erros de digitação, dos mais relevantes para os menos
+     */
+    @GetMapping
+    public ResponseEntity<List<ResultadoNomeDTO>> buscar(@RequestParam String q,
+                                                         @RequestParam(defaultValue = "20") int limite) {
+        return ResponseEntity.ok(indiceNomes.buscar(q, Math.max(1, Math.min(limite, LIMITE_MAXIMO))));
+    }
+}
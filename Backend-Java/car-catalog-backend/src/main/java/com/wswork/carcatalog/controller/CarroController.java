@@ -1,31 +1,62 @@
 package com.wswork.carcatalog.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.wswork.carcatalog.dto.AlteracaoLoteResultadoDTO;
 import com.wswork.carcatalog.dto.CarroDTO;
-import com.wswork.carcatalog.dto.CarroFormatadoDTO;
 import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.EstadoCarroDTO;
+import com.wswork.carcatalog.dto.EstatisticasCarrosDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.dto.ImportacaoResultadoDTO;
+import com.wswork.carcatalog.dto.LoteCarrosResultadoDTO;
+import com.wswork.carcatalog.dto.ResultadoBuscaDTO;
 import com.wswork.carcatalog.entity.Carro;
 import com.wswork.carcatalog.entity.Marca;
 import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
 import com.wswork.carcatalog.repository.CarroRepository;
 import com.wswork.carcatalog.repository.MarcaRepository;
 import com.wswork.carcatalog.repository.ModeloRepository;
+import com.wswork.carcatalog.service.AlteracaoLoteCarrosService;
 import com.wswork.carcatalog.service.CarroService;
+import com.wswork.carcatalog.config.FormatosResposta;
+import com.wswork.carcatalog.service.CarsJsonService;
+import com.wswork.carcatalog.service.CatalogoVersao;
+import com.wswork.carcatalog.service.EstatisticasCarros;
+import com.wswork.carcatalog.service.ExportacaoCarrosService;
+import com.wswork.carcatalog.service.FeedAlteracoesCatalogo;
+import com.wswork.carcatalog.service.ImportacaoCarrosService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 /**
  * Controller para operações REST relacionadas a Carro
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/carros")
 @RequiredArgsConstructor
@@ -33,94 +64,214 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 public class CarroController {
     
     private final CarroService carroService;
+    private final CarsJsonService carsJsonService;
+    private final EstatisticasCarros estatisticasCarros;
+    private final ImportacaoCarrosService importacaoCarrosService;
+    private final ExportacaoCarrosService exportacaoCarrosService;
+    private final AlteracaoLoteCarrosService alteracaoLoteCarrosService;
+    private final FeedAlteracoesCatalogo feedAlteracoesCatalogo;
+    private final CatalogoVersao catalogoVersao;
+    private final FormatosResposta formatosResposta;
     private final CarroRepository carroRepository;
     private final MarcaRepository marcaRepository;
     private final ModeloRepository modeloRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * GET /api/carros - Listar todos os carros
+     * GET /api/carros?limite={limite}&cursor={cursor}&ordenarPor={id|valor|ano} - Listar paginado por cursor
+     * Com If-None-Match, 304 se nenhum carro, modelo ou marca mudou desde a resposta anterior
      */
     @GetMapping
-    public ResponseEntity<List<CarroRespostaDTO>> listarTodos() {
+    public ResponseEntity<?> listarTodos(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @RequestParam(required = false) String ordenarPor,
+            ServletWebRequest request) {
+        if (RespostaCondicional.naoModificada(request,
+                catalogoVersao.etag(Entidade.CARRO, Entidade.MODELO, Entidade.MARCA))) {
+            return null;
+        }
+        if (paginado(cursor, limite, ordenarPor)) {
+            return ResponseEntity.ok(carroService.buscarPagina(cursor, limite, ordenarPor));
+        }
+        
         List<CarroRespostaDTO> carros = carroService.buscarTodos();
-        System.out.println("📋 === LISTANDO TODOS OS CARROS ===");
-        System.out.println("Total de carros: " + carros.size());
-        carros.forEach(carro -> System.out.println("ID: " + carro.getId() + " - Modelo: " + carro.getNomeModelo()));
-        System.out.println("=====================================");
+        log.debug("Listando todos os carros: total={}", carros.size());
         return ResponseEntity.ok(carros);
     }
     
     /**
-     * GET /api/carros/{id} - Buscar carro por ID
+     * GET /api/carros/search - Busca combinada de carros
+     * Filtros opcionais: marcaId, marca, modeloId, modelo, anoMin, anoMax, combustivel, cor, numPortas,
+     * precoMin, precoMax; ordenação: ordenarPor={id|valor|ano}&direcao={asc|desc}; página: pagina, tamanho
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ResultadoBuscaDTO<CarroRespostaDTO>> buscar(
+            FiltroCarroDTO filtro,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenarPor,
+            @RequestParam(required = false) String direcao) {
+        return ResponseEntity.ok(carroService.buscar(filtro, pagina, tamanho, ordenarPor, direcao));
+    }
+    
+    /**
+     * GET /api/carros/stats - Quantidade de carros e valor mínimo/máximo/médio/total por marca e por modelo,
+     * e contagens por ano, combustível e cor
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<EstatisticasCarrosDTO> estatisticas() {
+        return ResponseEntity.ok(estatisticasCarros.resumo());
+    }
+    
+    /**
+     * GET /api/carros/export?format={ndjson|csv} - Exportar todos os carros em streaming, um por linha
+     */
+    @GetMapping("/export")
+    public void exportar(@RequestParam(defaultValue = "ndjson") String format,
+                         HttpServletResponse response) throws IOException {
+        ExportacaoCarrosService.Formato formato = ExportacaoCarrosService.Formato.de(format);
+        response.setContentType(formato.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"carros." + formato.getExtensao() + "\"");
+        exportacaoCarrosService.exportar(formato, response.getOutputStream());
+    }
+    
+    /**
+     * GET /api/carros/stream - Feed SSE das alterações de carros, marcas e modelos ("alteracao" e "resync")
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoIdRecebido) {
+        return feedAlteracoesCatalogo.assinar(ultimoIdRecebido);
+    }
+    
+    /**
+     * PATCH /api/carros/valor?percentual={percentual} - Reajustar em percentual o valor de todos os carros do filtro
+     * DELETE /api/carros - Remover todos os carros do filtro
+     * Filtros (ao menos um): marcaId, marca, modeloId, modelo, anoMin, anoMax, combustivel, cor, numPortas,
+     * precoMin, precoMax; executados em blocos, sem carregar os carros
+     */
+    @PatchMapping("/valor")
+    public ResponseEntity<AlteracaoLoteResultadoDTO> reajustarValor(FiltroCarroDTO filtro, @RequestParam double percentual) {
+        return ResponseEntity.ok(alteracaoLoteCarrosService.reajustarValor(filtro, percentual));
+    }
+    
+    @DeleteMapping
+    public ResponseEntity<AlteracaoLoteResultadoDTO> removerPorFiltro(FiltroCarroDTO filtro) {
+        return ResponseEntity.ok(alteracaoLoteCarrosService.remover(filtro));
+    }
+    
+    /**
+     * GET /api/carros/{id} - Buscar carro por ID (a ETag é a versão, para PUT e DELETE com If-Match)
      */
     @GetMapping("/{id}")
     public ResponseEntity<CarroRespostaDTO> buscarPorId(@PathVariable Long id) {
-        System.out.println("🔍 === BUSCANDO CARRO POR ID ===");
-        System.out.println("ID solicitado: " + id + " (tipo: " + id.getClass().getSimpleName() + ")");
-        
-        Optional<CarroRespostaDTO> carro = carroService.buscarPorId(id);
+        Optional<EstadoCarroDTO> carro = carroService.buscarEstadoPorId(id);
         
         if (carro.isPresent()) {
-            System.out.println("✅ Carro encontrado: " + carro.get().getNomeModelo());
-            return ResponseEntity.ok(carro.get());
+            return ResponseEntity.ok()
+                    .eTag(RespostaCondicional.etagVersao(carro.get().getVersao()))
+                    .body(carro.get().resposta());
         } else {
-            System.out.println("❌ Carro não encontrado com ID: " + id);
+            log.debug("Carro não encontrado: id={}", id);
             return ResponseEntity.notFound().build();
         }
     }
     
     /**
      * GET /api/carros/modelo/{modeloId} - Buscar carros por modelo
+     * (aceita limite e cursor para paginação por id)
      */
     @GetMapping("/modelo/{modeloId}")
-    public ResponseEntity<List<CarroRespostaDTO>> buscarPorModelo(@PathVariable Long modeloId) {
+    public ResponseEntity<?> buscarPorModelo(
+            @PathVariable Long modeloId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite, null)) {
+            return ResponseEntity.ok(carroService.buscarPaginaPorModelo(modeloId, cursor, limite));
+        }
         List<CarroRespostaDTO> carros = carroService.buscarPorModelo(modeloId);
         return ResponseEntity.ok(carros);
     }
     
     /**
      * GET /api/carros/ano/{ano} - Buscar carros por ano
+     * (aceita limite e cursor para paginação por id)
      */
     @GetMapping("/ano/{ano}")
-    public ResponseEntity<List<CarroRespostaDTO>> buscarPorAno(@PathVariable Integer ano) {
+    public ResponseEntity<?> buscarPorAno(
+            @PathVariable Integer ano,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite, null)) {
+            return ResponseEntity.ok(carroService.buscarPaginaPorAno(ano, cursor, limite));
+        }
         List<CarroRespostaDTO> carros = carroService.buscarPorAno(ano);
         return ResponseEntity.ok(carros);
     }
     
     /**
      * GET /api/carros/combustivel/{combustivel} - Buscar carros por combustível
+     * (aceita limite e cursor para paginação por id)
      */
     @GetMapping("/combustivel/{combustivel}")
-    public ResponseEntity<List<CarroRespostaDTO>> buscarPorCombustivel(@PathVariable String combustivel) {
+    public ResponseEntity<?> buscarPorCombustivel(
+            @PathVariable String combustivel,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite, null)) {
+            return ResponseEntity.ok(carroService.buscarPaginaPorCombustivel(combustivel, cursor, limite));
+        }
         List<CarroRespostaDTO> carros = carroService.buscarPorCombustivel(combustivel);
         return ResponseEntity.ok(carros);
     }
     
     /**
      * GET /api/carros/cor/{cor} - Buscar carros por cor
+     * (aceita limite e cursor para paginação por id)
      */
     @GetMapping("/cor/{cor}")
-    public ResponseEntity<List<CarroRespostaDTO>> buscarPorCor(@PathVariable String cor) {
+    public ResponseEntity<?> buscarPorCor(
+            @PathVariable String cor,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite, null)) {
+            return ResponseEntity.ok(carroService.buscarPaginaPorCor(cor, cursor, limite));
+        }
         List<CarroRespostaDTO> carros = carroService.buscarPorCor(cor);
         return ResponseEntity.ok(carros);
     }
     
     /**
      * GET /api/carros/preco?min={min}&max={max} - Buscar carros por faixa de preço
+     * (aceita limite e cursor para paginação por valor crescente)
      */
     @GetMapping("/preco")
-    public ResponseEntity<List<CarroRespostaDTO>> buscarPorFaixaPreco(
+    public ResponseEntity<?> buscarPorFaixaPreco(
             @RequestParam Double min, 
-            @RequestParam Double max) {
+            @RequestParam Double max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite, null)) {
+            return ResponseEntity.ok(carroService.buscarPaginaPorFaixaPreco(min, max, cursor, limite));
+        }
         List<CarroRespostaDTO> carros = carroService.buscarPorFaixaPreco(min, max);
         return ResponseEntity.ok(carros);
     }
     
     /**
      * GET /api/carros/marca/{marcaId} - Buscar carros por marca
+     * (aceita limite e cursor para paginação por id)
      */
     @GetMapping("/marca/{marcaId}")
-    public ResponseEntity<List<CarroRespostaDTO>> buscarPorMarca(@PathVariable Long marcaId) {
+    public ResponseEntity<?> buscarPorMarca(
+            @PathVariable Long marcaId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite, null)) {
+            return ResponseEntity.ok(carroService.buscarPaginaPorMarca(marcaId, cursor, limite));
+        }
         List<CarroRespostaDTO> carros = carroService.buscarPorMarca(marcaId);
         return ResponseEntity.ok(carros);
     }
@@ -131,58 +282,94 @@ public class CarroController {
     @PostMapping
     public ResponseEntity<?> criar(@Valid @RequestBody CarroDTO carroDTO) {
         try {
-            System.out.println("🚗 === DADOS RECEBIDOS NO BACKEND ===");
-            System.out.println("CarroDTO: " + carroDTO);
-            System.out.println("=====================================");
-            
+            log.debug("Criando carro: {}", carroDTO);
             CarroRespostaDTO carroCriado = carroService.criar(carroDTO);
             return ResponseEntity.status(HttpStatus.CREATED).body(carroCriado);
         } catch (RuntimeException e) {
-            System.out.println("🚨 ERRO NO BACKEND: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Erro ao criar carro: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.out.println("🚨 ERRO GERAL NO BACKEND: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erro inesperado ao criar carro", e);
             return ResponseEntity.badRequest().body(Map.of("error", "Erro interno do servidor"));
         }
     }
     
+    /**
+     * POST /api/carros/batch - Criar vários carros em uma única requisição
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<LoteCarrosResultadoDTO> criarEmLote(@RequestBody List<@Valid CarroDTO> carros) {
+        long inicio = System.nanoTime();
+        LoteCarrosResultadoDTO resultado = carroService.criarEmLote(carros);
+        long duracaoNanos = System.nanoTime() - inicio;
+        
+        resultado.setDuracaoMs(duracaoNanos / 1_000_000);
+        resultado.setCarrosPorSegundo(resultado.getQuantidade() * 1_000_000_000.0 / Math.max(duracaoNanos, 1));
+        log.info("Lote de carros criado: quantidade={} duracaoMs={} carrosPorSegundo={}",
+                resultado.getQuantidade(), resultado.getDuracaoMs(), Math.round(resultado.getCarrosPorSegundo()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(resultado);
+    }
+    
+    /**
+     * POST /api/carros/import - Importar um arquivo no formato do cars.json ({"cars": [...]}) de qualquer tamanho,
+     * lido em streaming do corpo da requisição (aceita Content-Encoding: gzip). tamanhoBloco opcional (carros por
+     * transação, até o máximo do lote). JSON inválido no meio do arquivo responde 400 com o relatório parcial:
+     * os blocos já gravados ficam e posicaoErro indica onde a leitura parou
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportacaoResultadoDTO> importar(
+            HttpServletRequest request, @RequestParam(required = false) Integer tamanhoBloco) throws IOException {
+        InputStream entrada = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            entrada = new GZIPInputStream(entrada);
+        }
+        ImportacaoResultadoDTO resultado = importacaoCarrosService.importar(entrada, tamanhoBloco);
+        if (resultado.getPosicaoErro() != null) {
+            return ResponseEntity.badRequest().body(resultado);
+        }
+        return ResponseEntity.ok(resultado);
+    }
+    
     /**
      * PUT /api/carros/{id} - Atualizar carro existente
+     * Com If-Match, 409 se o carro não está mais na versão informada; sem ele, a última escrita prevalece
      */
     @PutMapping("/{id}")
-    public ResponseEntity<CarroRespostaDTO> atualizar(@PathVariable Long id, @Valid @RequestBody CarroDTO carroDTO) {
+    public ResponseEntity<?> atualizar(@PathVariable Long id, @Valid @RequestBody CarroDTO carroDTO,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versao = RespostaCondicional.versaoExigida(ifMatch);
         try {
-            System.out.println("🚗 === ATUALIZANDO CARRO ===");
-            System.out.println("ID recebido: " + id + " (tipo: " + id.getClass().getSimpleName() + ")");
-            System.out.println("Dados recebidos: " + carroDTO);
-            System.out.println("Nome Modelo recebido: " + carroDTO.getNomeModelo());
-            System.out.println("Nome Marca recebido: " + carroDTO.getNomeMarca());
-            System.out.println("=============================");
-            
-            CarroRespostaDTO carroAtualizado = carroService.atualizar(id, carroDTO);
-            return ResponseEntity.ok(carroAtualizado);
+            log.debug("Atualizando carro: id={} dados={}", id, carroDTO);
+            EstadoCarroDTO carroAtualizado = carroService.atualizar(id, carroDTO, versao);
+            return ResponseEntity.ok()
+                    .eTag(RespostaCondicional.etagVersao(carroAtualizado.getVersao()))
+                    .body(carroAtualizado.resposta());
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Conflito ao atualizar carro: id={} erro={}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
-            System.out.println("🚨 ERRO AO ATUALIZAR CARRO: " + e.getMessage());
+            log.warn("Erro ao atualizar carro: id={} erro={}", id, e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
     
     /**
      * DELETE /api/carros/{id} - Deletar carro
+     * Com If-Match, 409 se o carro não está mais na versão informada
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletar(@PathVariable Long id) {
+    public ResponseEntity<?> deletar(@PathVariable Long id,
+                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long versao = RespostaCondicional.versaoExigida(ifMatch);
         try {
-            System.out.println("🗑️ === DELETANDO CARRO ===");
-            System.out.println("ID recebido: " + id + " (tipo: " + id.getClass().getSimpleName() + ")");
-            System.out.println("=============================");
-            
-            carroService.deletar(id);
+            log.debug("Deletando carro: id={}", id);
+            carroService.deletar(id, versao);
             return ResponseEntity.noContent().build();
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Conflito ao deletar carro: id={} erro={}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
-            System.out.println("🚨 ERRO AO DELETAR CARRO: " + e.getMessage());
+            log.warn("Erro ao deletar carro: id={} erro={}", id, e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
@@ -191,21 +378,11 @@ public class CarroController {
      * GET /api/carros/modelos/formatado - Listar carros no formato cars.json
      */
     @GetMapping("/modelos/formatado")
-    public ResponseEntity<Map<String, List<CarroFormatadoDTO>>> listarModelosFormatados() {
-        try {
-            List<CarroFormatadoDTO> carrosFormatados = carroService.buscarTodosFormatados();
-            Map<String, List<CarroFormatadoDTO>> resposta = new HashMap<>();
-            resposta.put("cars", carrosFormatados);
-            
-            System.out.println("🚗 === ENDPOINT FORMATADO CHAMADO ===");
-            System.out.println("Total de carros: " + carrosFormatados.size());
-            System.out.println("=====================================");
-            
-            return ResponseEntity.ok(resposta);
-        } catch (Exception e) {
-            System.out.println("🚨 ERRO NO ENDPOINT FORMATADO: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
+    public void listarModelosFormatados(@RequestParam(defaultValue = "false") boolean indentar,
+                                        HttpServletRequest request,
+                                        HttpServletResponse response) throws IOException {
+        long total = escreverCarsJson(indentar, request, response);
+        log.debug("Carros formatados enviados: total={}", total);
     }
     
     /**
@@ -213,22 +390,11 @@ public class CarroController {
      * Retorna carros no formato cars.json conforme especificação do teste
      */
     @GetMapping("/cars.json")
-    public ResponseEntity<Map<String, List<CarroFormatadoDTO>>> getCarsJson() {
-        try {
-            List<CarroFormatadoDTO> carrosFormatados = carroService.buscarTodosFormatados();
-            Map<String, List<CarroFormatadoDTO>> resposta = new HashMap<>();
-            resposta.put("cars", carrosFormatados);
-            
-            System.out.println("🚗 === ENDPOINT CARS.JSON CHAMADO ===");
-            System.out.println("Total de carros: " + carrosFormatados.size());
-            System.out.println("Formato: cars.json para teste WS Work");
-            System.out.println("=====================================");
-            
-            return ResponseEntity.ok(resposta);
-        } catch (Exception e) {
-            System.out.println("🚨 ERRO NO ENDPOINT CARS.JSON: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
+    public void getCarsJson(@RequestParam(defaultValue = "false") boolean indentar,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        long total = escreverCarsJson(indentar, request, response);
+        log.debug("cars.json enviado: total={}", total);
     }
     
     /**
@@ -236,22 +402,25 @@ public class CarroController {
      * Retorna carros no formato cars.json conforme especificação do teste
      */
     @GetMapping("/api/cars.json")
-    public ResponseEntity<Map<String, List<CarroFormatadoDTO>>> getCarsJsonAlternative() {
-        try {
-            List<CarroFormatadoDTO> carrosFormatados = carroService.buscarTodosFormatados();
-            Map<String, List<CarroFormatadoDTO>> resposta = new HashMap<>();
-            resposta.put("cars", carrosFormatados);
-            
-            System.out.println("🚗 === ENDPOINT API/CARS.JSON CHAMADO ===");
-            System.out.println("Total de carros: " + carrosFormatados.size());
-            System.out.println("Formato: cars.json para teste WS Work");
-            System.out.println("=====================================");
-            
-            return ResponseEntity.ok(resposta);
-        } catch (Exception e) {
-            System.out.println("🚨 ERRO NO ENDPOINT API/CARS.JSON: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
+    public void getCarsJsonAlternative(@RequestParam(defaultValue = "false") boolean indentar,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        long total = escreverCarsJson(indentar, request, response);
+        log.debug("api/cars.json enviado: total={}", total);
+    }
+    
+    /**
+     * Escrever o cars.json em streaming direto na resposta, em JSON ou no formato binário pedido no Accept
+     */
+    private long escreverCarsJson(boolean indentar, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MediaType formato = FormatosResposta.negociar(request.getHeader(HttpHeaders.ACCEPT));
+        response.setContentType(formato.toString());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (!MediaType.APPLICATION_JSON.equals(formato)) {
+            return carsJsonService.escrever(response.getOutputStream(), formatosResposta.mapeador(formato), false);
         }
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        return carsJsonService.escrever(response.getOutputStream(), indentar);
     }
     
     /**
@@ -259,12 +428,8 @@ public class CarroController {
      */
     @GetMapping("/debug/existe/{id}")
     public ResponseEntity<Map<String, Object>> verificarSeExiste(@PathVariable Long id) {
-        System.out.println("🔍 === DEBUG: VERIFICANDO SE CARRO EXISTE ===");
-        System.out.println("ID verificado: " + id + " (tipo: " + id.getClass().getSimpleName() + ")");
-        
         boolean existe = carroService.existePorId(id);
-        System.out.println("Resultado: " + (existe ? "EXISTE" : "NÃO EXISTE"));
-        System.out.println("=============================================");
+        log.debug("Verificando se carro existe: id={} existe={}", id, existe);
         
         Map<String, Object> resposta = new HashMap<>();
         resposta.put("id", id);
@@ -280,8 +445,6 @@ public class CarroController {
     @PostMapping("/debug/criar-dados-teste")
     public ResponseEntity<Map<String, Object>> criarDadosTeste() {
         try {
-            System.out.println("🚗 === CRIANDO DADOS DE TESTE ===");
-            
             // Criar marcas
             Marca volkswagen = new Marca();
             volkswagen.setNomeMarca("Volkswagen");
@@ -321,8 +484,14 @@ public class CarroController {
             Carro carro3 = new Carro(cruze, 2021, "FLEX", 4, "AZUL", 110000.0);
             carroRepository.save(carro3);
             
-            System.out.println("✅ Dados de teste criados com sucesso!");
-            System.out.println("=====================================");
+            // Gravado direto nos repositórios: avisar os caches derivados do catálogo
+            for (Carro carro : List.of(carro1, carro2, carro3)) {
+                eventPublisher.publishEvent(new CatalogoAlteradoEvent(
+                        CatalogoAlteradoEvent.Entidade.CARRO, CatalogoAlteradoEvent.Operacao.CRIADO, carro.getId(),
+                        null, CatalogoAlteradoEvent.DadosCarro.de(carro)));
+            }
+            
+            log.info("Dados de teste criados: carros=3");
             
             Map<String, Object> resposta = new HashMap<>();
             resposta.put("mensagem", "Dados de teste criados com sucesso");
@@ -331,8 +500,7 @@ public class CarroController {
             
             return ResponseEntity.ok(resposta);
         } catch (Exception e) {
-            System.out.println("🚨 ERRO AO CRIAR DADOS DE TESTE: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erro ao criar dados de teste", e);
             
             Map<String, Object> resposta = new HashMap<>();
             resposta.put("erro", e.getMessage());
@@ -342,6 +510,30 @@ public class CarroController {
         }
     }
     
+    /**
+     * Paginação por cursor é ativada quando o cliente envia cursor, limite ou ordenação;
+     * sem esses parâmetros as rotas mantêm a resposta em lista completa
+     */
+    private boolean paginado(String cursor, Integer limite, String ordenarPor) {
+        return cursor != null || limite != null || ordenarPor != null;
+    }
+    
+    /**
+     * Handler para cursor, limite, página ou ordenação inválidos
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+    
+    /**
+     * Handler para JSON malformado lido em streaming (importação)
+     */
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<Map<String, String>> handleJsonInvalido(JsonProcessingException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", "JSON inválido: " + ex.getOriginalMessage()));
+    }
+    
     /**
      * Handler para erros de validação
      */
@@ -354,7 +546,7 @@ public class CarroController {
             errors.put(fieldName, errorMessage);
         });
         
-        System.out.println("🚨 ERROS DE VALIDAÇÃO: " + errors);
+        log.debug("Erros de validação: {}", errors);
         return ResponseEntity.badRequest().body(errors);
     }
 }
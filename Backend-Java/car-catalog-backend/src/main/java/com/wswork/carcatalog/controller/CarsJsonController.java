@@ -1,42 +1,93 @@
 package com.wswork.carcatalog.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.wswork.carcatalog.dto.CarroFormatadoDTO;
-import com.wswork.carcatalog.service.CarroService;
+import com.wswork.carcatalog.config.FormatosResposta;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.service.CarsJsonCache;
+import com.wswork.carcatalog.service.CarsJsonService;
+import com.wswork.carcatalog.service.CatalogoVersao;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class CarsJsonController {
     
-    private final CarroService carroService;
+    private final CarsJsonService carsJsonService;
+    private final CarsJsonCache carsJsonCache;
+    private final CatalogoVersao catalogoVersao;
+    private final FormatosResposta formatosResposta;
     
-    @GetMapping(value = "/cars.json", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<String> getCarsJson() {
-        try {
-            List<CarroFormatadoDTO> carrosFormatados = carroService.buscarTodosFormatados();
-            Map<String, List<CarroFormatadoDTO>> resposta = new HashMap<>();
-            resposta.put("cars", carrosFormatados);
-            
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.enable(SerializationFeature.INDENT_OUTPUT);
-            
-            String jsonFormatado = mapper.writeValueAsString(resposta);
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(jsonFormatado);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+    /**
+     * GET /cars.json - Catálogo no formato cars.json (compacto)
+     * Servido a partir do snapshot em memória, com ETag forte e variante gzip;
+     * com ?indentar=true o documento é gerado em streaming a cada chamada.
+     * Com Accept: application/cbor ou application/x-jackson-smile o mesmo documento sai no formato binário,
+     * em streaming (comprimido pelo servidor quando o cliente aceita gzip)
+     */
+    @GetMapping(value = "/cars.json", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            "application/x-jackson-smile"})
+    public void getCarsJson(@RequestParam(defaultValue = "false") boolean indentar,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        MediaType formato = FormatosResposta.negociar(request.getHeader(HttpHeaders.ACCEPT));
+        if (!MediaType.APPLICATION_JSON.equals(formato)) {
+            if (RespostaCondicional.naoModificada(new ServletWebRequest(request, response),
+                    catalogoVersao.etag(Entidade.CARRO, Entidade.MODELO, Entidade.MARCA))) {
+                return;
+            }
+            response.setContentType(formato.toString());
+            carsJsonService.escrever(response.getOutputStream(), formatosResposta.mapeador(formato), false);
+            return;
         }
+        
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        
+        if (indentar) {
+            carsJsonService.escrever(response.getOutputStream(), true);
+            return;
+        }
+        
+        CarsJsonCache.Snapshot snapshot = carsJsonCache.obter();
+        boolean gzip = aceitaGzip(request);
+        
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING + ", " + HttpHeaders.ACCEPT);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (new ServletWebRequest(request, response).checkNotModified(gzip ? snapshot.getEtagGzip() : snapshot.getEtag())) {
+            return; // 304 Not Modified
+        }
+        
+        byte[] corpo = gzip ? snapshot.getJsonGzip() : snapshot.getJson();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(corpo.length);
+        response.getOutputStream().write(corpo);
+    }
+    
+    /**
+     * Verificar se o cliente aceita gzip (ignorando "gzip;q=0")
+     */
+    private boolean aceitaGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length < 2 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
@@ -1,12 +1,15 @@
 package com.wswork.carcatalog.controller;
 
 import com.wswork.carcatalog.dto.MarcaDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.service.CatalogoVersao;
 import com.wswork.carcatalog.service.MarcaService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,12 +24,16 @@ import java.util.Optional;
 public class MarcaController {
     
     private final MarcaService marcaService;
+    private final CatalogoVersao catalogoVersao;
     
     /**
-     * GET /api/marcas - Listar todas as marcas
+     * GET /api/marcas - Listar todas as marcas (304 com If-None-Match se nenhuma marca mudou)
      */
     @GetMapping
-    public ResponseEntity<List<MarcaDTO>> listarTodas() {
+    public ResponseEntity<List<MarcaDTO>> listarTodas(ServletWebRequest request) {
+        if (RespostaCondicional.naoModificada(request, catalogoVersao.etag(Entidade.MARCA))) {
+            return null;
+        }
         List<MarcaDTO> marcas = marcaService.buscarTodas();
         return ResponseEntity.ok(marcas);
     }
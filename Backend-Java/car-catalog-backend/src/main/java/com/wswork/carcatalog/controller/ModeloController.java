@@ -1,12 +1,16 @@
 package com.wswork.carcatalog.controller;
 
 import com.wswork.carcatalog.dto.ModeloDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.service.CatalogoVersao;
 import com.wswork.carcatalog.service.ModeloService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,6 +20,7 @@ import java.util.HashMap;
 /**
  * Controller para operações REST relacionadas a Modelo
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/modelos")
 @RequiredArgsConstructor
@@ -23,12 +28,16 @@ import java.util.HashMap;
 public class ModeloController {
     
     private final ModeloService modeloService;
+    private final CatalogoVersao catalogoVersao;
     
     /**
-     * GET /api/modelos - Listar todos os modelos
+     * GET /api/modelos - Listar todos os modelos (304 com If-None-Match se nenhum modelo ou marca mudou)
      */
     @GetMapping
-    public ResponseEntity<List<ModeloDTO>> listarTodos() {
+    public ResponseEntity<List<ModeloDTO>> listarTodos(ServletWebRequest request) {
+        if (RespostaCondicional.naoModificada(request, catalogoVersao.etag(Entidade.MODELO, Entidade.MARCA))) {
+            return null;
+        }
         List<ModeloDTO> modelos = modeloService.buscarTodos();
         return ResponseEntity.ok(modelos);
     }
@@ -48,10 +57,13 @@ public class ModeloController {
     }
     
     /**
-     * GET /api/modelos/marca/{marcaId} - Buscar modelos por marca
+     * GET /api/modelos/marca/{marcaId} - Buscar modelos por marca (GET condicional como a listagem)
      */
     @GetMapping("/marca/{marcaId}")
-    public ResponseEntity<List<ModeloDTO>> buscarPorMarca(@PathVariable Long marcaId) {
+    public ResponseEntity<List<ModeloDTO>> buscarPorMarca(@PathVariable Long marcaId, ServletWebRequest request) {
+        if (RespostaCondicional.naoModificada(request, catalogoVersao.etag(Entidade.MODELO, Entidade.MARCA))) {
+            return null;
+        }
         List<ModeloDTO> modelos = modeloService.buscarPorMarca(marcaId);
         return ResponseEntity.ok(modelos);
     }
@@ -115,13 +127,11 @@ public class ModeloController {
             Map<String, List<ModeloDTO>> resposta = new HashMap<>();
             resposta.put("cars", modelos);
             
-            System.out.println("🚗 === ENDPOINT MODELOS FORMATADO CHAMADO ===");
-            System.out.println("Total de modelos: " + modelos.size());
-            System.out.println("=============================================");
+            log.debug("Modelos formatados enviados: total={}", modelos.size());
             
             return ResponseEntity.ok(resposta);
         } catch (Exception e) {
-            System.out.println("🚨 ERRO NO ENDPOINT MODELOS FORMATADO: " + e.getMessage());
+            log.error("Erro ao listar modelos formatados", e);
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -0,0 +1,57 @@
+package com.wswork.carcatalog.controller;
+
+import com.wswork.carcatalog.config.FormatosResposta;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * GET condicional das listagens do catálogo (ETag / If-None-Match) e escrita condicional de um carro (If-Match)
+ */
+final class RespostaCondicional {
+    
+    private RespostaCondicional() {
+    }
+    
+    /**
+     * Responder 304 se o cliente já tem a representação com a ETag informada; caso contrário a ETag fica
+     * na resposta. Com Cache-Control: no-cache o cliente pode guardar a lista mas revalida a cada uso.
+     *
+     * A ETag ganha o formato negociado pelo Accept (JSON, CBOR ou Smile) e é fraca: a mesma lista com ou
+     * sem gzip é equivalente, e o Tomcat não comprime respostas com ETag forte.
+     */
+    static boolean naoModificada(ServletWebRequest request, String etag) {
+        String sufixo = FormatosResposta.sufixoEtag(FormatosResposta.negociar(request.getHeader(HttpHeaders.ACCEPT)));
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified("W/" + etag.substring(0, etag.length() - 1) + sufixo + "\"");
+    }
+    
+    /**
+     * ETag de um carro: a sua versão, forte porque identifica exatamente a linha lida
+     */
+    static String etagVersao(Long versao) {
+        return "\"" + versao + "\"";
+    }
+    
+    /**
+     * Versão exigida pelo If-Match de um PUT ou DELETE; nula sem o cabeçalho ou com "*"
+     */
+    static Long versaoExigida(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        try {
+            return Long.valueOf(etag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("If-Match inválido: " + ifMatch + " (use a ETag recebida do carro)");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de uma alteração do catálogo enviada pelo feed SSE (GET /api/carros/stream)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlteracaoCatalogoDTO {
+
+    private String entidade;   // CARRO, MARCA ou MODELO
+    private String operacao;   // CRIADO, ATUALIZADO, REMOVIDO ou LOTE
+    private Long id;           // Nulo em operações em lote
+}
@@ -0,0 +1,19 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com o resultado de uma alteração em lote por filtro (reajuste de valor ou remoção)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlteracaoLoteResultadoDTO {
+    
+    private Long quantidade;           // Carros alterados ou removidos
+    private Integer blocos;            // Transações executadas, uma por bloco de ids
+    private Long duracaoMs;
+    private Double carrosPorSegundo;
+}
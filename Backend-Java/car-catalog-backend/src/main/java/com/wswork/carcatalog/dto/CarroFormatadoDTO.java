@@ -19,4 +19,13 @@ public class CarroFormatadoDTO {
     private String nome_modelo;
     private Integer valor;
     private String marca;
+    
+    /**
+     * Construtor usado pelas projeções JPQL do CarroRepository (valor vem como Double da entidade)
+     */
+    public CarroFormatadoDTO(Long id, Long timestamp_cadastro, Long modelo_id, Integer ano, String combustivel,
+                             Integer num_portas, String cor, String nome_modelo, Double valor, String marca) {
+        this(id, timestamp_cadastro, modelo_id, ano, combustivel, num_portas, cor, nome_modelo,
+                valor != null ? valor.intValue() : null, marca);
+    }
 }
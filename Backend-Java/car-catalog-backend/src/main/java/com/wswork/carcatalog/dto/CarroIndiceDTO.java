@@ -0,0 +1,30 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de Carro com os ids e nomes de modelo e marca, usada para alimentar o índice em memória
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarroIndiceDTO {
+    
+    private Long id;
+    private Long modeloId;
+    private String nomeModelo;
+    private Long marcaId;
+    private String nomeMarca;
+    private Integer ano;
+    private String combustivel;
+    private Integer numPortas;
+    private String cor;
+    private Double valor;
+    private Long timestampCadastro;
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataAtualizacao;
+}
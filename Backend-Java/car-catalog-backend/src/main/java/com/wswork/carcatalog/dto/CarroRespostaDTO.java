@@ -26,4 +26,15 @@ public class CarroRespostaDTO {
     private Long timestampCadastro;
     private LocalDateTime dataCriacao;
     private LocalDateTime dataAtualizacao;
+    
+    /**
+     * Construtor usado pelas projeções JPQL do CarroRepository (valor vem como Double da entidade)
+     */
+    public CarroRespostaDTO(Long id, String nomeModelo, String nomeMarca, Integer ano, String combustivel,
+                            Integer numPortas, String cor, Double valor, Long timestampCadastro,
+                            LocalDateTime dataCriacao, LocalDateTime dataAtualizacao) {
+        this(id, nomeModelo, nomeMarca, ano, combustivel, numPortas, cor,
+                valor != null ? BigDecimal.valueOf(valor) : null,
+                timestampCadastro, dataCriacao, dataAtualizacao);
+    }
 }
@@ -0,0 +1,47 @@
+package com.wswork.carcatalog.dto;
+
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.DadosCarro;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO com o estado completo de um carro e a sua versão, lido em um único SELECT antes de uma escrita
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadoCarroDTO {
+    
+    private Long id;
+    private Long modeloId;
+    private String nomeModelo;
+    private String nomeMarca;
+    private Integer ano;
+    private String combustivel;
+    private Integer numPortas;
+    private String cor;
+    private Double valor;
+    private Long timestampCadastro;
+    private LocalDateTime dataCriacao;
+    private LocalDateTime dataAtualizacao;
+    private Long versao;
+    
+    /**
+     * Campos agregados pelos ouvintes do CatalogoAlteradoEvent
+     */
+    public DadosCarro dados() {
+        return new DadosCarro(modeloId, ano, combustivel, cor, valor);
+    }
+    
+    /**
+     * Converter para o DTO de resposta da API
+     */
+    public CarroRespostaDTO resposta() {
+        return new CarroRespostaDTO(id, nomeModelo, nomeMarca, ano, combustivel, numPortas, cor,
+                valor != null ? BigDecimal.valueOf(valor) : null, timestampCadastro, dataCriacao, dataAtualizacao);
+    }
+}
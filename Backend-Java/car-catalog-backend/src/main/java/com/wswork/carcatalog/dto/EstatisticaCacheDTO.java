@@ -0,0 +1,20 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com os acertos e falhas de uma região do cache de segundo nível do Hibernate, acumulados desde o início
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticaCacheDTO {
+    
+    private String regiao;
+    private Long acertos;
+    private Long falhas;
+    private Long gravacoes;
+    private Double taxaAcerto;
+}
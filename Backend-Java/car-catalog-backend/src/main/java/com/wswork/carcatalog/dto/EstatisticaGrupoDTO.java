@@ -0,0 +1,24 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com a quantidade de carros e as estatísticas de valor de uma marca ou de um modelo
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticaGrupoDTO {
+    
+    private Long id;
+    private String nome;
+    private Long marcaId;      // Para marcas, o próprio id
+    private String nomeMarca;
+    private Long quantidade;
+    private Double valorMinimo;
+    private Double valorMaximo;
+    private Double valorMedio;
+    private Double valorTotal;
+}
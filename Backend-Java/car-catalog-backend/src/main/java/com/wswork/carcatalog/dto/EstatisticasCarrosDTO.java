@@ -0,0 +1,24 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO das estatísticas do estoque de carros (GET /api/carros/stats)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstatisticasCarrosDTO {
+    
+    private Long total;
+    private List<EstatisticaGrupoDTO> porMarca;   // Da marca com mais carros para a com menos
+    private List<EstatisticaGrupoDTO> porModelo;
+    private Map<Integer, Long> porAno;
+    private Map<String, Long> porCombustivel;
+    private Map<String, Long> porCor;
+}
@@ -0,0 +1,26 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com os critérios da busca combinada de carros (todos opcionais)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FiltroCarroDTO {
+    
+    private Long marcaId;
+    private String marca;      // Nome da marca (sem diferenciar maiúsculas)
+    private Long modeloId;
+    private String modelo;     // Nome do modelo (sem diferenciar maiúsculas)
+    private Integer anoMin;
+    private Integer anoMax;
+    private String combustivel;
+    private String cor;
+    private Integer numPortas;
+    private Double precoMin;
+    private Double precoMax;
+}
@@ -0,0 +1,27 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO com o relatório de uma importação de arquivo no formato do cars.json
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoResultadoDTO {
+    
+    private Long lidos;
+    private Long importados;
+    private Long rejeitados;
+    private Integer blocos;
+    private Integer marcasCriadas;
+    private Integer modelosCriados;
+    private Long duracaoMs;
+    private Double carrosPorSegundo;
+    private List<String> erros;        // Primeiros erros encontrados (registro ou bloco e motivo)
+    private Long posicaoErro;          // Posição em que a leitura parou por JSON inválido (null: arquivo lido todo)
+}
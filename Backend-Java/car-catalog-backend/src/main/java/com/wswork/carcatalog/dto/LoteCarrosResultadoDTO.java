@@ -0,0 +1,23 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO com o resultado da criação de carros em lote
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteCarrosResultadoDTO {
+    
+    private Integer quantidade;
+    private Integer marcasCriadas;
+    private Integer modelosCriados;
+    private List<Long> ids;            // Na mesma ordem dos carros enviados
+    private Long duracaoMs;            // Tempo total da requisição, incluindo o commit
+    private Double carrosPorSegundo;
+}
@@ -0,0 +1,30 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO com as métricas de uma rota ("GET /api/carros/{id}")
+ * Contagens e bytes são acumulados desde o início; percentis, média e máximo cobrem a janela recente
+ * (naoModificadas: respostas 304 a GETs condicionais, servidas sem consultar o banco)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricasRotaDTO {
+    
+    private String rota;
+    private Long requisicoes;
+    private Long naoModificadas;
+    private Long erros4xx;
+    private Long erros5xx;
+    private Double p50Ms;
+    private Double p90Ms;
+    private Double p99Ms;
+    private Double p999Ms;
+    private Double maxMs;
+    private Double mediaMs;
+    private Long bytesTotal;
+    private Double bytesMedio;
+}
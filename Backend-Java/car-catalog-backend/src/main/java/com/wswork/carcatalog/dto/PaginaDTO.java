@@ -0,0 +1,21 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para respostas paginadas por cursor (keyset)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    
+    private List<T> itens;
+    private Integer limite;
+    private Boolean temMais;
+    private String proximoCursor; // Opaco para o cliente; null na última página
+}
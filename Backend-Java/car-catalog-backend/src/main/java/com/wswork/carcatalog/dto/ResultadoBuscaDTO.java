@@ -0,0 +1,22 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para respostas paginadas por número de página, com o total de resultados
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoBuscaDTO<T> {
+    
+    private List<T> itens;
+    private Integer pagina;
+    private Integer tamanho;
+    private Long total;
+    private Integer totalPaginas;
+}
@@ -0,0 +1,21 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de um resultado da busca por nome de marcas e modelos, com a pontuação usada na ordenação
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoNomeDTO {
+    
+    private String tipo;       // MARCA ou MODELO
+    private Long id;
+    private String nome;
+    private Long marcaId;      // Para marcas, o próprio id
+    private String nomeMarca;
+    private Double pontuacao;  // Acima de 1: contém o texto buscado; abaixo: similaridade por trigramas
+}
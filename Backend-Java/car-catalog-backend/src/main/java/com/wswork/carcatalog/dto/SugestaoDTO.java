@@ -0,0 +1,21 @@
+package com.wswork.carcatalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de uma sugestão do autocomplete de marcas e modelos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugestaoDTO {
+
+    private String tipo;       // MARCA ou MODELO
+    private Long id;
+    private String nome;
+    private Long marcaId;      // Para marcas, o próprio id
+    private String nomeMarca;
+    private Long carros;       // Carros cadastrados no modelo (ou em todos os modelos da marca)
+}
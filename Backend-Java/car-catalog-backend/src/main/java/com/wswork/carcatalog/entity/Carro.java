@@ -1,15 +1,21 @@
 package com.wswork.carcatalog.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "carros")
+@Table(name = "carros", indexes = {
+    @Index(name = "idx_carros_ano_id", columnList = "ano, id"),
+    @Index(name = "idx_carros_valor_id", columnList = "valor, id"),
+    @Index(name = "idx_carros_combustivel", columnList = "combustivel"),
+    @Index(name = "idx_carros_cor", columnList = "cor")
+})
 public class Carro {
     
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carro_seq")
-    @SequenceGenerator(name = "carro_seq", sequenceName = "carro_sequence", initialValue = 1000, allocationSize = 1)
+    @SequenceGenerator(name = "carro_seq", sequenceName = "carro_sequence", initialValue = 1000, allocationSize = 50)
     private Long id;
     
     @Column(name = "timestamp_cadastro")
@@ -40,6 +46,12 @@ public class Carro {
     @Column(name = "data_atualizacao")
     private LocalDateTime dataAtualizacao;
     
+    // Controle de concorrência otimista: incrementada a cada escrita (o default preenche as linhas já existentes)
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+    
     // Construtores
     public Carro() {}
     
@@ -134,6 +146,14 @@ public class Carro {
         this.dataAtualizacao = dataAtualizacao;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     // Callbacks JPA
     @PrePersist
     protected void aoCriar() {
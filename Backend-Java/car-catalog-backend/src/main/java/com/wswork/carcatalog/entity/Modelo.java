@@ -1,10 +1,16 @@
 package com.wswork.carcatalog.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "modelos")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "modelos", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_modelos_marca_nome", columnNames = {"marca_id", "nome"})
+})
 public class Modelo {
     
     @Id
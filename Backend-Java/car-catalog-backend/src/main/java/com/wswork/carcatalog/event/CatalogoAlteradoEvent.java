@@ -0,0 +1,44 @@
+package com.wswork.carcatalog.event;
+
+import com.wswork.carcatalog.entity.Carro;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Evento publicado pelos services a cada escrita no catálogo (carros, marcas e modelos).
+ * Os ouvintes usam @TransactionalEventListener para reagir somente após o commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class CatalogoAlteradoEvent {
+    
+    public enum Entidade { CARRO, MARCA, MODELO }
+    
+    // LOTE: várias linhas da entidade alteradas de uma vez (o id vem nulo)
+    public enum Operacao { CRIADO, ATUALIZADO, REMOVIDO, LOTE }
+    
+    /**
+     * Campos do carro que os ouvintes agregam, para reagirem sem reler a linha do banco
+     */
+    public record DadosCarro(Long modeloId, Integer ano, String combustivel, String cor, Double valor) {
+        
+        public static DadosCarro de(Carro carro) {
+            return new DadosCarro(carro.getModelo().getId(), carro.getAno(), carro.getCombustivel(),
+                    carro.getCor(), carro.getValor());
+        }
+    }
+    
+    private final Entidade entidade;
+    private final Operacao operacao;
+    private final Long id;
+    
+    // Só em eventos de um carro: como ele era antes e como ficou (nulo quando não existia ou deixou de existir)
+    private final DadosCarro carroAnterior;
+    private final DadosCarro carroAtual;
+    
+    public CatalogoAlteradoEvent(Entidade entidade, Operacao operacao, Long id) {
+        this(entidade, operacao, id, null, null);
+    }
+}
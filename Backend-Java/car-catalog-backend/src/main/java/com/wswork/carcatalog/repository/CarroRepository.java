@@ -1,37 +1,174 @@
 package com.wswork.carcatalog.repository;
 
+import com.wswork.carcatalog.dto.CarroFormatadoDTO;
+import com.wswork.carcatalog.dto.CarroIndiceDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.EstadoCarroDTO;
 import com.wswork.carcatalog.entity.Carro;
+import com.wswork.carcatalog.entity.Modelo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CarroRepository extends JpaRepository<Carro, Long> {
-    
-    // Buscar carros por modelo
-    List<Carro> findByModeloId(Long modeloId);
-    
-    // Buscar carros por ano
-    List<Carro> findByAno(Integer ano);
-    
-    // Buscar carros por combustível
-    List<Carro> findByCombustivel(String combustivel);
-    
-    // Buscar carros por cor
-    List<Carro> findByCor(String cor);
-    
-    // Buscar carros por faixa de preço
-    List<Carro> findByValorBetween(Double valorMin, Double valorMax);
-    
+public interface CarroRepository extends JpaRepository<Carro, Long>, CarroRepositoryCustom {
+
+    // Projeções montadas direto do JOIN carro -> modelo -> marca (um único SELECT, sem carregar entidades)
+    String SELECT_RESPOSTA = "SELECT new com.wswork.carcatalog.dto.CarroRespostaDTO("
+            + "c.id, m.nome, ma.nomeMarca, c.ano, c.combustivel, c.numPortas, c.cor, c.valor, "
+            + "c.timestampCadastro, c.dataCriacao, c.dataAtualizacao) "
+            + "FROM Carro c JOIN c.modelo m JOIN m.marca ma ";
+
+    String SELECT_FORMATADO = "SELECT new com.wswork.carcatalog.dto.CarroFormatadoDTO("
+            + "c.id, c.timestampCadastro, m.id, c.ano, c.combustivel, c.numPortas, c.cor, m.nome, c.valor, ma.nomeMarca) "
+            + "FROM Carro c JOIN c.modelo m JOIN m.marca ma ";
+
+    String SELECT_INDICE = "SELECT new com.wswork.carcatalog.dto.CarroIndiceDTO("
+            + "c.id, m.id, m.nome, ma.id, ma.nomeMarca, c.ano, c.combustivel, c.numPortas, c.cor, c.valor, "
+            + "c.timestampCadastro, c.dataCriacao, c.dataAtualizacao) "
+            + "FROM Carro c JOIN c.modelo m JOIN m.marca ma ";
+
+    // Linhas trazidas do banco por ida ao servidor ao percorrer resultados em stream (no MySQL depende de
+    // useCursorFetch=true, ligado em application.properties, para não carregar o resultado inteiro)
+    int TAMANHO_FETCH_STREAM = 1000;
+
     // Buscar carros por marca (usando join)
     @Query("SELECT c FROM Carro c JOIN c.modelo m JOIN m.marca ma WHERE ma.id = :marcaId")
     List<Carro> findByMarcaId(Long marcaId);
-    
+
     // Buscar carros ordenados por valor (mais caros primeiro)
     List<Carro> findAllByOrderByValorDesc();
-    
+
     // Buscar carros ordenados por ano (mais novos primeiro)
     List<Carro> findAllByOrderByAnoDesc();
+
+    // Listar todos os carros já no formato de resposta
+    @Query(SELECT_RESPOSTA + "ORDER BY c.id")
+    List<CarroRespostaDTO> findAllResposta();
+
+    // Buscar carro por ID já no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE c.id = :id")
+    Optional<CarroRespostaDTO> findRespostaById(Long id);
+
+    // Buscar carros por modelo no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE m.id = :modeloId ORDER BY c.id")
+    List<CarroRespostaDTO> findRespostaByModeloId(Long modeloId);
+
+    // Buscar carros por ano no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE c.ano = :ano ORDER BY c.id")
+    List<CarroRespostaDTO> findRespostaByAno(Integer ano);
+
+    // Buscar carros por combustível no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE c.combustivel = :combustivel ORDER BY c.id")
+    List<CarroRespostaDTO> findRespostaByCombustivel(String combustivel);
+
+    // Buscar carros por cor no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE c.cor = :cor ORDER BY c.id")
+    List<CarroRespostaDTO> findRespostaByCor(String cor);
+
+    // Buscar carros por faixa de preço no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE c.valor BETWEEN :valorMin AND :valorMax ORDER BY c.id")
+    List<CarroRespostaDTO> findRespostaByValorBetween(Double valorMin, Double valorMax);
+
+    // Buscar carros por marca no formato de resposta
+    @Query(SELECT_RESPOSTA + "WHERE ma.id = :marcaId ORDER BY c.id")
+    List<CarroRespostaDTO> findRespostaByMarcaId(Long marcaId);
+
+    // Listar todos os carros no formato do cars.json
+    @Query(SELECT_FORMATADO + "ORDER BY c.id")
+    List<CarroFormatadoDTO> findAllFormatado();
+
+    // Percorrer todos os carros no formato do cars.json sem materializar a lista
+    // (deve ser consumido dentro de uma transação e fechado ao final)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANHO_FETCH_STREAM))
+    @Query(SELECT_FORMATADO + "ORDER BY c.id")
+    Stream<CarroFormatadoDTO> streamAllFormatado();
+
+    // Percorrer todos os carros no formato de resposta sem materializar a lista (exportação NDJSON/CSV)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANHO_FETCH_STREAM))
+    @Query(SELECT_RESPOSTA + "ORDER BY c.id")
+    Stream<CarroRespostaDTO> streamAllResposta();
+
+    // Paginação por cursor (keyset): cada página continua a partir da chave do último item da anterior,
+    // usando os índices de (id), (valor, id) e (ano, id) em vez de OFFSET
+
+    @Query(SELECT_RESPOSTA + "WHERE c.id > :aposId ORDER BY c.id")
+    List<CarroRespostaDTO> findPaginaResposta(Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE c.valor < :aposValor OR (c.valor = :aposValor AND c.id < :aposId) "
+            + "ORDER BY c.valor DESC, c.id DESC")
+    List<CarroRespostaDTO> findPaginaRespostaOrderByValorDesc(Double aposValor, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE c.ano < :aposAno OR (c.ano = :aposAno AND c.id < :aposId) "
+            + "ORDER BY c.ano DESC, c.id DESC")
+    List<CarroRespostaDTO> findPaginaRespostaOrderByAnoDesc(Integer aposAno, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE m.id = :modeloId AND c.id > :aposId ORDER BY c.id")
+    List<CarroRespostaDTO> findPaginaRespostaByModeloId(Long modeloId, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE c.ano = :ano AND c.id > :aposId ORDER BY c.id")
+    List<CarroRespostaDTO> findPaginaRespostaByAno(Integer ano, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE c.combustivel = :combustivel AND c.id > :aposId ORDER BY c.id")
+    List<CarroRespostaDTO> findPaginaRespostaByCombustivel(String combustivel, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE c.cor = :cor AND c.id > :aposId ORDER BY c.id")
+    List<CarroRespostaDTO> findPaginaRespostaByCor(String cor, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE ma.id = :marcaId AND c.id > :aposId ORDER BY c.id")
+    List<CarroRespostaDTO> findPaginaRespostaByMarcaId(Long marcaId, Long aposId, Limit limite);
+
+    @Query(SELECT_RESPOSTA + "WHERE c.valor BETWEEN :valorMin AND :valorMax "
+            + "AND (c.valor > :aposValor OR (c.valor = :aposValor AND c.id > :aposId)) "
+            + "ORDER BY c.valor, c.id")
+    List<CarroRespostaDTO> findPaginaRespostaByValorBetween(Double valorMin, Double valorMax,
+                                                           Double aposValor, Long aposId, Limit limite);
+
+    // Escrita de um carro sem carregar a entidade: o estado lido antes (com a versão) alimenta o evento de
+    // alteração, e o UPDATE/DELETE só afeta a linha se ninguém a alterou desde então (0 linhas = conflito ou
+    // carro inexistente)
+
+    @Query("SELECT new com.wswork.carcatalog.dto.EstadoCarroDTO("
+            + "c.id, m.id, m.nome, ma.nomeMarca, c.ano, c.combustivel, c.numPortas, c.cor, c.valor, "
+            + "c.timestampCadastro, c.dataCriacao, c.dataAtualizacao, c.versao) "
+            + "FROM Carro c JOIN c.modelo m JOIN m.marca ma WHERE c.id = :id")
+    Optional<EstadoCarroDTO> findEstadoById(Long id);
+
+    @Modifying
+    @Query("UPDATE Carro c SET c.modelo = :modelo, c.ano = :ano, c.combustivel = :combustivel, "
+            + "c.numPortas = :numPortas, c.cor = :cor, c.valor = :valor, c.dataAtualizacao = :dataAtualizacao, "
+            + "c.versao = c.versao + 1 WHERE c.id = :id AND c.versao = :versao")
+    int atualizarNaVersao(Long id, Long versao, Modelo modelo, Integer ano, String combustivel, Integer numPortas,
+                          String cor, Double valor, LocalDateTime dataAtualizacao);
+
+    @Modifying
+    @Query("DELETE FROM Carro c WHERE c.id = :id AND c.versao = :versao")
+    int deletarNaVersao(Long id, Long versao);
+
+    // Quantidade de carros por modelo: [modeloId, quantidade] (pesos do autocomplete)
+    @Query("SELECT c.modelo.id, COUNT(c) FROM Carro c GROUP BY c.modelo.id")
+    List<Object[]> contarPorModelo();
+
+    // Carga e atualização do índice colunar em memória
+
+    @Query(SELECT_INDICE + "WHERE c.id = :id")
+    Optional<CarroIndiceDTO> findIndiceById(Long id);
+
+    @Query(SELECT_INDICE + "WHERE c.id IN :ids")
+    List<CarroIndiceDTO> findAllIndiceByIdIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANHO_FETCH_STREAM))
+    @Query(SELECT_INDICE + "ORDER BY c.id")
+    Stream<CarroIndiceDTO> streamAllIndice();
 }
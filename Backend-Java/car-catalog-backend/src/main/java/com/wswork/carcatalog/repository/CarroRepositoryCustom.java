@@ -0,0 +1,27 @@
+package com.wswork.carcatalog.repository;
+
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consultas de Carro montadas dinamicamente (Criteria API)
+ */
+public interface CarroRepositoryCustom {
+    
+    // Buscar carros combinando qualquer conjunto de filtros, com ordenação e página
+    Page<CarroRespostaDTO> buscar(FiltroCarroDTO filtro, Pageable pageable);
+    
+    // Ids dos carros do filtro após aposId, em ordem e no máximo tamanho (limites de um bloco de alteração em lote)
+    List<Long> buscarIdsBloco(FiltroCarroDTO filtro, long aposId, int tamanho);
+    
+    // Multiplicar pelo fator (arredondando em centavos) o valor dos carros do filtro com id em (aposId, ateId]
+    int reajustarValorBloco(FiltroCarroDTO filtro, long aposId, long ateId, double fator, LocalDateTime dataAtualizacao);
+    
+    // Remover os carros do filtro com id em (aposId, ateId]
+    int removerBloco(FiltroCarroDTO filtro, long aposId, long ateId);
+}
@@ -0,0 +1,220 @@
+package com.wswork.carcatalog.repository;
+
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.entity.Carro;
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementação das consultas dinâmicas de Carro.
+ * Cada busca gera um único SELECT com os filtros informados; o COUNT só é executado
+ * quando o total não pode ser deduzido da própria página.
+ * As alterações em lote são um UPDATE/DELETE por faixa de ids, com os filtros de marca e modelo
+ * em subconsulta (UPDATE e DELETE não aceitam JOIN).
+ */
+public class CarroRepositoryCustomImpl implements CarroRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public Page<CarroRespostaDTO> buscar(FiltroCarroDTO filtro, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaQuery<CarroRespostaDTO> consulta = cb.createQuery(CarroRespostaDTO.class);
+        Root<Carro> carro = consulta.from(Carro.class);
+        Join<Carro, Modelo> modelo = carro.join("modelo");
+        Join<Modelo, Marca> marca = modelo.join("marca");
+        
+        consulta.select(cb.construct(CarroRespostaDTO.class,
+                carro.get("id"), modelo.get("nome"), marca.get("nomeMarca"), carro.get("ano"),
+                carro.get("combustivel"), carro.get("numPortas"), carro.get("cor"), carro.get("valor"),
+                carro.get("timestampCadastro"), carro.get("dataCriacao"), carro.get("dataAtualizacao")));
+        consulta.where(predicados(cb, filtro, carro, modelo, marca));
+        consulta.orderBy(ordenacao(cb, pageable.getSort(), carro));
+        
+        List<CarroRespostaDTO> itens = entityManager.createQuery(consulta)
+                .setFirstResult(deslocamento(pageable))
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        
+        return PageableExecutionUtils.getPage(itens, pageable, () -> contar(cb, filtro));
+    }
+    
+    /**
+     * Deslocamento da página, recusado quando não cabe no int aceito pelo JPA (em vez de transbordar)
+     */
+    private static int deslocamento(Pageable pageable) {
+        if (pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Página fora do intervalo: " + pageable.getPageNumber());
+        }
+        return (int) pageable.getOffset();
+    }
+    
+    private long contar(CriteriaBuilder cb, FiltroCarroDTO filtro) {
+        CriteriaQuery<Long> consulta = cb.createQuery(Long.class);
+        Root<Carro> carro = consulta.from(Carro.class);
+        Join<Carro, Modelo> modelo = carro.join("modelo");
+        Join<Modelo, Marca> marca = modelo.join("marca");
+        
+        consulta.select(cb.count(carro));
+        consulta.where(predicados(cb, filtro, carro, modelo, marca));
+        return entityManager.createQuery(consulta).getSingleResult();
+    }
+    
+    @Override
+    public List<Long> buscarIdsBloco(FiltroCarroDTO filtro, long aposId, int tamanho) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaQuery<Long> consulta = cb.createQuery(Long.class);
+        Root<Carro> carro = consulta.from(Carro.class);
+        Join<Carro, Modelo> modelo = carro.join("modelo");
+        Join<Modelo, Marca> marca = modelo.join("marca");
+        
+        List<Predicate> predicados = new ArrayList<>(List.of(predicados(cb, filtro, carro, modelo, marca)));
+        predicados.add(cb.greaterThan(carro.get("id"), aposId));
+        consulta.select(carro.get("id")).where(predicados.toArray(new Predicate[0])).orderBy(cb.asc(carro.get("id")));
+        return entityManager.createQuery(consulta).setMaxResults(tamanho).getResultList();
+    }
+    
+    @Override
+    public int reajustarValorBloco(FiltroCarroDTO filtro, long aposId, long ateId, double fator,
+                                   LocalDateTime dataAtualizacao) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaUpdate<Carro> alteracao = cb.createCriteriaUpdate(Carro.class);
+        Root<Carro> carro = alteracao.from(Carro.class);
+        alteracao.set(carro.<Double>get("valor"),
+                cb.function("round", Double.class, cb.prod(carro.<Double>get("valor"), fator), cb.literal(2)));
+        alteracao.set(carro.<LocalDateTime>get("dataAtualizacao"), dataAtualizacao);
+        alteracao.set(carro.<Long>get("versao"), cb.sum(carro.<Long>get("versao"), 1L));
+        alteracao.where(predicadosBloco(cb, alteracao, filtro, carro, aposId, ateId));
+        return entityManager.createQuery(alteracao).executeUpdate();
+    }
+    
+    @Override
+    public int removerBloco(FiltroCarroDTO filtro, long aposId, long ateId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        
+        CriteriaDelete<Carro> remocao = cb.createCriteriaDelete(Carro.class);
+        Root<Carro> carro = remocao.from(Carro.class);
+        remocao.where(predicadosBloco(cb, remocao, filtro, carro, aposId, ateId));
+        return entityManager.createQuery(remocao).executeUpdate();
+    }
+    
+    private Predicate[] predicados(CriteriaBuilder cb, FiltroCarroDTO filtro,
+                                   Root<Carro> carro, Join<Carro, Modelo> modelo, Join<Modelo, Marca> marca) {
+        List<Predicate> predicados = predicadosNomes(cb, filtro, modelo, marca);
+        predicados.addAll(predicadosCarro(cb, filtro, carro));
+        return predicados.toArray(new Predicate[0]);
+    }
+    
+    /**
+     * Filtros de um bloco de alteração em lote: a faixa de ids, os campos do carro e, se houver filtro
+     * de marca ou modelo por nome ou id da marca, os modelos que o atendem em subconsulta
+     */
+    private Predicate[] predicadosBloco(CriteriaBuilder cb, CommonAbstractCriteria alteracao, FiltroCarroDTO filtro,
+                                        Root<Carro> carro, long aposId, long ateId) {
+        List<Predicate> predicados = predicadosCarro(cb, filtro, carro);
+        predicados.add(cb.greaterThan(carro.get("id"), aposId));
+        predicados.add(cb.lessThanOrEqualTo(carro.get("id"), ateId));
+        
+        Subquery<Long> modelos = alteracao.subquery(Long.class);
+        Root<Modelo> modelo = modelos.from(Modelo.class);
+        List<Predicate> predicadosModelo = predicadosNomes(cb, filtro, modelo, modelo.join("marca"));
+        if (!predicadosModelo.isEmpty()) {
+            modelos.select(modelo.get("id")).where(predicadosModelo.toArray(new Predicate[0]));
+            predicados.add(carro.get("modelo").get("id").in(modelos));
+        }
+        return predicados.toArray(new Predicate[0]);
+    }
+    
+    /**
+     * Filtros de marca e modelo. Os nomes são comparados sem LOWER() para que os índices das colunas
+     * sejam usados: a collation das colunas (utf8mb4_0900_ai_ci no MySQL, IGNORECASE no H2) já
+     * compara sem diferenciar maiúsculas
+     */
+    private List<Predicate> predicadosNomes(CriteriaBuilder cb, FiltroCarroDTO filtro,
+                                            From<?, Modelo> modelo, Join<Modelo, Marca> marca) {
+        List<Predicate> predicados = new ArrayList<>();
+        
+        if (filtro.getMarcaId() != null) {
+            predicados.add(cb.equal(marca.get("id"), filtro.getMarcaId()));
+        }
+        if (filtro.getMarca() != null && !filtro.getMarca().isBlank()) {
+            predicados.add(cb.equal(marca.get("nomeMarca"), filtro.getMarca().trim()));
+        }
+        if (filtro.getModelo() != null && !filtro.getModelo().isBlank()) {
+            predicados.add(cb.equal(modelo.get("nome"), filtro.getModelo().trim()));
+        }
+        
+        return predicados;
+    }
+    
+    private List<Predicate> predicadosCarro(CriteriaBuilder cb, FiltroCarroDTO filtro, Root<Carro> carro) {
+        List<Predicate> predicados = new ArrayList<>();
+        
+        if (filtro.getModeloId() != null) {
+            predicados.add(cb.equal(carro.get("modelo").get("id"), filtro.getModeloId()));
+        }
+        if (filtro.getAnoMin() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(carro.get("ano"), filtro.getAnoMin()));
+        }
+        if (filtro.getAnoMax() != null) {
+            predicados.add(cb.lessThanOrEqualTo(carro.get("ano"), filtro.getAnoMax()));
+        }
+        if (filtro.getCombustivel() != null) {
+            predicados.add(cb.equal(carro.get("combustivel"), filtro.getCombustivel()));
+        }
+        if (filtro.getCor() != null) {
+            predicados.add(cb.equal(carro.get("cor"), filtro.getCor()));
+        }
+        if (filtro.getNumPortas() != null) {
+            predicados.add(cb.equal(carro.get("numPortas"), filtro.getNumPortas()));
+        }
+        if (filtro.getPrecoMin() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(carro.get("valor"), filtro.getPrecoMin()));
+        }
+        if (filtro.getPrecoMax() != null) {
+            predicados.add(cb.lessThanOrEqualTo(carro.get("valor"), filtro.getPrecoMax()));
+        }
+        
+        return predicados;
+    }
+    
+    private List<Order> ordenacao(CriteriaBuilder cb, Sort sort, Root<Carro> carro) {
+        List<Order> ordens = new ArrayList<>();
+        boolean temId = false;
+        for (Sort.Order ordem : sort) {
+            ordens.add(ordem.isAscending() ? cb.asc(carro.get(ordem.getProperty())) : cb.desc(carro.get(ordem.getProperty())));
+            temId |= ordem.getProperty().equals("id");
+        }
+        if (!temId) {
+            // Desempate pelo id para que a paginação seja estável
+            ordens.add(cb.asc(carro.get("id")));
+        }
+        return ordens;
+    }
+}
@@ -2,8 +2,11 @@ package com.wswork.carcatalog.repository;
 
 import com.wswork.carcatalog.entity.Marca;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,6 +15,14 @@ public interface MarcaRepository extends JpaRepository<Marca, Long> {
     // Buscar marca por nome
     Optional<Marca> findByNomeMarca(String nomeMarca);
     
+    // Buscar marca por nome sem diferenciar maiúsculas (a mais antiga, se houver mais de uma)
+    Optional<Marca> findFirstByNomeMarcaIgnoreCaseOrderByIdAsc(String nomeMarca);
+    
     // Verificar se existe marca com o nome
     boolean existsByNomeMarca(String nomeMarca);
+    
+    // Buscar em uma única consulta as marcas com qualquer um dos nomes, informados já em minúsculas
+    // (sem diferenciar maiúsculas; as mais antigas primeiro)
+    @Query("SELECT m FROM Marca m WHERE LOWER(m.nomeMarca) IN :nomes ORDER BY m.id")
+    List<Marca> findByNomeMarcaMinusculoIn(Collection<String> nomes);
 }
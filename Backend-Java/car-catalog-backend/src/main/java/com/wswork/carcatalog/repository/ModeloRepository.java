@@ -2,16 +2,22 @@ package com.wswork.carcatalog.repository;
 
 import com.wswork.carcatalog.entity.Marca;
 import com.wswork.carcatalog.entity.Modelo;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ModeloRepository extends JpaRepository<Modelo, Long> {
     
-    // Buscar modelos por marca
+    // Buscar modelos por marca (resultado no cache de consultas; os modelos vêm do cache de segundo nível)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Modelo> findByMarcaId(Long marcaId);
     
     // Buscar modelo por nome
@@ -22,4 +28,22 @@ public interface ModeloRepository extends JpaRepository<Modelo, Long> {
     
     // Buscar modelo por marca e nome exato
     Optional<Modelo> findByNomeAndMarca(String nome, Marca marca);
+    
+    // Buscar modelo por marca e nome sem diferenciar maiúsculas (o mais antigo, se houver mais de um)
+    Optional<Modelo> findFirstByMarcaIdAndNomeIgnoreCaseOrderByIdAsc(Long marcaId, String nome);
+    
+    // Buscar em uma única consulta os modelos com qualquer um dos nomes, informados já em minúsculas,
+    // dentro das marcas informadas (o par marca/nome é conferido por quem chama; os mais antigos primeiro)
+    @Query("SELECT m FROM Modelo m WHERE m.marca.id IN :marcaIds AND LOWER(m.nome) IN :nomes ORDER BY m.id")
+    List<Modelo> findByMarcaIdInAndNomeMinusculoIn(Collection<Long> marcaIds, Collection<String> nomes);
+    
+    // Buscar modelos já com a marca carregada (índice de nomes)
+    @Query("SELECT m FROM Modelo m JOIN FETCH m.marca")
+    List<Modelo> findAllComMarca();
+    
+    @Query("SELECT m FROM Modelo m JOIN FETCH m.marca WHERE m.id = :id")
+    Optional<Modelo> findComMarcaById(Long id);
+    
+    @Query("SELECT m FROM Modelo m JOIN FETCH m.marca WHERE m.id IN :ids")
+    List<Modelo> findAllComMarcaByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,119 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.AlteracaoLoteResultadoDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.CarroRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Alterações em lote dos carros que atendem a um filtro: reajuste percentual do valor e remoção.
+ *
+ * Nenhuma entidade é carregada. Os carros são percorridos em blocos pela ordem do id: um SELECT traz só
+ * os ids do próximo bloco, e um UPDATE ou DELETE com os mesmos filtros age sobre a faixa de ids dele,
+ * cada bloco na sua própria transação. Locks e logs de desfazer ficam limitados a um bloco, e um carro
+ * reajustado nunca é visto de novo (mesmo que o novo valor continue no filtro). Os ouvintes do catálogo
+ * recebem um único evento de lote no final.
+ */
+@Slf4j
+@Service
+public class AlteracaoLoteCarrosService {
+
+    private final CarroRepository carroRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int tamanhoBloco;
+
+    public AlteracaoLoteCarrosService(CarroRepository carroRepository,
+                                      TransactionTemplate transactionTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${catalogo.alteracao-lote.tamanho-bloco:1000}") int tamanhoBloco) {
+        this.carroRepository = carroRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.tamanhoBloco = Math.max(1, tamanhoBloco);
+    }
+
+    /**
+     * Escrita de um bloco: os carros do filtro com id em (aposId, ateId], retornando as linhas afetadas
+     */
+    @FunctionalInterface
+    private interface EscritaBloco {
+        int executar(long aposId, long ateId);
+    }
+
+    /**
+     * Reajustar em percentual (ex.: 10 ou -5,5) o valor dos carros do filtro, arredondado em centavos
+     */
+    public AlteracaoLoteResultadoDTO reajustarValor(FiltroCarroDTO filtro, double percentual) {
+        if (!Double.isFinite(percentual) || percentual <= -100) {
+            throw new IllegalArgumentException("Percentual de reajuste deve ser maior que -100");
+        }
+        double fator = 1 + percentual / 100;
+        LocalDateTime agora = LocalDateTime.now();
+        return executar("Reajuste de valor", filtro,
+                (aposId, ateId) -> carroRepository.reajustarValorBloco(filtro, aposId, ateId, fator, agora));
+    }
+
+    /**
+     * Remover os carros do filtro
+     */
+    public AlteracaoLoteResultadoDTO remover(FiltroCarroDTO filtro) {
+        return executar("Remoção", filtro, (aposId, ateId) -> carroRepository.removerBloco(filtro, aposId, ateId));
+    }
+
+    private AlteracaoLoteResultadoDTO executar(String operacao, FiltroCarroDTO filtro, EscritaBloco escrita) {
+        if (vazio(filtro)) {
+            throw new IllegalArgumentException("Informe ao menos um filtro (marca, modelo, ano, combustível...)");
+        }
+        long inicio = System.nanoTime();
+        long quantidade = 0;
+        int blocos = 0;
+        long aposId = 0;
+        try {
+            List<Long> ids;
+            while (!(ids = carroRepository.buscarIdsBloco(filtro, aposId, tamanhoBloco)).isEmpty()) {
+                long de = aposId;
+                long ate = ids.get(ids.size() - 1);
+                quantidade += transactionTemplate.execute(status -> escrita.executar(de, ate));
+                blocos++;
+                aposId = ate;
+            }
+        } finally {
+            // Blocos já gravados continuam gravados mesmo se um posterior falhar
+            if (quantidade > 0) {
+                eventPublisher.publishEvent(new CatalogoAlteradoEvent(Entidade.CARRO, Operacao.LOTE, null));
+            }
+        }
+        long duracaoNanos = Math.max(System.nanoTime() - inicio, 1);
+        AlteracaoLoteResultadoDTO resultado = new AlteracaoLoteResultadoDTO(quantidade, blocos,
+                duracaoNanos / 1_000_000, quantidade * 1_000_000_000.0 / duracaoNanos);
+        log.info("{} em lote concluído: filtro={} carros={} blocos={} duracaoMs={} carrosPorSegundo={}",
+                operacao, filtro, quantidade, blocos, resultado.getDuracaoMs(), Math.round(resultado.getCarrosPorSegundo()));
+        return resultado;
+    }
+
+    /**
+     * Filtro sem nenhum critério (nomes em branco são ignorados pela busca): alteraria o catálogo inteiro
+     */
+    private static boolean vazio(FiltroCarroDTO filtro) {
+        return filtro.getMarcaId() == null && emBranco(filtro.getMarca())
+                && filtro.getModeloId() == null && emBranco(filtro.getModelo())
+                && filtro.getAnoMin() == null && filtro.getAnoMax() == null
+                && filtro.getCombustivel() == null && filtro.getCor() == null && filtro.getNumPortas() == null
+                && filtro.getPrecoMin() == null && filtro.getPrecoMax() == null;
+    }
+
+    private static boolean emBranco(String texto) {
+        return texto == null || texto.isBlank();
+    }
+}
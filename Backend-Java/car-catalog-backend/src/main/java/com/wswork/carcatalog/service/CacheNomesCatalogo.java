@@ -0,0 +1,167 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dicionário em memória de nome normalizado de marca -> id e (marca, nome de modelo) -> id,
+ * usado pelo find-or-create de CarroService para não consultar o banco a cada escrita.
+ *
+ * Aquecido quando a aplicação sobe e preenchido com marcas/modelos lidos ou criados (já commitados).
+ * Atualizações e remoções de marcas e modelos invalidam as entradas após o commit.
+ */
+@Component
+public class CacheNomesCatalogo {
+
+    /**
+     * Marca conhecida: id e nome como gravado no banco
+     */
+    public record MarcaRef(Long id, String nome) {}
+
+    /**
+     * Modelo conhecido: id, nome como gravado no banco e id da marca
+     */
+    public record ModeloRef(Long id, String nome, Long marcaId) {}
+
+    private final MarcaRepository marcaRepository;
+    private final ModeloRepository modeloRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<String, MarcaRef> marcas = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ModeloRef> modelos = new ConcurrentHashMap<>();
+
+    // Incrementada a cada invalidação: leituras do banco iniciadas antes dela não entram no cache
+    private final AtomicLong geracao = new AtomicLong();
+
+    public CacheNomesCatalogo(MarcaRepository marcaRepository,
+                              ModeloRepository modeloRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.marcaRepository = marcaRepository;
+        this.modeloRepository = modeloRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        long geracaoLida = geracao();
+        transactionTemplate.executeWithoutResult(status -> {
+            // Em nomes que só diferem em maiúsculas/espaços, vale o cadastrado primeiro
+            marcaRepository.findAll().stream()
+                    .sorted(Comparator.comparing(Marca::getId))
+                    .forEach(marca -> marcas.putIfAbsent(chaveMarca(marca.getNomeMarca()), referencia(marca)));
+            modeloRepository.findAll().stream()
+                    .sorted(Comparator.comparing(Modelo::getId))
+                    .forEach(modelo -> modelos.putIfAbsent(
+                            chaveModelo(modelo.getMarca().getId(), modelo.getNome()), referencia(modelo)));
+        });
+        if (geracao() != geracaoLida) {
+            limpar();
+        }
+    }
+
+    /**
+     * Geração atual; deve ser lida antes de consultar o banco e repassada ao registrar o resultado
+     */
+    public long geracao() {
+        return geracao.get();
+    }
+
+    /**
+     * Buscar marca pelo nome (sem diferenciar maiúsculas e espaços nas pontas)
+     */
+    public MarcaRef marca(String nomeMarca) {
+        return marcas.get(chaveMarca(nomeMarca));
+    }
+
+    /**
+     * Buscar modelo pelo nome dentro da marca
+     */
+    public ModeloRef modelo(Long marcaId, String nomeModelo) {
+        return modelos.get(chaveModelo(marcaId, nomeModelo));
+    }
+
+    /**
+     * Registrar marca lida do banco (já commitada)
+     */
+    public MarcaRef registrar(Marca marca, long geracaoLida) {
+        MarcaRef ref = referencia(marca);
+        String chave = chaveMarca(marca.getNomeMarca());
+        marcas.put(chave, ref);
+        if (geracao() != geracaoLida) {
+            marcas.remove(chave, ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Registrar modelo lido do banco (já commitado)
+     */
+    public ModeloRef registrar(Modelo modelo, long geracaoLida) {
+        ModeloRef ref = referencia(modelo);
+        String chave = chaveModelo(ref.marcaId(), modelo.getNome());
+        modelos.put(chave, ref);
+        if (geracao() != geracaoLida) {
+            modelos.remove(chave, ref);
+        }
+        return ref;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        // Só renomear, mover ou remover torna uma entrada inválida
+        if (evento.getOperacao() == Operacao.CRIADO || evento.getEntidade() == Entidade.CARRO) {
+            return;
+        }
+        geracao.incrementAndGet();
+        Long id = evento.getId();
+        if (id == null) {
+            limpar();
+        } else if (evento.getEntidade() == Entidade.MARCA) {
+            marcas.values().removeIf(ref -> ref.id().equals(id));
+            if (evento.getOperacao() == Operacao.REMOVIDO) {
+                modelos.values().removeIf(ref -> ref.marcaId().equals(id));
+            }
+        } else {
+            modelos.values().removeIf(ref -> ref.id().equals(id));
+        }
+    }
+
+    private void limpar() {
+        marcas.clear();
+        modelos.clear();
+    }
+
+    private static MarcaRef referencia(Marca marca) {
+        return new MarcaRef(marca.getId(), marca.getNomeMarca());
+    }
+
+    private static ModeloRef referencia(Modelo modelo) {
+        return new ModeloRef(modelo.getId(), modelo.getNome(), modelo.getMarca().getId());
+    }
+
+    static String chaveMarca(String nomeMarca) {
+        return nomeMarca.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String chaveModelo(Long marcaId, String nomeModelo) {
+        return marcaId + "|" + nomeModelo.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -3,24 +3,54 @@ package com.wswork.carcatalog.service;
 import com.wswork.carcatalog.dto.CarroDTO;
 import com.wswork.carcatalog.dto.CarroFormatadoDTO;
 import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.EstadoCarroDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.dto.LoteCarrosResultadoDTO;
+import com.wswork.carcatalog.dto.PaginaDTO;
+import com.wswork.carcatalog.dto.ResultadoBuscaDTO;
 import com.wswork.carcatalog.entity.Carro;
-import com.wswork.carcatalog.entity.Marca;
 import com.wswork.carcatalog.entity.Modelo;
 import com.wswork.carcatalog.repository.CarroRepository;
 import com.wswork.carcatalog.repository.MarcaRepository;
 import com.wswork.carcatalog.repository.ModeloRepository;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.DadosCarro;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.MarcaRef;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.ModeloRef;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 /**
  * Service para operações de negócio relacionadas a Carro
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -29,16 +59,36 @@ public class CarroService {
     private final CarroRepository carroRepository;
     private final ModeloRepository modeloRepository;
     private final MarcaRepository marcaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndiceColunarCarros indice;
+    private final EntityManager entityManager;
+    private final CacheNomesCatalogo cacheNomes;
+    private final ResolvedorMarcaModelo resolvedor;
+    private final TransactionTemplate transactionTemplate;
+    
+    // Tipos de ordenação aceitos na paginação por cursor
+    private static final String ORDEM_ID = "id";
+    private static final String ORDEM_VALOR = "valor";
+    private static final String ORDEM_ANO = "ano";
+    private static final String ORDEM_PRECO = "preco";
+    
+    // Criação em lote
+    static final int TAMANHO_MAXIMO_LOTE = 10_000;
+    private static final int TAMANHO_BLOCO_LOTE = 500;
+    private static final long ID_MINIMO = 1000L; // IDs das APIs externas são menores que 1000
+    
+    // Atualização e remoção sem versão do cliente: tentativas quando outra escrita vence a corrida
+    private static final int TENTATIVAS_ESCRITA = 3;
     
     /**
      * Buscar todos os carros
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarTodos() {
-        return carroRepository.findAll()
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            return indice.buscar(new FiltroCarroDTO(), ORDEM_ID, false);
+        }
+        return carroRepository.findAllResposta();
     }
     
     /**
@@ -46,100 +96,266 @@ public class CarroService {
      */
     @Transactional(readOnly = true)
     public Optional<CarroRespostaDTO> buscarPorId(Long id) {
-        return carroRepository.findById(id)
-                .map(this::converterParaRespostaDTO);
+        return carroRepository.findRespostaById(id);
     }
     
     /**
-     * Buscar carros por modelo
+     * Buscar carro por ID com a versão
      */
     @Transactional(readOnly = true)
+    public Optional<EstadoCarroDTO> buscarEstadoPorId(Long id) {
+        return carroRepository.findEstadoById(id);
+    }
+    
+    /**
+     * Buscar carros por modelo
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarPorModelo(Long modeloId) {
-        return carroRepository.findByModeloId(modeloId)
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            FiltroCarroDTO filtro = new FiltroCarroDTO();
+            filtro.setModeloId(modeloId);
+            return indice.buscar(filtro, ORDEM_ID, false);
+        }
+        return carroRepository.findRespostaByModeloId(modeloId);
     }
     
     /**
      * Buscar carros por ano
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarPorAno(Integer ano) {
-        return carroRepository.findByAno(ano)
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            FiltroCarroDTO filtro = new FiltroCarroDTO();
+            filtro.setAnoMin(ano);
+            filtro.setAnoMax(ano);
+            return indice.buscar(filtro, ORDEM_ID, false);
+        }
+        return carroRepository.findRespostaByAno(ano);
     }
     
     /**
      * Buscar carros por combustível
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarPorCombustivel(String combustivel) {
-        return carroRepository.findByCombustivel(combustivel)
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            FiltroCarroDTO filtro = new FiltroCarroDTO();
+            filtro.setCombustivel(combustivel);
+            return indice.buscar(filtro, ORDEM_ID, false);
+        }
+        return carroRepository.findRespostaByCombustivel(combustivel);
     }
     
     /**
      * Buscar carros por cor
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarPorCor(String cor) {
-        return carroRepository.findByCor(cor)
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            FiltroCarroDTO filtro = new FiltroCarroDTO();
+            filtro.setCor(cor);
+            return indice.buscar(filtro, ORDEM_ID, false);
+        }
+        return carroRepository.findRespostaByCor(cor);
     }
     
     /**
      * Buscar carros por faixa de preço
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarPorFaixaPreco(Double precoMin, Double precoMax) {
-        return carroRepository.findByValorBetween(precoMin, precoMax)
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            FiltroCarroDTO filtro = new FiltroCarroDTO();
+            filtro.setPrecoMin(precoMin);
+            filtro.setPrecoMax(precoMax);
+            return indice.buscar(filtro, ORDEM_ID, false);
+        }
+        return carroRepository.findRespostaByValorBetween(precoMin, precoMax);
     }
     
     /**
      * Buscar carros por marca
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<CarroRespostaDTO> buscarPorMarca(Long marcaId) {
-        return carroRepository.findByMarcaId(marcaId)
-                .stream()
-                .map(this::converterParaRespostaDTO)
-                .collect(Collectors.toList());
+        if (indice.ativo()) {
+            FiltroCarroDTO filtro = new FiltroCarroDTO();
+            filtro.setMarcaId(marcaId);
+            return indice.buscar(filtro, ORDEM_ID, false);
+        }
+        return carroRepository.findRespostaByMarcaId(marcaId);
+    }
+    
+    /**
+     * Buscar página de carros por cursor, ordenada por id (padrão), valor ou ano
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPagina(String cursor, Integer limite, String ordenarPor) {
+        int tamanho = PaginacaoCursor.normalizarLimite(limite);
+        String ordem = ordenarPor == null ? ORDEM_ID : ordenarPor.toLowerCase();
+        
+        switch (ordem) {
+            case ORDEM_ID:
+                return paginarPorId(cursor, tamanho, (aposId, lim) -> carroRepository.findPaginaResposta(aposId, lim));
+            case ORDEM_VALOR: {
+                Double aposValor = Double.MAX_VALUE;
+                Long aposId = Long.MAX_VALUE;
+                if (cursor != null) {
+                    String[] chaves = PaginacaoCursor.decodificar(cursor, ORDEM_VALOR, 2);
+                    aposValor = Double.valueOf(chaves[0]);
+                    aposId = Long.valueOf(chaves[1]);
+                }
+                List<CarroRespostaDTO> linhas = carroRepository.findPaginaRespostaOrderByValorDesc(
+                        aposValor, aposId, Limit.of(tamanho + 1));
+                return PaginacaoCursor.montar(linhas, tamanho,
+                        c -> PaginacaoCursor.codificar(ORDEM_VALOR, c.getValor().doubleValue(), c.getId()));
+            }
+            case ORDEM_ANO: {
+                Integer aposAno = Integer.MAX_VALUE;
+                Long aposId = Long.MAX_VALUE;
+                if (cursor != null) {
+                    String[] chaves = PaginacaoCursor.decodificar(cursor, ORDEM_ANO, 2);
+                    aposAno = Integer.valueOf(chaves[0]);
+                    aposId = Long.valueOf(chaves[1]);
+                }
+                List<CarroRespostaDTO> linhas = carroRepository.findPaginaRespostaOrderByAnoDesc(
+                        aposAno, aposId, Limit.of(tamanho + 1));
+                return PaginacaoCursor.montar(linhas, tamanho,
+                        c -> PaginacaoCursor.codificar(ORDEM_ANO, c.getAno(), c.getId()));
+            }
+            default:
+                throw new IllegalArgumentException("Ordenação não suportada: " + ordenarPor);
+        }
+    }
+    
+    /**
+     * Buscar página de carros por modelo
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPaginaPorModelo(Long modeloId, String cursor, Integer limite) {
+        return paginarPorId(cursor, PaginacaoCursor.normalizarLimite(limite),
+                (aposId, lim) -> carroRepository.findPaginaRespostaByModeloId(modeloId, aposId, lim));
+    }
+    
+    /**
+     * Buscar página de carros por ano
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPaginaPorAno(Integer ano, String cursor, Integer limite) {
+        return paginarPorId(cursor, PaginacaoCursor.normalizarLimite(limite),
+                (aposId, lim) -> carroRepository.findPaginaRespostaByAno(ano, aposId, lim));
+    }
+    
+    /**
+     * Buscar página de carros por combustível
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPaginaPorCombustivel(String combustivel, String cursor, Integer limite) {
+        return paginarPorId(cursor, PaginacaoCursor.normalizarLimite(limite),
+                (aposId, lim) -> carroRepository.findPaginaRespostaByCombustivel(combustivel, aposId, lim));
+    }
+    
+    /**
+     * Buscar página de carros por cor
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPaginaPorCor(String cor, String cursor, Integer limite) {
+        return paginarPorId(cursor, PaginacaoCursor.normalizarLimite(limite),
+                (aposId, lim) -> carroRepository.findPaginaRespostaByCor(cor, aposId, lim));
+    }
+    
+    /**
+     * Buscar página de carros por marca
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPaginaPorMarca(Long marcaId, String cursor, Integer limite) {
+        return paginarPorId(cursor, PaginacaoCursor.normalizarLimite(limite),
+                (aposId, lim) -> carroRepository.findPaginaRespostaByMarcaId(marcaId, aposId, lim));
+    }
+    
+    /**
+     * Buscar página de carros por faixa de preço, ordenada por valor crescente
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<CarroRespostaDTO> buscarPaginaPorFaixaPreco(Double precoMin, Double precoMax,
+                                                                 String cursor, Integer limite) {
+        int tamanho = PaginacaoCursor.normalizarLimite(limite);
+        Double aposValor = precoMin;
+        Long aposId = 0L;
+        if (cursor != null) {
+            String[] chaves = PaginacaoCursor.decodificar(cursor, ORDEM_PRECO, 2);
+            aposValor = Double.valueOf(chaves[0]);
+            aposId = Long.valueOf(chaves[1]);
+        }
+        List<CarroRespostaDTO> linhas = carroRepository.findPaginaRespostaByValorBetween(
+                precoMin, precoMax, aposValor, aposId, Limit.of(tamanho + 1));
+        return PaginacaoCursor.montar(linhas, tamanho,
+                c -> PaginacaoCursor.codificar(ORDEM_PRECO, c.getValor().doubleValue(), c.getId()));
+    }
+    
+    /**
+     * Buscar carros combinando filtros, com ordenação (id, valor ou ano) e página
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ResultadoBuscaDTO<CarroRespostaDTO> buscar(FiltroCarroDTO filtro, Integer pagina, Integer tamanho,
+                                                      String ordenarPor, String direcao) {
+        if (pagina != null && pagina < 0) {
+            throw new IllegalArgumentException("Página deve ser maior ou igual a zero");
+        }
+        if (filtro.getAnoMin() != null && filtro.getAnoMax() != null && filtro.getAnoMin() > filtro.getAnoMax()) {
+            throw new IllegalArgumentException("anoMin deve ser menor ou igual a anoMax");
+        }
+        if (filtro.getPrecoMin() != null && filtro.getPrecoMax() != null && filtro.getPrecoMin() > filtro.getPrecoMax()) {
+            throw new IllegalArgumentException("precoMin deve ser menor ou igual a precoMax");
+        }
+        
+        String propriedade = ordenarPor == null ? ORDEM_ID : ordenarPor.toLowerCase();
+        if (!propriedade.equals(ORDEM_ID) && !propriedade.equals(ORDEM_VALOR) && !propriedade.equals(ORDEM_ANO)) {
+            throw new IllegalArgumentException("Ordenação não suportada: " + ordenarPor);
+        }
+        Sort.Direction sentido = direcao == null ? Sort.Direction.ASC : Sort.Direction.fromString(direcao);
+        
+        int tamanhoPagina = PaginacaoCursor.normalizarLimite(tamanho);
+        if (pagina != null && (long) pagina * tamanhoPagina > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Página fora do intervalo: " + pagina);
+        }
+        Pageable pageable = PageRequest.of(pagina == null ? 0 : pagina, tamanhoPagina, Sort.by(sentido, propriedade));
+        Page<CarroRespostaDTO> resultado = indice.ativo()
+                ? indice.buscarPagina(filtro, pageable)
+                : carroRepository.buscar(filtro, pageable);
+        
+        return new ResultadoBuscaDTO<>(resultado.getContent(), resultado.getNumber(), resultado.getSize(),
+                resultado.getTotalElements(), resultado.getTotalPages());
     }
     
     /**
      * Criar novo carro
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CarroRespostaDTO criar(CarroDTO carroDTO) {
         // Usar o nomeModelo enviado pelo frontend
         String nomeModelo = carroDTO.getNomeModelo();
         String nomeMarca = carroDTO.getNomeMarca();
         
-        // Buscar ou criar a marca
-        Marca marca = marcaRepository.findByNomeMarca(nomeMarca)
-                .orElseGet(() -> {
-                    Marca novaMarca = new Marca(nomeMarca);
-                    return marcaRepository.save(novaMarca);
-                });
+        // Buscar ou criar a marca e o modelo antes da transação do carro
+        // (sem consulta quando já estão no cache de nomes; criações concorrentes não se duplicam)
+        MarcaRef marca = resolvedor.marca(nomeMarca);
+        ModeloRef modelo = resolvedor.modelo(marca, nomeModelo);
         
-        // Buscar ou criar o modelo
-        Modelo modelo = modeloRepository.findByNomeAndMarca(nomeModelo, marca)
-                .orElseGet(() -> {
-                    Modelo novoModelo = new Modelo(marca, nomeModelo);
-                    return modeloRepository.save(novoModelo);
-                });
+        CarroRespostaDTO resposta = transactionTemplate.execute(status -> gravarNovo(carroDTO, marca, modelo));
         
+        log.debug("Carro criado: {}", resposta);
+        
+        return resposta;
+    }
+    
+    /**
+     * Inserir o carro com marca e modelo já resolvidos
+     */
+    private CarroRespostaDTO gravarNovo(CarroDTO carroDTO, MarcaRef marca, ModeloRef modelo) {
         Carro carro = new Carro();
-        carro.setModelo(modelo);
+        carro.setModelo(modeloRepository.getReferenceById(modelo.id()));
         carro.setAno(carroDTO.getAno());
         carro.setCombustivel(carroDTO.getCombustivel());
         carro.setNumPortas(carroDTO.getNumPortas());
@@ -156,112 +372,266 @@ public class CarroService {
         Long idMinimo = 1000L; // IDs das APIs externas são menores que 1000
         
         if (idGerado < idMinimo) {
-            // Se o ID gerado for menor que 1000, forçar um ID maior
-            // Isso pode ser feito através de uma sequência personalizada
-            System.out.println("⚠️ ID gerado (" + idGerado + ") é menor que o mínimo (" + idMinimo + ")");
-            System.out.println("⚠️ Recomendação: Configurar sequência de IDs para começar em 1000");
+            // Se o ID gerado for menor que 1000, a sequência de IDs precisa ser ajustada para começar em 1000
+            log.warn("ID gerado ({}) é menor que o mínimo ({}): configurar a sequência para começar em 1000",
+                    idGerado, idMinimo);
         }
         
-        CarroRespostaDTO resposta = converterParaRespostaDTO(carroSalvo);
+        publicarCarro(Operacao.CRIADO, carroSalvo.getId(), null, DadosCarro.de(carroSalvo));
+        return converterParaRespostaDTO(carroSalvo, modelo.nome(), marca.nome());
+    }
+    
+    /**
+     * Criar vários carros de uma vez: marcas e modelos são resolvidos em consultas por conjunto
+     * e os carros são inseridos em lotes JDBC (hibernate.jdbc.batch_size)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LoteCarrosResultadoDTO criarEmLote(List<CarroDTO> carros) {
+        return criarEmLote(carros, true);
+    }
+    
+    /**
+     * Criar vários carros de uma vez; sem publicarAlteracao, quem chama publica um único evento
+     * de lote ao final (importações em vários blocos)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LoteCarrosResultadoDTO criarEmLote(List<CarroDTO> carros, boolean publicarAlteracao) {
+        if (carros == null || carros.isEmpty()) {
+            throw new IllegalArgumentException("Lote de carros vazio");
+        }
+        if (carros.size() > TAMANHO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("Lote deve ter no máximo " + TAMANHO_MAXIMO_LOTE + " carros");
+        }
+        for (int i = 0; i < carros.size(); i++) {
+            CarroDTO dto = carros.get(i);
+            if (dto.getNomeMarca() == null || dto.getNomeMarca().isBlank()
+                    || dto.getNomeModelo() == null || dto.getNomeModelo().isBlank()) {
+                throw new IllegalArgumentException("Carro na posição " + i + " sem nomeMarca ou nomeModelo");
+            }
+        }
         
-        System.out.println("🚗 === CARRO CRIADO NO BACKEND ===");
-        System.out.println("ID: " + resposta.getId());
-        System.out.println("Nome Modelo: " + resposta.getNomeModelo());
-        System.out.println("Nome Marca: " + resposta.getNomeMarca());
-        System.out.println("Ano: " + resposta.getAno());
-        System.out.println("Combustível: " + resposta.getCombustivel());
-        System.out.println("Número de Portas: " + resposta.getNumPortas());
-        System.out.println("Cor: " + resposta.getCor());
-        System.out.println("Valor: " + resposta.getValor());
-        System.out.println("Timestamp Cadastro: " + resposta.getTimestampCadastro());
-        System.out.println("=====================================");
+        // Marcas: primeiro o cache de nomes; as que faltam, em uma única consulta; as que nem assim existem
+        // são criadas sem nova busca. Os mapas usam a mesma chave normalizada do cache de nomes
+        long geracao = cacheNomes.geracao();
+        Map<String, String> nomesMarcas = new LinkedHashMap<>();
+        carros.forEach(dto -> nomesMarcas.putIfAbsent(CacheNomesCatalogo.chaveMarca(dto.getNomeMarca()), dto.getNomeMarca().trim()));
+        Map<String, MarcaRef> marcas = new HashMap<>();
+        nomesMarcas.forEach((chave, nome) -> {
+            MarcaRef ref = cacheNomes.marca(nome);
+            if (ref != null) {
+                marcas.put(chave, ref);
+            }
+        });
+        if (marcas.size() < nomesMarcas.size()) {
+            Set<String> faltando = new HashSet<>(nomesMarcas.keySet());
+            faltando.removeAll(marcas.keySet());
+            marcaRepository.findByNomeMarcaMinusculoIn(faltando).forEach(marca ->
+                    marcas.computeIfAbsent(CacheNomesCatalogo.chaveMarca(marca.getNomeMarca()),
+                            chave -> cacheNomes.registrar(marca, geracao)));
+        }
+        AtomicInteger marcasCriadas = new AtomicInteger();
+        nomesMarcas.forEach((chave, nome) -> {
+            if (!marcas.containsKey(chave)) {
+                marcas.put(chave, resolvedor.criarMarca(nome, marcasCriadas::incrementAndGet));
+            }
+        });
         
-        return resposta;
+        // Modelos: o mesmo, com uma consulta para todos os pares marca/nome que faltam no cache
+        Map<String, ModeloRef> modelos = new HashMap<>();
+        Map<String, CarroDTO> modelosFaltando = new LinkedHashMap<>();
+        for (CarroDTO dto : carros) {
+            MarcaRef marca = marcas.get(CacheNomesCatalogo.chaveMarca(dto.getNomeMarca()));
+            String chave = CacheNomesCatalogo.chaveModelo(marca.id(), dto.getNomeModelo());
+            if (!modelos.containsKey(chave) && !modelosFaltando.containsKey(chave)) {
+                ModeloRef ref = cacheNomes.modelo(marca.id(), dto.getNomeModelo());
+                if (ref != null) {
+                    modelos.put(chave, ref);
+                } else {
+                    modelosFaltando.put(chave, dto);
+                }
+            }
+        }
+        if (!modelosFaltando.isEmpty()) {
+            Set<Long> marcaIds = new HashSet<>();
+            Set<String> nomesModelos = new HashSet<>();
+            modelosFaltando.values().forEach(dto -> {
+                marcaIds.add(marcas.get(CacheNomesCatalogo.chaveMarca(dto.getNomeMarca())).id());
+                nomesModelos.add(dto.getNomeModelo().trim().toLowerCase(Locale.ROOT));
+            });
+            modeloRepository.findByMarcaIdInAndNomeMinusculoIn(marcaIds, nomesModelos).forEach(modelo -> {
+                String chave = CacheNomesCatalogo.chaveModelo(modelo.getMarca().getId(), modelo.getNome());
+                if (modelosFaltando.containsKey(chave)) {
+                    modelos.computeIfAbsent(chave, c -> cacheNomes.registrar(modelo, geracao));
+                }
+            });
+        }
+        AtomicInteger modelosCriados = new AtomicInteger();
+        modelosFaltando.forEach((chave, dto) -> {
+            if (!modelos.containsKey(chave)) {
+                MarcaRef marca = marcas.get(CacheNomesCatalogo.chaveMarca(dto.getNomeMarca()));
+                modelos.put(chave, resolvedor.criarModelo(marca, dto.getNomeModelo().trim(),
+                        modelosCriados::incrementAndGet));
+            }
+        });
+        
+        List<Long> ids = transactionTemplate.execute(status -> gravarLote(carros, marcas, modelos, publicarAlteracao));
+        
+        long menorId = ids.stream().mapToLong(Long::longValue).min().orElse(ID_MINIMO);
+        if (menorId < ID_MINIMO) {
+            log.warn("ID gerado ({}) é menor que o mínimo ({}): configurar a sequência para começar em 1000",
+                    menorId, ID_MINIMO);
+        }
+        
+        return new LoteCarrosResultadoDTO(ids.size(), marcasCriadas.get(), modelosCriados.get(), ids, null, null);
+    }
+    
+    /**
+     * Inserir os carros do lote com marcas e modelos já resolvidos: ids alocados em blocos pela sequência
+     * e INSERTs agrupados pelo Hibernate; o contexto de persistência é esvaziado a cada bloco
+     */
+    private List<Long> gravarLote(List<CarroDTO> carros, Map<String, MarcaRef> marcas, Map<String, ModeloRef> modelos,
+                                  boolean publicarAlteracao) {
+        List<Long> ids = new ArrayList<>(carros.size());
+        List<Carro> bloco = new ArrayList<>(TAMANHO_BLOCO_LOTE);
+        long timestampCadastro = System.currentTimeMillis() / 1000;
+        for (CarroDTO dto : carros) {
+            MarcaRef marca = marcas.get(CacheNomesCatalogo.chaveMarca(dto.getNomeMarca()));
+            ModeloRef modelo = modelos.get(CacheNomesCatalogo.chaveModelo(marca.id(), dto.getNomeModelo()));
+            Carro carro = new Carro(modeloRepository.getReferenceById(modelo.id()),
+                    dto.getAno(), dto.getCombustivel(), dto.getNumPortas(), dto.getCor(), dto.getValor().doubleValue());
+            carro.setTimestampCadastro(dto.getTimestampCadastro() != null ? dto.getTimestampCadastro() : timestampCadastro);
+            bloco.add(carro);
+            if (bloco.size() == TAMANHO_BLOCO_LOTE) {
+                gravarBloco(bloco, ids);
+            }
+        }
+        gravarBloco(bloco, ids);
+        if (publicarAlteracao) {
+            publicar(Entidade.CARRO, Operacao.LOTE, null);
+        }
+        return ids;
     }
     
     /**
      * Atualizar carro existente
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CarroRespostaDTO atualizar(Long id, CarroDTO carroDTO) {
-        System.out.println("🔍 === SERVICE: ATUALIZANDO CARRO ===");
-        System.out.println("ID recebido: " + id + " (tipo: " + id.getClass().getSimpleName() + ")");
-        System.out.println("Dados recebidos: " + carroDTO);
-        System.out.println("Buscando carro no repositório...");
-        
-        Carro carro = carroRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Carro não encontrado com ID: " + id));
-        
-        // Atualizar modelo se nomeModelo for enviado
+        return atualizar(id, carroDTO, null).resposta();
+    }
+    
+    /**
+     * Atualizar carro existente, exigindo a versão informada pelo cliente (nula aceita qualquer versão),
+     * e retornar o estado gravado com a nova versão
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EstadoCarroDTO atualizar(Long id, CarroDTO carroDTO, Long versaoEsperada) {
+        for (int tentativa = 1; ; tentativa++) {
+            EstadoCarroDTO anterior = lerEstado(id, versaoEsperada);
+            EstadoCarroDTO atual = novoEstado(anterior, carroDTO);
+            Integer linhas = transactionTemplate.execute(status -> {
+                int alteradas = carroRepository.atualizarNaVersao(id, anterior.getVersao(),
+                        modeloRepository.getReferenceById(atual.getModeloId()), atual.getAno(), atual.getCombustivel(),
+                        atual.getNumPortas(), atual.getCor(), atual.getValor(), atual.getDataAtualizacao());
+                if (alteradas == 1) {
+                    publicarCarro(Operacao.ATUALIZADO, id, anterior.dados(), atual.dados());
+                }
+                return alteradas;
+            });
+            if (linhas == 1) {
+                log.debug("Carro atualizado: {}", atual);
+                return atual;
+            }
+            verificarConflito(id, versaoEsperada, tentativa);
+        }
+    }
+    
+    /**
+     * Estado do carro após aplicar os dados recebidos; marca e modelo enviados por nome são resolvidos
+     * (e criados, se preciso) antes da transação do carro
+     */
+    private EstadoCarroDTO novoEstado(EstadoCarroDTO anterior, CarroDTO carroDTO) {
+        Long modeloId = anterior.getModeloId();
+        String nomeModelo = anterior.getNomeModelo();
+        String nomeMarca = anterior.getNomeMarca();
         if (carroDTO.getNomeModelo() != null && !carroDTO.getNomeModelo().trim().isEmpty()) {
-            System.out.println("Atualizando modelo para: " + carroDTO.getNomeModelo());
-            
             // Usar a marca atual do carro ou a enviada
-            String nomeMarca = carroDTO.getNomeMarca() != null ? carroDTO.getNomeMarca() : 
-                              carro.getModelo().getMarca().getNomeMarca();
-            
-            // Buscar ou criar a marca
-            Marca marca = marcaRepository.findByNomeMarca(nomeMarca)
-                    .orElseGet(() -> {
-                        Marca novaMarca = new Marca(nomeMarca);
-                        return marcaRepository.save(novaMarca);
-                    });
-            
-            // Buscar ou criar o modelo
-            Modelo modelo = modeloRepository.findByNomeAndMarca(carroDTO.getNomeModelo(), marca)
-                    .orElseGet(() -> {
-                        Modelo novoModelo = new Modelo(marca, carroDTO.getNomeModelo());
-                        return modeloRepository.save(novoModelo);
-                    });
-            
-            carro.setModelo(modelo);
-            System.out.println("Modelo atualizado para: " + modelo.getNome());
+            MarcaRef marca = resolvedor.marca(carroDTO.getNomeMarca() != null ? carroDTO.getNomeMarca() : nomeMarca);
+            ModeloRef modelo = resolvedor.modelo(marca, carroDTO.getNomeModelo());
+            modeloId = modelo.id();
+            nomeModelo = modelo.nome();
+            nomeMarca = marca.nome();
         }
         // Fallback: alterar modelo se modeloId for enviado
         else if (carroDTO.getModeloId() != null) {
-            Modelo modelo = modeloRepository.findById(carroDTO.getModeloId())
+            Modelo modelo = modeloRepository.findComMarcaById(carroDTO.getModeloId())
                     .orElseThrow(() -> new RuntimeException("Modelo não encontrado com ID: " + carroDTO.getModeloId()));
-            carro.setModelo(modelo);
+            modeloId = modelo.getId();
+            nomeModelo = modelo.getNome();
+            nomeMarca = modelo.getMarca().getNomeMarca();
         }
-        
-        carro.setAno(carroDTO.getAno());
-        carro.setCombustivel(carroDTO.getCombustivel());
-        carro.setNumPortas(carroDTO.getNumPortas());
-        carro.setCor(carroDTO.getCor());
-        carro.setValor(carroDTO.getValor().doubleValue());
-        carro.setDataAtualizacao(LocalDateTime.now());
-        
-        Carro carroAtualizado = carroRepository.save(carro);
-        
-        System.out.println("🚗 === CARRO ATUALIZADO NO BACKEND ===");
-        System.out.println("ID: " + carroAtualizado.getId());
-        System.out.println("Nome Modelo: " + carroAtualizado.getModelo().getNome());
-        System.out.println("Nome Marca: " + carroAtualizado.getModelo().getMarca().getNomeMarca());
-        System.out.println("Ano: " + carroAtualizado.getAno());
-        System.out.println("Combustível: " + carroAtualizado.getCombustivel());
-        System.out.println("Número de Portas: " + carroAtualizado.getNumPortas());
-        System.out.println("Cor: " + carroAtualizado.getCor());
-        System.out.println("Valor: " + carroAtualizado.getValor());
-        System.out.println("=====================================");
-        
-        return converterParaRespostaDTO(carroAtualizado);
+        return new EstadoCarroDTO(anterior.getId(), modeloId, nomeModelo, nomeMarca, carroDTO.getAno(),
+                carroDTO.getCombustivel(), carroDTO.getNumPortas(), carroDTO.getCor(), carroDTO.getValor().doubleValue(),
+                anterior.getTimestampCadastro(), anterior.getDataCriacao(), LocalDateTime.now(), anterior.getVersao() + 1);
     }
     
     /**
      * Deletar carro
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deletar(Long id) {
-        System.out.println("🔍 === SERVICE: DELETANDO CARRO ===");
-        System.out.println("ID recebido: " + id + " (tipo: " + id.getClass().getSimpleName() + ")");
-        System.out.println("Verificando se carro existe...");
-        
+        deletar(id, null);
+    }
+    
+    /**
+     * Deletar carro, exigindo a versão informada pelo cliente (nula aceita qualquer versão)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deletar(Long id, Long versaoEsperada) {
+        for (int tentativa = 1; ; tentativa++) {
+            EstadoCarroDTO anterior = lerEstado(id, versaoEsperada);
+            Integer linhas = transactionTemplate.execute(status -> {
+                int removidas = carroRepository.deletarNaVersao(id, anterior.getVersao());
+                if (removidas == 1) {
+                    publicarCarro(Operacao.REMOVIDO, id, anterior.dados(), null);
+                }
+                return removidas;
+            });
+            if (linhas == 1) {
+                log.debug("Carro deletado: id={}", id);
+                return;
+            }
+            verificarConflito(id, versaoEsperada, tentativa);
+        }
+    }
+    
+    /**
+     * Ler o estado atual do carro, recusando-o se não estiver na versão esperada pelo cliente
+     */
+    private EstadoCarroDTO lerEstado(Long id, Long versaoEsperada) {
+        EstadoCarroDTO estado = carroRepository.findEstadoById(id)
+                .orElseThrow(() -> new RuntimeException("Carro não encontrado com ID: " + id));
+        if (versaoEsperada != null && !versaoEsperada.equals(estado.getVersao())) {
+            throw new OptimisticLockingFailureException(
+                    "Carro " + id + " está na versão " + estado.getVersao() + ", não na versão " + versaoEsperada);
+        }
+        return estado;
+    }
+    
+    /**
+     * A escrita não afetou nenhuma linha: outra requisição alterou ou removeu o carro depois da leitura.
+     * Sem versão do cliente, a escrita é refeita sobre o estado novo (a próxima leitura acusa o carro removido).
+     * Antes de desistir, o carro é relido uma vez: removido é "não encontrado", com ou sem versão; só o carro
+     * que ainda existe em outra versão é conflito.
+     */
+    private void verificarConflito(Long id, Long versaoEsperada, int tentativa) {
+        if (versaoEsperada == null && tentativa < TENTATIVAS_ESCRITA) {
+            return;
+        }
         if (!carroRepository.existsById(id)) {
-            System.out.println("❌ Carro não encontrado com ID: " + id);
             throw new RuntimeException("Carro não encontrado com ID: " + id);
         }
-        
-        System.out.println("✅ Carro encontrado, deletando...");
-        carroRepository.deleteById(id);
-        System.out.println("✅ Carro deletado com sucesso");
+        throw new OptimisticLockingFailureException("Carro " + id + " foi alterado por outra requisição");
     }
     
     /**
@@ -277,20 +647,55 @@ public class CarroService {
      */
     @Transactional(readOnly = true)
     public List<CarroFormatadoDTO> buscarTodosFormatados() {
-        return carroRepository.findAll()
-                .stream()
-                .map(this::converterParaFormatadoDTO)
-                .collect(Collectors.toList());
+        return carroRepository.findAllFormatado();
+    }
+    
+    /**
+     * Paginar uma consulta ordenada por id a partir do cursor recebido
+     */
+    private PaginaDTO<CarroRespostaDTO> paginarPorId(String cursor, int tamanho,
+                                                     BiFunction<Long, Limit, List<CarroRespostaDTO>> consulta) {
+        Long aposId = cursor != null ? Long.valueOf(PaginacaoCursor.decodificar(cursor, ORDEM_ID, 1)[0]) : 0L;
+        List<CarroRespostaDTO> linhas = consulta.apply(aposId, Limit.of(tamanho + 1));
+        return PaginacaoCursor.montar(linhas, tamanho, c -> PaginacaoCursor.codificar(ORDEM_ID, c.getId()));
     }
     
     /**
-     * Converter Entity para DTO de resposta
+     * Inserir um bloco do lote e liberar as entidades da sessão
      */
-    private CarroRespostaDTO converterParaRespostaDTO(Carro carro) {
+    private void gravarBloco(List<Carro> bloco, List<Long> ids) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        carroRepository.saveAll(bloco);
+        entityManager.flush();
+        entityManager.clear();
+        bloco.forEach(carro -> ids.add(carro.getId()));
+        bloco.clear();
+    }
+    
+    /**
+     * Publicar alteração do catálogo (os ouvintes reagem após o commit)
+     */
+    private void publicar(Entidade entidade, Operacao operacao, Long id) {
+        eventPublisher.publishEvent(new CatalogoAlteradoEvent(entidade, operacao, id));
+    }
+    
+    /**
+     * Publicar alteração de um carro com os dados dele antes e depois
+     */
+    private void publicarCarro(Operacao operacao, Long id, DadosCarro anterior, DadosCarro atual) {
+        eventPublisher.publishEvent(new CatalogoAlteradoEvent(Entidade.CARRO, operacao, id, anterior, atual));
+    }
+    
+    /**
+     * Converter Entity para DTO de resposta (nomes já resolvidos, sem carregar modelo e marca)
+     */
+    static CarroRespostaDTO converterParaRespostaDTO(Carro carro, String nomeModelo, String nomeMarca) {
         CarroRespostaDTO dto = new CarroRespostaDTO();
         dto.setId(carro.getId());
-        dto.setNomeModelo(carro.getModelo().getNome());
-        dto.setNomeMarca(carro.getModelo().getMarca().getNomeMarca());
+        dto.setNomeModelo(nomeModelo);
+        dto.setNomeMarca(nomeMarca);
         dto.setAno(carro.getAno());
         dto.setCombustivel(carro.getCombustivel());
         dto.setNumPortas(carro.getNumPortas());
@@ -301,19 +706,4 @@ public class CarroService {
         dto.setDataAtualizacao(carro.getDataAtualizacao());
         return dto;
     }
-    
-    private CarroFormatadoDTO converterParaFormatadoDTO(Carro carro) {
-        CarroFormatadoDTO dto = new CarroFormatadoDTO();
-        dto.setId(carro.getId());
-        dto.setTimestamp_cadastro(carro.getTimestampCadastro());
-        dto.setModelo_id(carro.getModelo().getId());
-        dto.setAno(carro.getAno());
-        dto.setCombustivel(carro.getCombustivel());
-        dto.setNum_portas(carro.getNumPortas());
-        dto.setCor(carro.getCor());
-        dto.setNome_modelo(carro.getModelo().getNome());
-        dto.setValor(carro.getValor().intValue());
-        dto.setMarca(carro.getModelo().getMarca().getNomeMarca());
-        return dto;
-    }
 }
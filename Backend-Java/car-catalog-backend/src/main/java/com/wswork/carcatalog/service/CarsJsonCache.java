@@ -0,0 +1,83 @@
+package com.wswork.carcatalog.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache do cars.json já serializado (bytes puros e variante gzip).
+ * O snapshot é reconstruído sob demanda uma única vez por versão do catálogo.
+ */
+@Component
+@RequiredArgsConstructor
+public class CarsJsonCache {
+    
+    private final CarsJsonService carsJsonService;
+    private final CatalogoVersao catalogoVersao;
+    
+    private final ReentrantLock lockReconstrucao = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    
+    /**
+     * Obter o snapshot da versão atual, reconstruindo se o catálogo mudou
+     */
+    public Snapshot obter() {
+        // A versão é lida antes da consulta: se o catálogo mudar durante a montagem,
+        // o snapshot fica com a versão antiga e é refeito na próxima chamada
+        long versao = catalogoVersao.atual();
+        Snapshot atual = snapshot;
+        if (atual != null && atual.getVersao() == versao) {
+            return atual;
+        }
+        
+        lockReconstrucao.lock();
+        try {
+            atual = snapshot;
+            if (atual != null && atual.getVersao() == versao) {
+                return atual;
+            }
+            atual = montar(versao);
+            snapshot = atual;
+            return atual;
+        } finally {
+            lockReconstrucao.unlock();
+        }
+    }
+    
+    private Snapshot montar(long versao) {
+        try {
+            ByteArrayOutputStream json = new ByteArrayOutputStream(64 * 1024);
+            carsJsonService.escrever(json, false);
+            byte[] bytes = json.toByteArray();
+            
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream saida = new GZIPOutputStream(gzip)) {
+                saida.write(bytes);
+            }
+            
+            String tag = "cars-" + catalogoVersao.instancia() + "-" + versao;
+            return new Snapshot(versao, bytes, gzip.toByteArray(), "\"" + tag + "\"", "\"" + tag + "-gzip\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Conteúdo serializado de uma versão do catálogo, com ETags fortes por codificação
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Snapshot {
+        private final long versao;
+        private final byte[] json;
+        private final byte[] jsonGzip;
+        private final String etag;
+        private final String etagGzip;
+    }
+}
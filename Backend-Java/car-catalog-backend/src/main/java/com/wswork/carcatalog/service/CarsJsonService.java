@@ -0,0 +1,65 @@
+package com.wswork.carcatalog.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wswork.carcatalog.dto.CarroFormatadoDTO;
+import com.wswork.carcatalog.repository.CarroRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service para geração do documento cars.json em streaming.
+ * Os carros são lidos do banco em stream e escritos um a um no JsonGenerator,
+ * então o uso de memória não depende do tamanho do catálogo.
+ */
+@Service
+@RequiredArgsConstructor
+public class CarsJsonService {
+    
+    private final CarroRepository carroRepository;
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * Escrever {"cars": [...]} na saída informada, retornando o total de carros escritos
+     */
+    @Transactional(readOnly = true)
+    public long escrever(OutputStream saida, boolean indentar) throws IOException {
+        return escrever(saida, objectMapper, indentar);
+    }
+    
+    /**
+     * Escrever {"cars": [...]} com o mapeador informado (JSON, CBOR ou Smile)
+     */
+    @Transactional(readOnly = true)
+    public long escrever(OutputStream saida, ObjectMapper mapeador, boolean indentar) throws IOException {
+        try (JsonGenerator gerador = mapeador.createGenerator(saida);
+             Stream<CarroFormatadoDTO> carros = carroRepository.streamAllFormatado()) {
+            if (indentar) {
+                gerador.useDefaultPrettyPrinter();
+            }
+            return escrever(gerador, carros.iterator());
+        }
+    }
+    
+    /**
+     * Escrever o envelope {"cars": [...]} com os carros do iterador no gerador
+     */
+    static long escrever(JsonGenerator gerador, Iterator<CarroFormatadoDTO> carros) throws IOException {
+        long total = 0;
+        gerador.writeStartObject();
+        gerador.writeArrayFieldStart("cars");
+        while (carros.hasNext()) {
+            gerador.writeObject(carros.next());
+            total++;
+        }
+        gerador.writeEndArray();
+        gerador.writeEndObject();
+        return total;
+    }
+}
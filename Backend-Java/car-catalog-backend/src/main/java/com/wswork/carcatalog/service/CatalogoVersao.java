@@ -0,0 +1,74 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de versão do catálogo e de cada agregado (carros, marcas, modelos), incrementados após o commit
+ * de cada escrita publicada pelos services. Caches derivados do catálogo comparam a versão com a que usaram
+ * para se montar; as listagens usam as versões dos agregados que exibem como ETag.
+ */
+@Component
+public class CatalogoVersao {
+    
+    private final AtomicLong versao = new AtomicLong();
+    private final Map<Entidade, AtomicLong> porEntidade = new EnumMap<>(Entidade.class);
+    
+    // Identifica esta execução da aplicação, para que uma versão nunca se repita entre reinícios
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+    
+    public CatalogoVersao() {
+        for (Entidade entidade : Entidade.values()) {
+            porEntidade.put(entidade, new AtomicLong());
+        }
+    }
+    
+    /**
+     * Versão atual do catálogo
+     */
+    public long atual() {
+        return versao.get();
+    }
+    
+    /**
+     * Versão atual de um agregado
+     */
+    public long atual(Entidade entidade) {
+        return porEntidade.get(entidade).get();
+    }
+    
+    /**
+     * Identificador desta execução da aplicação
+     */
+    public String instancia() {
+        return instancia;
+    }
+    
+    /**
+     * ETag de uma representação montada a partir dos agregados informados, ex.: "modelo-lx3k9a-4.2"
+     * (deve ser lida antes da consulta, para que uma escrita concorrente nunca fique com a tag antiga)
+     */
+    public String etag(Entidade principal, Entidade... exibidas) {
+        StringBuilder tag = new StringBuilder("\"")
+                .append(principal.name().toLowerCase(Locale.ROOT)).append('-')
+                .append(instancia).append('-')
+                .append(atual(principal));
+        for (Entidade entidade : exibidas) {
+            tag.append('.').append(atual(entidade));
+        }
+        return tag.append('"').toString();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        porEntidade.get(evento.getEntidade()).incrementAndGet();
+        versao.incrementAndGet();
+    }
+}
@@ -0,0 +1,355 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroIndiceDTO;
+import com.wswork.carcatalog.dto.EstatisticaGrupoDTO;
+import com.wswork.carcatalog.dto.EstatisticasCarrosDTO;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.DadosCarro;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.CarroRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Estatísticas do estoque mantidas em acumuladores: por modelo (quantidade, soma e valores para mínimo
+ * e máximo) e contagens por ano, combustível e cor. Cada criação, atualização ou remoção de carro publicada
+ * pelo CarroService já traz os dados do carro antes e depois, então o acumulador é ajustado sem consultar
+ * o banco; o resumo custa O(grupos), não O(carros). As estatísticas por marca combinam as dos seus modelos.
+ *
+ * Um lote de carros marca os acumuladores como desatualizados e eles são recarregados na consulta seguinte.
+ * Avisos que chegam durante uma carga são reconciliados com ela ao final (ver carregar).
+ */
+@Component
+public class EstatisticasCarros {
+
+    private static final Comparator<EstatisticaGrupoDTO> ORDEM = Comparator.comparing(EstatisticaGrupoDTO::getQuantidade).reversed()
+            .thenComparing(EstatisticaGrupoDTO::getNome, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    private final CarroRepository carroRepository;
+    private final ModeloRepository modeloRepository;
+    private final TransactionTemplate transactionTemplate;
+    // Carga em REPEATABLE READ: a contagem e a releitura dos carros alterados durante ela veem o mesmo snapshot
+    private final TransactionTemplate transacaoCarga;
+    private final EventosDuranteCarga eventosDuranteCarga = new EventosDuranteCarga();
+    // Uma carga por vez
+    private final ReentrantLock travaCarga = new ReentrantLock();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean desatualizado = true;
+
+    private final Map<Long, Acumulador> porModelo = new HashMap<>();
+    private final Map<Integer, Long> porAno = new TreeMap<>();
+    private final Map<String, Long> porCombustivel = new TreeMap<>();
+    private final Map<String, Long> porCor = new TreeMap<>();
+    // Nome do modelo e da marca de cada modelo com carros; relidos quando algum é renomeado ou muda de marca
+    private final Map<Long, NomesModelo> nomes = new HashMap<>();
+
+    public EstatisticasCarros(CarroRepository carroRepository,
+                              ModeloRepository modeloRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.carroRepository = carroRepository;
+        this.modeloRepository = modeloRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transacaoCarga = new TransactionTemplate(transactionManager);
+        this.transacaoCarga.setReadOnly(true);
+        this.transacaoCarga.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * (Re)carregar os acumuladores a partir de todos os carros.
+     *
+     * Os carros alterados durante a leitura têm o aviso guardado até o fim dela. Como a leitura pode já ter
+     * contado a alteração (commit anterior ao snapshot) ou não, o delta do aviso não é somado: ainda no mesmo
+     * snapshot, o estado lido de cada um desses carros é descontado e o estado final trazido pelo aviso, somado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        travaCarga.lock();
+        try {
+            eventosDuranteCarga.iniciar();
+            boolean carregado = false;
+            try {
+                transacaoCarga.executeWithoutResult(status -> {
+                    comTravaDeEscrita(() -> {
+                        porModelo.clear();
+                        porAno.clear();
+                        porCombustivel.clear();
+                        porCor.clear();
+                        nomes.clear();
+                        try (Stream<CarroIndiceDTO> linhas = carroRepository.streamAllIndice()) {
+                            linhas.forEach(linha -> {
+                                somar(dados(linha), 1);
+                                nomes.putIfAbsent(linha.getModeloId(), new NomesModelo(linha.getNomeModelo(),
+                                        linha.getMarcaId(), linha.getNomeMarca()));
+                            });
+                        }
+                        desatualizado = false;
+                    });
+                    Set<Long> reconciliados = new HashSet<>();
+                    eventosDuranteCarga.concluir(eventos -> reconciliar(eventos, reconciliados));
+                });
+                carregado = true;
+            } finally {
+                if (!carregado) {
+                    // Carga interrompida: os avisos guardados são descartados e a próxima consulta recarrega
+                    desatualizado = true;
+                    eventosDuranteCarga.cancelar();
+                }
+            }
+        } finally {
+            travaCarga.unlock();
+        }
+    }
+
+    /**
+     * Ajustar os acumuladores recém-carregados com uma rodada dos avisos que chegaram durante a carga.
+     * Roda na transação da carga, para ler os carros no mesmo snapshot que a contagem. Um carro já
+     * reconciliado numa rodada anterior tem o estado final dela somado: nele os avisos seguintes valem como delta.
+     */
+    private void reconciliar(List<CatalogoAlteradoEvent> eventos, Set<Long> reconciliados) {
+        // Estado final de cada carro alterado (null se removido), do último aviso recebido
+        Map<Long, DadosCarro> finais = new HashMap<>();
+        List<CatalogoAlteradoEvent> deltas = new ArrayList<>();
+        boolean nomesAlterados = false;
+        boolean lote = false;
+        for (CatalogoAlteradoEvent evento : eventos) {
+            if (evento.getEntidade() != Entidade.CARRO) {
+                nomesAlterados |= evento.getOperacao() != Operacao.CRIADO;
+            } else if (evento.getId() == null) {
+                lote = true;
+            } else if (reconciliados.contains(evento.getId())) {
+                deltas.add(evento);
+            } else {
+                finais.put(evento.getId(), evento.getCarroAtual());
+            }
+        }
+        reconciliados.addAll(finais.keySet());
+        List<CarroIndiceDTO> contados = finais.isEmpty()
+                ? List.of()
+                : carroRepository.findAllIndiceByIdIn(finais.keySet());
+        boolean limparNomes = nomesAlterados;
+        boolean recarregar = lote;
+        comTravaDeEscrita(() -> {
+            contados.forEach(linha -> somar(dados(linha), -1));
+            finais.values().forEach(carro -> {
+                if (carro != null) {
+                    somar(carro, 1);
+                }
+            });
+            deltas.forEach(this::somarDelta);
+            if (limparNomes) {
+                nomes.clear();
+            }
+            if (recarregar) {
+                desatualizado = true;
+            }
+        });
+    }
+
+    /**
+     * Consultas simultâneas com os acumuladores desatualizados disparam uma só carga: as demais esperam por ela
+     */
+    private void carregarSeDesatualizado() {
+        travaCarga.lock();
+        try {
+            if (desatualizado) {
+                carregar();
+            }
+        } finally {
+            travaCarga.unlock();
+        }
+    }
+
+    private static DadosCarro dados(CarroIndiceDTO linha) {
+        return new DadosCarro(linha.getModeloId(), linha.getAno(), linha.getCombustivel(),
+                linha.getCor(), linha.getValor());
+    }
+
+    /**
+     * Resumo atual das estatísticas
+     */
+    public EstatisticasCarrosDTO resumo() {
+        if (desatualizado) {
+            carregarSeDesatualizado();
+        }
+        completarNomes();
+        lock.readLock().lock();
+        try {
+            List<EstatisticaGrupoDTO> modelos = new ArrayList<>(porModelo.size());
+            Map<Long, Acumulador> porMarca = new LinkedHashMap<>();
+            Map<Long, String> nomesMarcas = new HashMap<>();
+            long total = 0;
+            for (Map.Entry<Long, Acumulador> entrada : porModelo.entrySet()) {
+                Acumulador acumulador = entrada.getValue();
+                NomesModelo nomesModelo = nomes.getOrDefault(entrada.getKey(), NomesModelo.DESCONHECIDO);
+                modelos.add(acumulador.resumo(entrada.getKey(), nomesModelo.nome(), nomesModelo.marcaId(), nomesModelo.nomeMarca()));
+                porMarca.computeIfAbsent(nomesModelo.marcaId(), id -> new Acumulador()).combinar(acumulador);
+                nomesMarcas.put(nomesModelo.marcaId(), nomesModelo.nomeMarca());
+                total += acumulador.quantidade;
+            }
+            List<EstatisticaGrupoDTO> marcas = new ArrayList<>(porMarca.size());
+            porMarca.forEach((marcaId, acumulador) ->
+                    marcas.add(acumulador.resumo(marcaId, nomesMarcas.get(marcaId), marcaId, nomesMarcas.get(marcaId))));
+            marcas.sort(ORDEM);
+            modelos.sort(ORDEM);
+            return new EstatisticasCarrosDTO(total, marcas, modelos,
+                    new LinkedHashMap<>(porAno), new LinkedHashMap<>(porCombustivel), new LinkedHashMap<>(porCor));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        eventosDuranteCarga.aplicarOuAdiar(evento, this::aplicar);
+    }
+
+    private void aplicar(CatalogoAlteradoEvent evento) {
+        // Desatualizado: a próxima carga lerá a alteração
+        if (desatualizado) {
+            return;
+        }
+        if (evento.getEntidade() != Entidade.CARRO) {
+            // Modelo novo ainda não tem carros; renomear ou remover invalida os nomes guardados
+            if (evento.getOperacao() != Operacao.CRIADO) {
+                comTravaDeEscrita(nomes::clear);
+            }
+        } else if (evento.getId() == null) {
+            desatualizado = true;
+        } else {
+            comTravaDeEscrita(() -> somarDelta(evento));
+        }
+    }
+
+    private void somarDelta(CatalogoAlteradoEvent evento) {
+        if (evento.getCarroAnterior() != null) {
+            somar(evento.getCarroAnterior(), -1);
+        }
+        if (evento.getCarroAtual() != null) {
+            somar(evento.getCarroAtual(), 1);
+        }
+    }
+
+    private void comTravaDeEscrita(Runnable alteracao) {
+        lock.writeLock().lock();
+        try {
+            alteracao.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Somar (sinal 1) ou descontar (sinal -1) um carro dos acumuladores
+     */
+    private void somar(DadosCarro carro, int sinal) {
+        Acumulador acumulador = porModelo.computeIfAbsent(carro.modeloId(), id -> new Acumulador());
+        acumulador.somar(carro.valor(), sinal);
+        if (acumulador.quantidade <= 0) {
+            porModelo.remove(carro.modeloId());
+        }
+        contar(porAno, carro.ano(), sinal);
+        contar(porCombustivel, carro.combustivel(), sinal);
+        contar(porCor, carro.cor(), sinal);
+    }
+
+    private static <K> void contar(Map<K, Long> contagens, K chave, int sinal) {
+        if (chave != null) {
+            contagens.merge(chave, (long) sinal, (atual, delta) -> atual + delta > 0 ? atual + delta : null);
+        }
+    }
+
+    /**
+     * Buscar em uma consulta os nomes dos modelos que ganharam carros desde a última leitura
+     */
+    private void completarNomes() {
+        Set<Long> faltando = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Long modeloId : porModelo.keySet()) {
+                if (!nomes.containsKey(modeloId)) {
+                    faltando.add(modeloId);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (faltando.isEmpty()) {
+            return;
+        }
+        List<Modelo> modelos = transactionTemplate.execute(status -> modeloRepository.findAllComMarcaByIdIn(faltando));
+        comTravaDeEscrita(() -> {
+            // Modelo já removido fica sem nome, para não ser buscado de novo a cada consulta
+            faltando.forEach(modeloId -> nomes.putIfAbsent(modeloId, NomesModelo.DESCONHECIDO));
+            modelos.forEach(modelo -> nomes.put(modelo.getId(),
+                    new NomesModelo(modelo.getNome(), modelo.getMarca().getId(), modelo.getMarca().getNomeMarca())));
+        });
+    }
+
+    private record NomesModelo(String nome, Long marcaId, String nomeMarca) {
+        static final NomesModelo DESCONHECIDO = new NomesModelo(null, null, null);
+    }
+
+    /**
+     * Quantidade, soma e multiconjunto dos valores (em centavos) de um grupo de carros
+     */
+    private static final class Acumulador {
+        private long quantidade;
+        private long quantidadeComValor;
+        private long somaCentavos;
+        // Valor -> quantidade de carros com ele, para manter mínimo e máximo também nas remoções
+        private final TreeMap<Long, Integer> valores = new TreeMap<>();
+
+        void somar(Double valor, int sinal) {
+            quantidade += sinal;
+            if (valor == null) {
+                return;
+            }
+            long centavos = Math.round(valor * 100);
+            quantidadeComValor += sinal;
+            somaCentavos += sinal * centavos;
+            valores.merge(centavos, sinal, (atual, delta) -> atual + delta > 0 ? atual + delta : null);
+        }
+
+        void combinar(Acumulador outro) {
+            quantidade += outro.quantidade;
+            quantidadeComValor += outro.quantidadeComValor;
+            somaCentavos += outro.somaCentavos;
+            if (!outro.valores.isEmpty()) {
+                valores.merge(outro.valores.firstKey(), 1, Integer::sum);
+                valores.merge(outro.valores.lastKey(), 1, Integer::sum);
+            }
+        }
+
+        EstatisticaGrupoDTO resumo(Long id, String nome, Long marcaId, String nomeMarca) {
+            boolean comValor = quantidadeComValor > 0 && !valores.isEmpty();
+            return new EstatisticaGrupoDTO(id, nome, marcaId, nomeMarca, quantidade,
+                    comValor ? valores.firstKey() / 100.0 : null,
+                    comValor ? valores.lastKey() / 100.0 : null,
+                    comValor ? Math.round((double) somaCentavos / quantidadeComValor) / 100.0 : null,
+                    somaCentavos / 100.0);
+        }
+    }
+}
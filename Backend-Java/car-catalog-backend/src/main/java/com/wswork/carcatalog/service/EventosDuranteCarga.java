@@ -0,0 +1,126 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Coordena a carga completa de uma estrutura em memória com as alterações publicadas após cada commit.
+ * Eventos que chegam enquanto a carga lê o banco ficam guardados e são entregues ao fim dela, para que
+ * nenhuma escrita que escape da leitura se perca; fora de uma carga são aplicados na hora.
+ *
+ * A trava só cobre a troca de estado (guardar, iniciar, publicar): quem aplica um evento lendo o banco
+ * usa adiar e lê fora dela, e a entrega do fim da carga também roda fora dela.
+ */
+final class EventosDuranteCarga {
+
+    private final ReentrantLock trava = new ReentrantLock();
+
+    // Não nulo enquanto houver uma carga em andamento
+    private List<CatalogoAlteradoEvent> pendentes;
+
+    /**
+     * Aplicar o evento agora ou, havendo carga em andamento, guardá-lo para o fim dela.
+     * A aplicação roda sob a trava, serializada com o início e o fim da carga: só para alterações em memória.
+     */
+    void aplicarOuAdiar(CatalogoAlteradoEvent evento, Consumer<CatalogoAlteradoEvent> aplicar) {
+        trava.lock();
+        try {
+            if (pendentes != null) {
+                pendentes.add(evento);
+            } else {
+                aplicar.accept(evento);
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Guardar o evento se houver carga em andamento. Devolve false quando não há e quem chama deve
+     * aplicá-lo por conta própria, fora da trava (a aplicação precisa ser idempotente, como reler a linha).
+     */
+    boolean adiar(CatalogoAlteradoEvent evento) {
+        trava.lock();
+        try {
+            if (pendentes == null) {
+                return false;
+            }
+            pendentes.add(evento);
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Marcar o início de uma carga. Deve vir antes da leitura do banco, para que todo evento
+     * cujo commit não entre na leitura seja guardado.
+     */
+    void iniciar() {
+        trava.lock();
+        try {
+            if (pendentes == null) {
+                pendentes = new ArrayList<>();
+            }
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Encerrar a carga sem nada a publicar além do que a carga já gravou
+     */
+    void concluir(Consumer<List<CatalogoAlteradoEvent>> reconciliar) {
+        concluir(reconciliar, () -> { });
+    }
+
+    /**
+     * Encerrar a carga: entrega os eventos guardados, na ordem em que chegaram, em rodadas fora da trava
+     * (reconciliar pode ler o banco; o que chega nesse meio tempo fica para a rodada seguinte). Numa rodada
+     * sem eventos, publicar roda sob a trava e os eventos voltam a ser aplicados na hora. Se reconciliar
+     * falhar, a carga é abandonada (ver cancelar).
+     */
+    void concluir(Consumer<List<CatalogoAlteradoEvent>> reconciliar, Runnable publicar) {
+        while (true) {
+            List<CatalogoAlteradoEvent> eventos;
+            trava.lock();
+            try {
+                if (pendentes == null) {
+                    // Uma carga aninhada (disparada pela própria entrega) já encerrou
+                    return;
+                }
+                if (pendentes.isEmpty()) {
+                    publicar.run();
+                    pendentes = null;
+                    return;
+                }
+                eventos = pendentes;
+                pendentes = new ArrayList<>();
+            } finally {
+                trava.unlock();
+            }
+            try {
+                reconciliar.accept(eventos);
+            } catch (RuntimeException e) {
+                cancelar();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Abandonar uma carga que falhou: os eventos guardados são descartados
+     */
+    void cancelar() {
+        trava.lock();
+        try {
+            pendentes = null;
+        } finally {
+            trava.unlock();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.wswork.carcatalog.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.repository.CarroRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de todos os carros em NDJSON (um objeto JSON por linha) ou CSV.
+ *
+ * Os carros vêm do banco em stream (fetch size do CarroRepository) e são escritos um a um em um buffer de
+ * tamanho fixo sobre a saída. Quando o buffer enche ele é descarregado na resposta, e a escrita bloqueia
+ * enquanto o cliente não consome: um cliente lento apenas desacelera a leitura do cursor, sem acumular
+ * linhas em memória. A vazão (carros por segundo) é registrada no log durante e ao final da exportação.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportacaoCarrosService {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final long INTERVALO_PROGRESSO_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final String[] COLUNAS_CSV = {"id", "nomeModelo", "nomeMarca", "ano", "combustivel", "numPortas",
+            "cor", "valor", "timestampCadastro", "dataCriacao", "dataAtualizacao"};
+
+    private final CarroRepository carroRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Formatos aceitos em ?format=
+     */
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extensao;
+
+        Formato(String contentType, String extensao) {
+            this.contentType = contentType;
+            this.extensao = extensao;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        public static Formato de(String valor) {
+            try {
+                return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Formato de exportação inválido: " + valor + " (use ndjson ou csv)");
+            }
+        }
+    }
+
+    /**
+     * Escrever todos os carros no formato informado, retornando o total de carros escritos
+     */
+    @Transactional(readOnly = true)
+    public long exportar(Formato formato, OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        long total;
+        try (Stream<CarroRespostaDTO> carros = carroRepository.streamAllResposta()) {
+            Progresso progresso = new Progresso(formato, inicio);
+            total = formato == Formato.CSV
+                    ? escreverCsv(carros.iterator(), saida, progresso)
+                    : escreverNdjson(carros.iterator(), saida, progresso);
+        }
+        long duracao = Math.max(System.nanoTime() - inicio, 1);
+        log.info("Exportação {} concluída: carros={} duracaoMs={} carrosPorSegundo={}",
+                formato, total, duracao / 1_000_000, Math.round(total * 1_000_000_000.0 / duracao));
+        return total;
+    }
+
+    private long escreverNdjson(Iterator<CarroRespostaDTO> carros, OutputStream saida, Progresso progresso) throws IOException {
+        long total = 0;
+        // O gerador não fecha a saída: quem a abriu (o container) é que a encerra
+        try (JsonGenerator gerador = objectMapper.createGenerator(new BufferedOutputStream(saida, TAMANHO_BUFFER))
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            while (carros.hasNext()) {
+                gerador.writeObject(carros.next());
+                gerador.writeRaw('\n');
+                progresso.registrar(++total);
+            }
+        }
+        return total;
+    }
+
+    private long escreverCsv(Iterator<CarroRespostaDTO> carros, OutputStream saida, Progresso progresso) throws IOException {
+        long total = 0;
+        Writer escritor = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+        escritor.write(String.join(",", COLUNAS_CSV));
+        escritor.write("\r\n");
+        while (carros.hasNext()) {
+            CarroRespostaDTO carro = carros.next();
+            escritor.write(String.valueOf(carro.getId()));
+            escreverCampo(escritor, carro.getNomeModelo());
+            escreverCampo(escritor, carro.getNomeMarca());
+            escreverCampo(escritor, carro.getAno());
+            escreverCampo(escritor, carro.getCombustivel());
+            escreverCampo(escritor, carro.getNumPortas());
+            escreverCampo(escritor, carro.getCor());
+            escreverCampo(escritor, carro.getValor() != null ? carro.getValor().toPlainString() : null);
+            escreverCampo(escritor, carro.getTimestampCadastro());
+            escreverCampo(escritor, carro.getDataCriacao());
+            escreverCampo(escritor, carro.getDataAtualizacao());
+            escritor.write("\r\n");
+            progresso.registrar(++total);
+        }
+        escritor.flush();
+        return total;
+    }
+
+    /**
+     * Escrever ",campo" com aspas quando o valor tiver vírgula, aspas ou quebra de linha (RFC 4180)
+     */
+    static void escreverCampo(Writer escritor, Object campo) throws IOException {
+        escritor.write(',');
+        if (campo == null) {
+            return;
+        }
+        String texto = campo.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            escritor.write(texto);
+            return;
+        }
+        escritor.write('"');
+        escritor.write(texto.replace("\"", "\"\""));
+        escritor.write('"');
+    }
+
+    /**
+     * Registro periódico da vazão no log durante exportações longas
+     */
+    private static final class Progresso {
+        private final Formato formato;
+        private final long inicio;
+        private long ultimoProgresso;
+
+        Progresso(Formato formato, long inicio) {
+            this.formato = formato;
+            this.inicio = inicio;
+            this.ultimoProgresso = inicio;
+        }
+
+        void registrar(long total) {
+            // Consultar o relógio só a cada 1024 carros
+            if ((total & 1023) != 0) {
+                return;
+            }
+            long agora = System.nanoTime();
+            if (agora - ultimoProgresso >= INTERVALO_PROGRESSO_NANOS) {
+                ultimoProgresso = agora;
+                log.info("Exportação {} em andamento: carros={} carrosPorSegundo={}",
+                        formato, total, Math.round(total * 1_000_000_000.0 / (agora - inicio)));
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.AlteracaoCatalogoDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed das alterações do catálogo (carros, marcas e modelos) para assinantes SSE.
+ *
+ * Cada escrita commitada vira um evento compacto numerado, oferecido sem bloquear à fila limitada de cada
+ * assinante; uma thread virtual por assinante esvazia a sua fila na conexão. Um cliente lento só atrasa a
+ * própria thread: quando a fila dele enche, os eventos pendentes são descartados e ele recebe um "resync",
+ * sinal para recarregar as listas. Quem reconecta com um Last-Event-ID diferente do último evento também
+ * recebe o "resync": o id leva a época da inicialização ("época-número"), então um id de antes de um
+ * reinício nunca coincide com os novos, mesmo com a numeração recomeçada.
+ * Sem alterações, um comentário a cada poucos segundos mantém a conexão aberta em proxies e detecta
+ * clientes que já saíram.
+ */
+@Slf4j
+@Component
+public class FeedAlteracoesCatalogo {
+
+    public static final String EVENTO_ALTERACAO = "alteracao";
+    public static final String EVENTO_RESYNC = "resync";
+
+    private static final long INTERVALO_PING_SEGUNDOS = 15;
+
+    private final int capacidadeFila;
+    private final long duracaoMaximaMs;
+    // Instante da inicialização (base 36) como prefixo dos ids dos eventos
+    private final String epoca = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong sequencia = new AtomicLong();
+    private final AtomicLong proximoAssinante = new AtomicLong();
+    private final Map<Long, Assinante> assinantes = new ConcurrentHashMap<>();
+    private final Counter resyncs;
+
+    public FeedAlteracoesCatalogo(MeterRegistry registry,
+                                  @Value("${catalogo.feed.capacidade-fila:256}") int capacidadeFila,
+                                  @Value("${catalogo.feed.duracao-maxima-ms:1800000}") long duracaoMaximaMs) {
+        this.capacidadeFila = capacidadeFila;
+        this.duracaoMaximaMs = duracaoMaximaMs;
+        Gauge.builder("catalogo.feed.assinantes", assinantes, Map::size).register(registry);
+        this.resyncs = Counter.builder("catalogo.feed.resyncs").register(registry);
+    }
+
+    /**
+     * Assinar o feed; com um último id recebido (Last-Event-ID de uma reconexão) que não é o do último evento,
+     * começa por um "resync"
+     */
+    public SseEmitter assinar(String ultimoIdRecebido) {
+        SseEmitter emitter = new SseEmitter(duracaoMaximaMs);
+        Assinante assinante = new Assinante(proximoAssinante.incrementAndGet(), emitter, new ArrayBlockingQueue<>(capacidadeFila));
+        emitter.onCompletion(() -> encerrar(assinante));
+        emitter.onTimeout(() -> encerrar(assinante));
+        emitter.onError(erro -> encerrar(assinante));
+        // Registrar antes de ler a sequência: um evento publicado entre as duas coisas já vai para a fila,
+        // e no pior caso também provoca um "resync" desnecessário, nunca uma alteração perdida
+        assinantes.put(assinante.id, assinante);
+        long atual = sequencia.get();
+        if (ultimoIdRecebido != null && !ultimoIdRecebido.equals(idEvento(atual))) {
+            assinante.fila.offer(new Mensagem(atual, EVENTO_RESYNC, null));
+        }
+        assinante.thread = Thread.ofVirtual().name("feed-catalogo-" + assinante.id).start(() -> enviar(assinante));
+        return emitter;
+    }
+
+    /**
+     * Quantidade de assinantes conectados
+     */
+    public int assinantes() {
+        return assinantes.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        long id = sequencia.incrementAndGet();
+        Mensagem mensagem = new Mensagem(id, EVENTO_ALTERACAO, new AlteracaoCatalogoDTO(
+                evento.getEntidade().name(), evento.getOperacao().name(), evento.getId()));
+        for (Assinante assinante : assinantes.values()) {
+            if (!assinante.fila.offer(mensagem)) {
+                // Fila cheia: o cliente não acompanha; descartar o atraso e pedir que recarregue
+                assinante.fila.clear();
+                assinante.fila.offer(new Mensagem(id, EVENTO_RESYNC, null));
+                resyncs.increment();
+            }
+        }
+    }
+
+    /**
+     * Esvaziar a fila do assinante na conexão (na thread virtual dele) até a conexão terminar
+     */
+    private void enviar(Assinante assinante) {
+        try {
+            while (assinantes.containsKey(assinante.id)) {
+                Mensagem mensagem = assinante.fila.poll(INTERVALO_PING_SEGUNDOS, TimeUnit.SECONDS);
+                if (mensagem == null) {
+                    assinante.emitter.send(SseEmitter.event().comment("ping"));
+                } else if (mensagem.dados() == null) {
+                    assinante.emitter.send(SseEmitter.event().id(idEvento(mensagem.id())).name(mensagem.nome()).data(""));
+                } else {
+                    assinante.emitter.send(SseEmitter.event().id(idEvento(mensagem.id())).name(mensagem.nome())
+                            .data(mensagem.dados()));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou ou a resposta já foi encerrada
+            log.debug("Assinante {} do feed desconectado: {}", assinante.id, e.getMessage());
+            encerrar(assinante);
+            assinante.emitter.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String idEvento(long numero) {
+        return epoca + "-" + numero;
+    }
+
+    private void encerrar(Assinante assinante) {
+        if (assinantes.remove(assinante.id) != null && assinante.thread != null
+                && assinante.thread != Thread.currentThread()) {
+            assinante.thread.interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void encerrarTodos() {
+        for (Assinante assinante : assinantes.values()) {
+            encerrar(assinante);
+            assinante.emitter.complete();
+        }
+    }
+
+    private record Mensagem(long id, String nome, AlteracaoCatalogoDTO dados) {}
+
+    private static final class Assinante {
+        private final long id;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Mensagem> fila;
+        private volatile Thread thread;
+
+        Assinante(long id, SseEmitter emitter, BlockingQueue<Mensagem> fila) {
+            this.id = id;
+            this.emitter = emitter;
+            this.fila = fila;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.wswork.carcatalog.service;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.CarroFormatadoDTO;
+import com.wswork.carcatalog.dto.ImportacaoResultadoDTO;
+import com.wswork.carcatalog.dto.LoteCarrosResultadoDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Importação de arquivos no formato do cars.json ({"cars": [...]}, campos do CarroFormatadoDTO).
+ *
+ * O arquivo é lido em streaming, um carro por vez, e validado em blocos; cada bloco vai para a criação
+ * em lote do CarroService (marcas e modelos resolvidos por conjunto, INSERTs agrupados) no pool compartilhado
+ * das importações (ExecutorImportacaoConfig), com poucos blocos em andamento por importação. A leitura espera
+ * quando todos estão ocupados, então a memória fica limitada a alguns blocos qualquer que seja o tamanho do
+ * arquivo. Os ouvintes do catálogo recebem um único evento de lote no final.
+ *
+ * JSON inválido no meio do array não descarta o que já foi gravado: a leitura para, os blocos em andamento
+ * terminam e o relatório informa os carros importados e a posição do erro.
+ */
+@Slf4j
+@Service
+public class ImportacaoCarrosService {
+
+    private static final int MAXIMO_ERROS_RELATADOS = 100;
+    private static final long INTERVALO_PROGRESSO_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final CarroService carroService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ThreadPoolExecutor executor;
+    private final int tamanhoBloco;
+    private final int paralelismo;
+
+    public ImportacaoCarrosService(CarroService carroService,
+                                   ObjectMapper objectMapper,
+                                   Validator validator,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Qualifier("executorImportacao") ThreadPoolExecutor executor,
+                                   @Value("${catalogo.importacao.tamanho-bloco:1000}") int tamanhoBloco) {
+        this.carroService = carroService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.executor = executor;
+        this.tamanhoBloco = validarTamanhoBloco(tamanhoBloco);
+        this.paralelismo = executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Importar todos os carros do arquivo em blocos do tamanho configurado
+     */
+    public ImportacaoResultadoDTO importar(InputStream entrada) throws IOException {
+        return importar(entrada, null);
+    }
+
+    /**
+     * Importar todos os carros do arquivo; registros inválidos são rejeitados sem interromper a importação.
+     * tamanhoBloco nulo usa o configurado (catalogo.importacao.tamanho-bloco).
+     */
+    public ImportacaoResultadoDTO importar(InputStream entrada, Integer tamanhoBloco) throws IOException {
+        int carrosPorBloco = tamanhoBloco != null ? validarTamanhoBloco(tamanhoBloco) : this.tamanhoBloco;
+        Importacao importacao = new Importacao();
+        try (JsonParser parser = objectMapper.createParser(entrada)) {
+            posicionarNoArray(parser);
+            try {
+                ler(parser, carrosPorBloco, importacao);
+            } catch (JsonProcessingException e) {
+                JsonLocation local = e.getLocation();
+                String onde = local != null
+                        ? " (linha " + local.getLineNr() + ", coluna " + local.getColumnNr() + ")"
+                        : "";
+                importacao.interromper("JSON inválido no carro na posição " + importacao.lidos.get() + onde
+                        + ": " + e.getOriginalMessage());
+            }
+        } finally {
+            aguardar(importacao);
+            if (importacao.importados.get() > 0) {
+                eventPublisher.publishEvent(new CatalogoAlteradoEvent(Entidade.CARRO, Operacao.LOTE, null));
+            }
+        }
+        ImportacaoResultadoDTO resultado = importacao.resultado();
+        if (resultado.getPosicaoErro() != null) {
+            log.warn("Importação interrompida: {}", importacao.erroLeitura);
+        }
+        log.info("Importação concluída: lidos={} importados={} rejeitados={} duracaoMs={} carrosPorSegundo={}",
+                resultado.getLidos(), resultado.getImportados(), resultado.getRejeitados(),
+                resultado.getDuracaoMs(), Math.round(resultado.getCarrosPorSegundo()));
+        return resultado;
+    }
+
+    /**
+     * Ler os carros do array, enviando cada bloco completo ao pool; o último bloco, mesmo incompleto,
+     * é enviado também quando a leitura para no meio (JSON inválido ou elemento que não é um carro)
+     */
+    private void ler(JsonParser parser, int carrosPorBloco, Importacao importacao) throws IOException {
+        List<CarroDTO> bloco = new ArrayList<>(carrosPorBloco);
+        try {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode registro = parser.readValueAsTree();
+                long posicao = importacao.lidos.getAndIncrement();
+                CarroDTO carro = converter(registro, posicao, importacao);
+                if (carro != null) {
+                    bloco.add(carro);
+                }
+                if (bloco.size() == carrosPorBloco) {
+                    enviar(bloco, importacao);
+                    bloco = new ArrayList<>(carrosPorBloco);
+                }
+                importacao.relatarProgresso();
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                importacao.interromper("Esperado um objeto de carro no array \"cars\" na posição "
+                        + importacao.lidos.get() + ", encontrado " + parser.currentToken());
+            }
+        } finally {
+            // Os carros já lidos e validados são gravados mesmo se a leitura parar no meio do bloco
+            if (!bloco.isEmpty()) {
+                enviar(bloco, importacao);
+            }
+        }
+    }
+
+    static int validarTamanhoBloco(int tamanhoBloco) {
+        if (tamanhoBloco < 1 || tamanhoBloco > CarroService.TAMANHO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("tamanhoBloco deve estar entre 1 e " + CarroService.TAMANHO_MAXIMO_LOTE);
+        }
+        return tamanhoBloco;
+    }
+
+    /**
+     * Avançar até o início do array "cars" (aceita também um array de carros na raiz)
+     */
+    private static void posicionarNoArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Arquivo deve ser {\"cars\": [...]}");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if ("cars".equals(parser.currentName())) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IllegalArgumentException("Campo \"cars\" deve ser um array");
+                }
+                return;
+            }
+            parser.nextToken();
+            parser.skipChildren();
+        }
+        throw new IllegalArgumentException("Campo \"cars\" não encontrado");
+    }
+
+    /**
+     * Converter um registro do arquivo em CarroDTO validado, ou rejeitá-lo (retorna null)
+     */
+    private CarroDTO converter(JsonNode registro, long posicao, Importacao importacao) {
+        CarroFormatadoDTO formatado;
+        try {
+            formatado = objectMapper.treeToValue(registro, CarroFormatadoDTO.class);
+        } catch (JsonProcessingException e) {
+            importacao.rejeitar(1, "Carro na posição " + posicao + ": " + e.getOriginalMessage());
+            return null;
+        }
+        if (formatado.getMarca() == null || formatado.getMarca().isBlank()
+                || formatado.getNome_modelo() == null || formatado.getNome_modelo().isBlank()) {
+            importacao.rejeitar(1, "Carro na posição " + posicao + " sem marca ou nome_modelo");
+            return null;
+        }
+        CarroDTO carro = new CarroDTO();
+        carro.setNomeMarca(formatado.getMarca().trim());
+        carro.setNomeModelo(formatado.getNome_modelo().trim());
+        carro.setAno(formatado.getAno());
+        carro.setCombustivel(formatado.getCombustivel());
+        carro.setNumPortas(formatado.getNum_portas());
+        carro.setCor(formatado.getCor());
+        carro.setValor(formatado.getValor() != null ? BigDecimal.valueOf(formatado.getValor()) : null);
+        carro.setTimestampCadastro(formatado.getTimestamp_cadastro());
+        List<ConstraintViolation<CarroDTO>> violacoes = new ArrayList<>(validator.validate(carro));
+        if (!violacoes.isEmpty()) {
+            importacao.rejeitar(1, "Carro na posição " + posicao + ": " + violacoes.get(0).getMessage());
+            return null;
+        }
+        return carro;
+    }
+
+    /**
+     * Enviar o bloco ao pool, esperando enquanto esta importação já tiver um bloco em andamento por thread
+     */
+    private void enviar(List<CarroDTO> bloco, Importacao importacao) {
+        int numero = importacao.blocos.incrementAndGet();
+        importacao.emAndamento.acquireUninterruptibly();
+        executor.execute(() -> {
+            try {
+                LoteCarrosResultadoDTO resultado = carroService.criarEmLote(bloco, false);
+                importacao.importados.addAndGet(resultado.getQuantidade());
+                importacao.marcasCriadas.addAndGet(resultado.getMarcasCriadas());
+                importacao.modelosCriados.addAndGet(resultado.getModelosCriados());
+            } catch (RuntimeException e) {
+                log.warn("Bloco {} da importação rejeitado: {}", numero, e.getMessage());
+                importacao.rejeitar(bloco.size(), "Bloco " + numero + " (" + bloco.size() + " carros): " + e.getMessage());
+            } finally {
+                importacao.emAndamento.release();
+            }
+        });
+    }
+
+    /**
+     * Esperar os blocos desta importação ainda em andamento (todas as permissões de volta ao semáforo)
+     */
+    private void aguardar(Importacao importacao) {
+        try {
+            while (!importacao.emAndamento.tryAcquire(paralelismo, 1, TimeUnit.MINUTES)) {
+                log.info("Aguardando blocos da importação em andamento");
+            }
+            importacao.emAndamento.release(paralelismo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Contadores de uma importação, atualizados pela leitura e pelas threads do pool
+     */
+    private final class Importacao {
+        private final long inicio = System.nanoTime();
+        private final Semaphore emAndamento = new Semaphore(paralelismo);
+        private final AtomicLong lidos = new AtomicLong();
+        private final AtomicLong importados = new AtomicLong();
+        private final AtomicLong rejeitados = new AtomicLong();
+        private final AtomicInteger blocos = new AtomicInteger();
+        private final AtomicInteger marcasCriadas = new AtomicInteger();
+        private final AtomicInteger modelosCriados = new AtomicInteger();
+        private final List<String> erros = Collections.synchronizedList(new ArrayList<>());
+        private long ultimoProgresso = inicio;
+        // Motivo da parada da leitura antes do fim do array (null se o arquivo foi lido até o fim)
+        private String erroLeitura;
+        private Long posicaoErro;
+
+        void rejeitar(int quantidade, String erro) {
+            rejeitados.addAndGet(quantidade);
+            if (erros.size() < MAXIMO_ERROS_RELATADOS) {
+                erros.add(erro);
+            }
+        }
+
+        /**
+         * Registrar que a leitura parou no elemento seguinte ao último carro lido por inteiro
+         */
+        void interromper(String erro) {
+            erroLeitura = erro;
+            posicaoErro = lidos.get();
+            synchronized (erros) {
+                erros.add(erro);
+            }
+        }
+
+        /**
+         * Registrar no log o andamento e a vazão a cada poucos segundos (chamado pela thread de leitura)
+         */
+        void relatarProgresso() {
+            long agora = System.nanoTime();
+            if (agora - ultimoProgresso >= INTERVALO_PROGRESSO_NANOS) {
+                ultimoProgresso = agora;
+                log.info("Importação em andamento: lidos={} importados={} rejeitados={} carrosPorSegundo={}",
+                        lidos.get(), importados.get(), rejeitados.get(), Math.round(vazao(agora)));
+            }
+        }
+
+        double vazao(long agora) {
+            return importados.get() * 1_000_000_000.0 / Math.max(agora - inicio, 1);
+        }
+
+        ImportacaoResultadoDTO resultado() {
+            long agora = System.nanoTime();
+            List<String> primeirosErros;
+            synchronized (erros) {
+                primeirosErros = List.copyOf(erros);
+            }
+            return new ImportacaoResultadoDTO(lidos.get(), importados.get(), rejeitados.get(), blocos.get(),
+                    marcasCriadas.get(), modelosCriados.get(), (agora - inicio) / 1_000_000, vazao(agora),
+                    primeirosErros, posicaoErro);
+        }
+    }
+}
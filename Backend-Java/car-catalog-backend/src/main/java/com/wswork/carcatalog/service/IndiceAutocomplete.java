@@ -0,0 +1,585 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.SugestaoDTO;
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.CarroRepository;
+import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocomplete de marcas e modelos: árvore radix (trie com arestas comprimidas) sobre os nomes normalizados,
+ * em que cada nó guarda as melhores sugestões da sua subárvore. Responder a um prefixo é descer até o nó dele
+ * e devolver a lista pronta, sem percorrer a subárvore.
+ *
+ * Cada nome entra pela chave inteira e a partir de cada palavra ("c4 cactus" também por "cactus").
+ * O peso de um modelo é a quantidade de carros que o referenciam; o de uma marca, a soma dos seus modelos.
+ * Carregado quando a aplicação sobe e mantido pelas alterações publicadas pelos services após o commit:
+ * só os nós no caminho das chaves afetadas são recalculados.
+ */
+@Component
+public class IndiceAutocomplete {
+
+    public static final int SUGESTOES_POR_NO = 10;
+
+    private static final No[] SEM_FILHOS = new No[0];
+    private static final Entrada[] SEM_ENTRADAS = new Entrada[0];
+    private static final Comparator<Entrada> ORDEM = Comparator.comparingLong((Entrada entrada) -> entrada.carros).reversed()
+            .thenComparing(entrada -> entrada.nome, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(entrada -> entrada.tipo)
+            .thenComparing(entrada -> entrada.id);
+
+    private final MarcaRepository marcaRepository;
+    private final ModeloRepository modeloRepository;
+    private final CarroRepository carroRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final EventosDuranteCarga eventosDuranteCarga = new EventosDuranteCarga();
+    private volatile boolean carregado;
+
+    private No raiz = new No("");
+    private final Map<String, Entrada> entradas = new HashMap<>();
+
+    public IndiceAutocomplete(MarcaRepository marcaRepository,
+                              ModeloRepository modeloRepository,
+                              CarroRepository carroRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.marcaRepository = marcaRepository;
+        this.modeloRepository = modeloRepository;
+        this.carroRepository = carroRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Indica se o índice já foi carregado
+     */
+    public boolean ativo() {
+        return carregado;
+    }
+
+    /**
+     * (Re)carregar o índice inteiro a partir do banco
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        eventosDuranteCarga.iniciar();
+        try {
+            lock.writeLock().lock();
+            try {
+                raiz = new No("");
+                entradas.clear();
+                transactionTemplate.executeWithoutResult(status -> {
+                    marcaRepository.findAll().forEach(marca -> registrar(entrada(marca, 0)));
+                    modeloRepository.findAllComMarca().forEach(modelo -> registrar(entrada(modelo, 0)));
+                    for (Object[] contagem : carroRepository.contarPorModelo()) {
+                        somarCarros((Long) contagem[0], (Long) contagem[1], false);
+                    }
+                });
+                // Com os pesos definitivos, inserir as chaves e calcular as sugestões de cada nó uma única vez
+                for (Entrada entrada : entradas.values()) {
+                    for (String chave : entrada.chaves) {
+                        List<No> caminho = caminho(chave, true);
+                        caminho.get(caminho.size() - 1).adicionarTerminal(entrada);
+                    }
+                }
+                recalcularSubarvore(raiz);
+                carregado = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            eventosDuranteCarga.concluir(this::reaplicar);
+        }
+    }
+
+    /**
+     * Sugestões de marcas e modelos cujo nome (ou alguma palavra dele) começa com o texto,
+     * das mais referenciadas por carros para as menos
+     */
+    public List<SugestaoDTO> sugerir(String texto, int limite) {
+        String prefixo = IndiceTrigramasNomes.normalizar(texto);
+        if (!ativo() || limite <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            No no = noDoPrefixo(prefixo);
+            if (no == null) {
+                return List.of();
+            }
+            List<SugestaoDTO> sugestoes = new ArrayList<>(Math.min(limite, no.melhores.length));
+            for (int i = 0; i < no.melhores.length && i < limite; i++) {
+                Entrada entrada = no.melhores[i];
+                sugestoes.add(new SugestaoDTO(entrada.tipo.name(), entrada.id, entrada.nome, entrada.marcaId,
+                        entrada.nomeMarca, entrada.carros));
+            }
+            return sugestoes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        if (evento.getEntidade() == Entidade.CARRO && evento.getId() != null) {
+            // Só muda pesos em memória: serializado com o início e o fim da carga
+            eventosDuranteCarga.aplicarOuAdiar(evento, this::aplicar);
+        } else if (!eventosDuranteCarga.adiar(evento)) {
+            // Relê nomes ou contagens do banco: fora da trava dos eventos
+            aplicar(evento);
+        }
+    }
+
+    /**
+     * Reaplicar as alterações que chegaram durante a carga. As de marcas e modelos releem o nome do banco
+     * e podem ser repetidas; as de carros somam pesos, que a contagem da carga pode já incluir, então
+     * no lugar delas a quantidade de carros por modelo é relida.
+     */
+    private void reaplicar(List<CatalogoAlteradoEvent> eventos) {
+        if (eventos.stream().anyMatch(evento -> evento.getEntidade() != Entidade.CARRO && evento.getId() == null)) {
+            carregar();
+            return;
+        }
+        eventos.stream().filter(evento -> evento.getEntidade() != Entidade.CARRO).forEach(this::aplicar);
+        if (eventos.stream().anyMatch(evento -> evento.getEntidade() == Entidade.CARRO)) {
+            recontar();
+        }
+    }
+
+    private void aplicar(CatalogoAlteradoEvent evento) {
+        // Antes da primeira carga: o commit é anterior a ela, que lerá a alteração
+        if (!ativo()) {
+            return;
+        }
+        Long id = evento.getId();
+        if (evento.getEntidade() == Entidade.CARRO) {
+            // O evento já traz o modelo antes e depois: só o peso deles muda, sem consultar o banco
+            if (id == null) {
+                // Os avisos de carros que chegam durante a recontagem ficam para depois dela
+                eventosDuranteCarga.iniciar();
+                try {
+                    recontar();
+                } finally {
+                    eventosDuranteCarga.concluir(this::reaplicar);
+                }
+            } else {
+                Long anterior = evento.getCarroAnterior() != null ? evento.getCarroAnterior().modeloId() : null;
+                Long atual = evento.getCarroAtual() != null ? evento.getCarroAtual().modeloId() : null;
+                if (!Objects.equals(anterior, atual)) {
+                    comTravaDeEscrita(() -> {
+                        somarCarros(anterior, -1, true);
+                        somarCarros(atual, 1, true);
+                    });
+                }
+            }
+        } else if (id == null) {
+            carregar();
+        } else if (evento.getEntidade() == Entidade.MODELO) {
+            Optional<Modelo> modelo = evento.getOperacao() == Operacao.REMOVIDO ? Optional.empty()
+                    : transactionTemplate.execute(status -> modeloRepository.findComMarcaById(id));
+            comTravaDeEscrita(() -> {
+                Entrada antiga = entradas.get(chave(Entidade.MODELO, id));
+                long carros = antiga != null ? antiga.carros : 0;
+                if (antiga != null) {
+                    remover(antiga);
+                    alterarPeso(entradas.get(chave(Entidade.MARCA, antiga.marcaId)), -carros);
+                }
+                modelo.ifPresent(m -> {
+                    inserir(entrada(m, carros));
+                    alterarPeso(entradas.get(chave(Entidade.MARCA, m.getMarca().getId())), carros);
+                });
+            });
+        } else if (evento.getOperacao() == Operacao.REMOVIDO) {
+            // Os modelos da marca saem junto com ela
+            comTravaDeEscrita(() -> {
+                Optional.ofNullable(entradas.get(chave(Entidade.MARCA, id))).ifPresent(this::remover);
+                for (Entrada modelo : modelosDaMarca(id)) {
+                    remover(modelo);
+                }
+            });
+        } else {
+            // Marca nova ou renomeada: os modelos dela passam a exibir o nome atual
+            transactionTemplate.execute(status -> marcaRepository.findById(id)).ifPresent(marca -> comTravaDeEscrita(() -> {
+                Entrada antiga = entradas.get(chave(Entidade.MARCA, id));
+                if (antiga != null) {
+                    remover(antiga);
+                }
+                inserir(entrada(marca, antiga != null ? antiga.carros : 0));
+                for (Entrada modelo : modelosDaMarca(id)) {
+                    modelo.nomeMarca = marca.getNomeMarca();
+                }
+            }));
+        }
+    }
+
+    // ---------------------------------------------------------------- escrita (com a trava de escrita)
+
+    private void comTravaDeEscrita(Runnable alteracao) {
+        lock.writeLock().lock();
+        try {
+            alteracao.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lote de carros: reler a quantidade por modelo e ajustar só os pesos que mudaram
+     */
+    private void recontar() {
+        Map<Long, Long> quantidades = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> carroRepository.contarPorModelo()
+                .forEach(contagem -> quantidades.put((Long) contagem[0], (Long) contagem[1])));
+        comTravaDeEscrita(() -> {
+            for (Entrada modelo : List.copyOf(entradas.values())) {
+                if (modelo.tipo == Entidade.MODELO) {
+                    somarCarros(modelo.id, quantidades.getOrDefault(modelo.id, 0L) - modelo.carros, true);
+                }
+            }
+        });
+    }
+
+    private void registrar(Entrada entrada) {
+        entradas.put(chave(entrada.tipo, entrada.id), entrada);
+    }
+
+    private void inserir(Entrada entrada) {
+        registrar(entrada);
+        for (String chave : entrada.chaves) {
+            List<No> caminho = caminho(chave, true);
+            caminho.get(caminho.size() - 1).adicionarTerminal(entrada);
+            recalcular(caminho);
+        }
+    }
+
+    private void remover(Entrada entrada) {
+        entradas.remove(chave(entrada.tipo, entrada.id));
+        for (String chave : entrada.chaves) {
+            List<No> caminho = caminho(chave, false);
+            if (caminho == null) {
+                continue;
+            }
+            caminho.get(caminho.size() - 1).removerTerminal(entrada);
+            // Podar nós que ficaram vazios e juntar os que ficaram com um único filho, de baixo para cima
+            for (int i = caminho.size() - 1; i > 0; i--) {
+                No no = caminho.get(i);
+                No pai = caminho.get(i - 1);
+                if (no.terminais.length == 0 && no.filhos.length == 0) {
+                    pai.removerFilho(no);
+                } else if (no.terminais.length == 0 && no.filhos.length == 1) {
+                    no.absorverFilho();
+                } else {
+                    no.recalcular();
+                }
+            }
+            raiz.recalcular();
+        }
+    }
+
+    /**
+     * Somar carros ao modelo e à marca dele, recalculando as sugestões quando o índice já está montado
+     */
+    private void somarCarros(Long modeloId, long quantidade, boolean recalcular) {
+        Entrada modelo = modeloId != null ? entradas.get(chave(Entidade.MODELO, modeloId)) : null;
+        if (modelo == null || quantidade == 0) {
+            return;
+        }
+        Entrada marca = entradas.get(chave(Entidade.MARCA, modelo.marcaId));
+        if (recalcular) {
+            alterarPeso(modelo, quantidade);
+            alterarPeso(marca, quantidade);
+        } else {
+            modelo.carros += quantidade;
+            if (marca != null) {
+                marca.carros += quantidade;
+            }
+        }
+    }
+
+    private void alterarPeso(Entrada entrada, long quantidade) {
+        if (entrada == null || quantidade == 0) {
+            return;
+        }
+        entrada.carros += quantidade;
+        for (String chave : entrada.chaves) {
+            List<No> caminho = caminho(chave, false);
+            if (caminho != null) {
+                recalcular(caminho);
+            }
+        }
+    }
+
+    private List<Entrada> modelosDaMarca(Long marcaId) {
+        List<Entrada> modelos = new ArrayList<>();
+        for (Entrada entrada : entradas.values()) {
+            if (entrada.tipo == Entidade.MODELO && marcaId.equals(entrada.marcaId)) {
+                modelos.add(entrada);
+            }
+        }
+        return modelos;
+    }
+
+    // ---------------------------------------------------------------- árvore
+
+    /**
+     * Nós da raiz até o nó em que a chave termina. Com criar, arestas são divididas e nós criados
+     * conforme preciso; sem, devolve nulo se a chave não estiver na árvore.
+     */
+    private List<No> caminho(String chave, boolean criar) {
+        List<No> caminho = new ArrayList<>();
+        No no = raiz;
+        caminho.add(no);
+        int posicao = 0;
+        while (posicao < chave.length()) {
+            int indice = no.indiceFilho(chave.charAt(posicao));
+            if (indice < 0) {
+                if (!criar) {
+                    return null;
+                }
+                No folha = new No(chave.substring(posicao));
+                no.adicionarFilho(folha, -(indice + 1));
+                caminho.add(folha);
+                return caminho;
+            }
+            No filho = no.filhos[indice];
+            int comum = prefixoComum(filho.rotulo, chave, posicao);
+            if (comum < filho.rotulo.length()) {
+                if (!criar) {
+                    return null;
+                }
+                // A chave diverge (ou termina) no meio da aresta: dividi-la
+                No meio = new No(filho.rotulo.substring(0, comum));
+                filho.rotulo = filho.rotulo.substring(comum);
+                meio.filhos = new No[]{filho};
+                meio.melhores = filho.melhores;
+                no.filhos[indice] = meio;
+                filho = meio;
+            }
+            no = filho;
+            posicao += comum;
+            caminho.add(no);
+        }
+        return caminho;
+    }
+
+    /**
+     * Nó cuja subárvore contém todas as chaves que começam com o prefixo
+     */
+    private No noDoPrefixo(String prefixo) {
+        No no = raiz;
+        int posicao = 0;
+        while (posicao < prefixo.length()) {
+            int indice = no.indiceFilho(prefixo.charAt(posicao));
+            if (indice < 0) {
+                return null;
+            }
+            No filho = no.filhos[indice];
+            int comum = prefixoComum(filho.rotulo, prefixo, posicao);
+            if (posicao + comum == prefixo.length()) {
+                return filho;
+            }
+            if (comum < filho.rotulo.length()) {
+                return null;
+            }
+            no = filho;
+            posicao += comum;
+        }
+        return no;
+    }
+
+    private static void recalcular(List<No> caminho) {
+        for (int i = caminho.size() - 1; i >= 0; i--) {
+            caminho.get(i).recalcular();
+        }
+    }
+
+    private static void recalcularSubarvore(No no) {
+        for (No filho : no.filhos) {
+            recalcularSubarvore(filho);
+        }
+        no.recalcular();
+    }
+
+    private static int prefixoComum(String rotulo, String chave, int inicio) {
+        int limite = Math.min(rotulo.length(), chave.length() - inicio);
+        int i = 0;
+        while (i < limite && rotulo.charAt(i) == chave.charAt(inicio + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // ---------------------------------------------------------------- entradas
+
+    private static Entrada entrada(Marca marca, long carros) {
+        return new Entrada(Entidade.MARCA, marca.getId(), marca.getNomeMarca(), marca.getId(), marca.getNomeMarca(), carros);
+    }
+
+    private static Entrada entrada(Modelo modelo, long carros) {
+        return new Entrada(Entidade.MODELO, modelo.getId(), modelo.getNome(),
+                modelo.getMarca().getId(), modelo.getMarca().getNomeMarca(), carros);
+    }
+
+    private static String chave(Entidade tipo, Long id) {
+        return tipo.name() + "|" + id;
+    }
+
+    /**
+     * Chaves de um nome: o nome normalizado inteiro e o trecho a partir de cada palavra seguinte
+     */
+    static String[] chaves(String nome) {
+        String normalizado = IndiceTrigramasNomes.normalizar(nome);
+        Set<String> chaves = new LinkedHashSet<>();
+        chaves.add(normalizado);
+        for (int i = 1; i < normalizado.length(); i++) {
+            if (normalizado.charAt(i - 1) == ' ') {
+                chaves.add(normalizado.substring(i));
+            }
+        }
+        return chaves.toArray(String[]::new);
+    }
+
+    private static final class Entrada {
+        private final Entidade tipo;
+        private final Long id;
+        private final String nome;
+        private final Long marcaId;
+        private final String[] chaves;
+        private String nomeMarca;
+        private long carros;
+
+        Entrada(Entidade tipo, Long id, String nome, Long marcaId, String nomeMarca, long carros) {
+            this.tipo = tipo;
+            this.id = id;
+            this.nome = nome;
+            this.marcaId = marcaId;
+            this.nomeMarca = nomeMarca;
+            this.carros = carros;
+            this.chaves = chaves(nome);
+        }
+    }
+
+    private static final class No {
+        private String rotulo;                          // trecho da chave na aresta que chega ao nó
+        private No[] filhos = SEM_FILHOS;               // ordenados pelo primeiro caractere do rótulo
+        private Entrada[] terminais = SEM_ENTRADAS;     // entradas cuja chave termina neste nó
+        private Entrada[] melhores = SEM_ENTRADAS;      // melhores sugestões da subárvore, já ordenadas
+
+        No(String rotulo) {
+            this.rotulo = rotulo;
+        }
+
+        int indiceFilho(char caractere) {
+            int inicio = 0;
+            int fim = filhos.length - 1;
+            while (inicio <= fim) {
+                int meio = (inicio + fim) >>> 1;
+                char atual = filhos[meio].rotulo.charAt(0);
+                if (atual < caractere) {
+                    inicio = meio + 1;
+                } else if (atual > caractere) {
+                    fim = meio - 1;
+                } else {
+                    return meio;
+                }
+            }
+            return -(inicio + 1);
+        }
+
+        void adicionarFilho(No filho, int posicao) {
+            No[] novos = new No[filhos.length + 1];
+            System.arraycopy(filhos, 0, novos, 0, posicao);
+            novos[posicao] = filho;
+            System.arraycopy(filhos, posicao, novos, posicao + 1, filhos.length - posicao);
+            filhos = novos;
+        }
+
+        void removerFilho(No filho) {
+            int posicao = indiceFilho(filho.rotulo.charAt(0));
+            No[] novos = new No[filhos.length - 1];
+            System.arraycopy(filhos, 0, novos, 0, posicao);
+            System.arraycopy(filhos, posicao + 1, novos, posicao, novos.length - posicao);
+            filhos = novos.length == 0 ? SEM_FILHOS : novos;
+        }
+
+        /**
+         * Juntar o único filho a este nó, encurtando o caminho
+         */
+        void absorverFilho() {
+            No filho = filhos[0];
+            rotulo = rotulo + filho.rotulo;
+            filhos = filho.filhos;
+            terminais = filho.terminais;
+            melhores = filho.melhores;
+        }
+
+        void adicionarTerminal(Entrada entrada) {
+            terminais = Arrays.copyOf(terminais, terminais.length + 1);
+            terminais[terminais.length - 1] = entrada;
+        }
+
+        void removerTerminal(Entrada entrada) {
+            List<Entrada> restantes = new ArrayList<>(Arrays.asList(terminais));
+            restantes.remove(entrada);
+            terminais = restantes.isEmpty() ? SEM_ENTRADAS : restantes.toArray(Entrada[]::new);
+        }
+
+        /**
+         * Melhores sugestões = as melhores entre as entradas do nó e as listas já prontas dos filhos
+         */
+        void recalcular() {
+            Entrada[] novas = new Entrada[SUGESTOES_POR_NO];
+            int quantidade = 0;
+            for (Entrada entrada : terminais) {
+                quantidade = considerar(novas, quantidade, entrada);
+            }
+            for (No filho : filhos) {
+                for (Entrada entrada : filho.melhores) {
+                    quantidade = considerar(novas, quantidade, entrada);
+                }
+            }
+            melhores = quantidade == 0 ? SEM_ENTRADAS : Arrays.copyOf(novas, quantidade);
+        }
+
+        private static int considerar(Entrada[] melhores, int quantidade, Entrada entrada) {
+            for (int i = 0; i < quantidade; i++) {
+                if (melhores[i] == entrada) {
+                    return quantidade;
+                }
+            }
+            int posicao = Math.min(quantidade, melhores.length - 1);
+            if (quantidade == melhores.length && ORDEM.compare(entrada, melhores[posicao]) >= 0) {
+                return quantidade;
+            }
+            while (posicao > 0 && ORDEM.compare(entrada, melhores[posicao - 1]) < 0) {
+                melhores[posicao] = melhores[posicao - 1];
+                posicao--;
+            }
+            melhores[posicao] = entrada;
+            return Math.min(quantidade + 1, melhores.length);
+        }
+    }
+}
@@ -0,0 +1,762 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroIndiceDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.CarroRepository;
+import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Índice em memória de todos os carros, em formato colunar (um array primitivo por atributo).
+ * Cor, combustível, modelo e marca são codificados por dicionário. As linhas ficam ordenadas por id,
+ * então uma varredura já devolve o resultado na ordem padrão das listagens.
+ *
+ * Opcional: ativado com catalogo.indice-colunar.habilitado=true. É carregado quando a aplicação sobe
+ * e mantido pelas alterações publicadas pelos services após cada commit. As alterações avulsas releem
+ * só as linhas afetadas; uma alteração em lote desativa o índice (as consultas voltam ao banco) e agenda
+ * uma recarga em outra thread, que monta colunas novas e só as troca pelas atuais no fim.
+ */
+@Slf4j
+@Component
+public class IndiceColunarCarros {
+
+    private static final int INT_NULO = Integer.MIN_VALUE;
+    private static final long LONG_NULO = Long.MIN_VALUE;
+    private static final int CODIGO_NULO = -1;
+    private static final int CAPACIDADE_INICIAL = 1024;
+    // Ids por consulta ao reler os carros alterados (limita o tamanho da cláusula IN)
+    private static final int IDS_POR_CONSULTA = 1000;
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private final CarroRepository carroRepository;
+    private final ModeloRepository modeloRepository;
+    private final MarcaRepository marcaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Uma carga por vez; a recarga agendada por um lote roda fora da thread que fez o commit
+    private final ReentrantLock travaCarga = new ReentrantLock();
+    private final AtomicBoolean recargaAgendada = new AtomicBoolean();
+    private final EventosDuranteCarga eventosDuranteCarga = new EventosDuranteCarga();
+    private volatile boolean carregado;
+
+    // Colunas publicadas; trocadas inteiras ao fim de cada carga
+    private Colunas colunas = new Colunas();
+
+    public IndiceColunarCarros(CarroRepository carroRepository,
+                               ModeloRepository modeloRepository,
+                               MarcaRepository marcaRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${catalogo.indice-colunar.habilitado:false}") boolean habilitado) {
+        this.carroRepository = carroRepository;
+        this.modeloRepository = modeloRepository;
+        this.marcaRepository = marcaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.habilitado = habilitado;
+    }
+
+    /**
+     * Indica se as consultas podem ser respondidas pelo índice
+     */
+    public boolean ativo() {
+        return habilitado && carregado;
+    }
+
+    /**
+     * Quantidade de carros indexados
+     */
+    public int quantidade() {
+        lock.readLock().lock();
+        try {
+            return colunas.quantidade();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        if (habilitado) {
+            carregar();
+        }
+    }
+
+    /**
+     * (Re)carregar o índice inteiro a partir do banco. A leitura monta colunas novas sem travar as consultas,
+     * que seguem nas colunas atuais até a troca.
+     */
+    public void carregar() {
+        travaCarga.lock();
+        try {
+            eventosDuranteCarga.iniciar();
+            Colunas novas = new Colunas();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<CarroIndiceDTO> linhas = carroRepository.streamAllIndice()) {
+                        linhas.forEach(novas::gravar);
+                    }
+                });
+            } catch (RuntimeException e) {
+                eventosDuranteCarga.cancelar();
+                throw e;
+            }
+            AtomicBoolean loteDuranteCarga = new AtomicBoolean();
+            eventosDuranteCarga.concluir(eventos -> {
+                if (!aplicar(eventos, novas)) {
+                    loteDuranteCarga.set(true);
+                }
+            }, () -> publicar(novas, !loteDuranteCarga.get()));
+            if (loteDuranteCarga.get()) {
+                // A leitura pode não ter visto o lote inteiro
+                agendarRecarga();
+            }
+        } finally {
+            travaCarga.unlock();
+        }
+    }
+
+    /**
+     * Carregar a partir de linhas já disponíveis (sem acesso ao banco)
+     */
+    public void carregar(Iterable<CarroIndiceDTO> linhas) {
+        Colunas novas = new Colunas();
+        linhas.forEach(novas::gravar);
+        publicar(novas, true);
+    }
+
+    private void publicar(Colunas novas, boolean completas) {
+        lock.writeLock().lock();
+        try {
+            colunas = novas;
+            carregado = completas;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Desativar o índice e recarregá-lo em outra thread; com uma recarga já agendada, ela basta
+     */
+    private void agendarRecarga() {
+        carregado = false;
+        if (recargaAgendada.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("indice-colunar-recarga").start(() -> {
+                travaCarga.lock();
+                try {
+                    // Liberada sob a trava da carga: um lote que chegue a partir daqui agenda a próxima
+                    recargaAgendada.set(false);
+                    carregar();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao recarregar o índice colunar; as consultas seguem no banco", e);
+                } finally {
+                    travaCarga.unlock();
+                }
+            });
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        if (!habilitado || eventosDuranteCarga.adiar(evento)) {
+            return;
+        }
+        // Desativado (antes da primeira carga ou com uma recarga agendada): o commit já entra na leitura dela
+        if (carregado && !aplicar(List.of(evento), null)) {
+            agendarRecarga();
+        }
+    }
+
+    /**
+     * Aplicar alterações às colunas indicadas (null: as publicadas). As linhas e nomes afetados são relidos
+     * do banco antes de tomar a trava, então repetir uma alteração que a carga já tinha lido não muda nada.
+     * Devolve false, sem aplicar nada, se alguma for em lote e só uma recarga dá conta.
+     */
+    private boolean aplicar(List<CatalogoAlteradoEvent> eventos, Colunas alvo) {
+        Set<Long> carros = new LinkedHashSet<>();
+        Set<Long> marcasAlteradas = new LinkedHashSet<>();
+        Set<Long> modelosAlterados = new LinkedHashSet<>();
+        Set<Long> marcasRemovidas = new LinkedHashSet<>();
+        Set<Long> modelosRemovidos = new LinkedHashSet<>();
+        for (CatalogoAlteradoEvent evento : eventos) {
+            if (evento.getOperacao() == Operacao.LOTE || evento.getId() == null) {
+                return false;
+            }
+            if (evento.getEntidade() == Entidade.CARRO) {
+                carros.add(evento.getId());
+            } else if (evento.getOperacao() == Operacao.REMOVIDO) {
+                (evento.getEntidade() == Entidade.MARCA ? marcasRemovidas : modelosRemovidos).add(evento.getId());
+            } else if (evento.getOperacao() == Operacao.ATUALIZADO) {
+                (evento.getEntidade() == Entidade.MARCA ? marcasAlteradas : modelosAlterados).add(evento.getId());
+            }
+        }
+
+        List<CarroIndiceDTO> linhas = new ArrayList<>();
+        List<Marca> marcas = new ArrayList<>();
+        List<Modelo> modelos = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = new ArrayList<>(carros);
+            for (int inicio = 0; inicio < ids.size(); inicio += IDS_POR_CONSULTA) {
+                linhas.addAll(carroRepository.findAllIndiceByIdIn(
+                        ids.subList(inicio, Math.min(inicio + IDS_POR_CONSULTA, ids.size()))));
+            }
+            marcasAlteradas.forEach(id -> marcaRepository.findById(id).ifPresent(marcas::add));
+            modelosAlterados.forEach(id -> modeloRepository.findComMarcaById(id).ifPresent(modelos::add));
+        });
+
+        lock.writeLock().lock();
+        try {
+            Colunas destino = alvo != null ? alvo : colunas;
+            // Carro que não voltou da releitura foi removido
+            for (CarroIndiceDTO linha : linhas) {
+                destino.gravarSeMaisRecente(linha);
+                carros.remove(linha.getId());
+            }
+            carros.forEach(destino::remover);
+            marcas.forEach(marca -> destino.renomearMarca(marca.getId(), marca.getNomeMarca()));
+            modelos.forEach(modelo -> destino.atualizarModelo(modelo.getId(), modelo.getNome(),
+                    modelo.getMarca().getId(), modelo.getMarca().getNomeMarca()));
+            // Remover marca/modelo leva junto os carros associados
+            modelosRemovidos.forEach(destino::removerDoModelo);
+            marcasRemovidas.forEach(destino::removerDaMarca);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Inserir ou substituir um carro no índice
+     */
+    public void atualizar(CarroIndiceDTO linha) {
+        lock.writeLock().lock();
+        try {
+            colunas.gravar(linha);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remover um carro do índice
+     */
+    public void remover(Long id) {
+        lock.writeLock().lock();
+        try {
+            colunas.remover(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Buscar todos os carros que atendem ao filtro, ordenados por id, valor ou ano
+     */
+    public List<CarroRespostaDTO> buscar(FiltroCarroDTO filtro, String ordenarPor, boolean decrescente) {
+        lock.readLock().lock();
+        try {
+            int[] posicoes = colunas.ordenar(colunas.filtrar(filtro), ordenarPor, decrescente);
+            List<CarroRespostaDTO> resultado = new ArrayList<>(posicoes.length);
+            for (int posicao : posicoes) {
+                resultado.add(colunas.linha(posicao));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Buscar uma página dos carros que atendem ao filtro
+     */
+    public Page<CarroRespostaDTO> buscarPagina(FiltroCarroDTO filtro, Pageable pageable) {
+        Sort.Order ordem = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        lock.readLock().lock();
+        try {
+            int[] posicoes = colunas.ordenar(colunas.filtrar(filtro), ordem.getProperty(), ordem.isDescending());
+            int inicio = (int) Math.min(pageable.getOffset(), posicoes.length);
+            int fim = Math.min(inicio + pageable.getPageSize(), posicoes.length);
+            List<CarroRespostaDTO> itens = new ArrayList<>(fim - inicio);
+            for (int i = inicio; i < fim; i++) {
+                itens.add(colunas.linha(posicoes[i]));
+            }
+            return new PageImpl<>(itens, pageable, posicoes.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Chave para comparar textos como o collation do banco (utf8mb4_0900_ai_ci): sem diferenciar
+     * maiúsculas nem acentos, e sem os espaços das pontas
+     */
+    private static String chaveComparacao(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static long paraCentavos(double valor) {
+        return Math.round(valor * 100);
+    }
+
+    private static long paraMicros(LocalDateTime data) {
+        if (data == null) {
+            return LONG_NULO;
+        }
+        return data.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + data.getNano() / 1_000;
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        if (micros == LONG_NULO) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Colunas e dicionários de uma carga. Sem sincronização própria: as publicadas só são acessadas sob
+     * a trava do índice, e as de uma carga em andamento só pela thread dela.
+     */
+    private static final class Colunas {
+
+        // Posições [0, tamanho) válidas, ordenadas por id; linhas removidas ficam marcadas até a compactação
+        private int tamanho;
+        private int quantidadeRemovidos;
+        private long[] ids;
+        private boolean[] removidos;
+        private int[] anos;
+        private long[] valoresCentavos;
+        private byte[] numPortas;
+        private int[] cores;
+        private int[] combustiveis;
+        private int[] modelos;
+        private int[] marcas;
+        private long[] timestamps;
+        private long[] criacoes;
+        private long[] atualizacoes;
+
+        // Dicionários
+        private final Dicionario<String> dicionarioCores = new Dicionario<>();
+        private final Dicionario<String> dicionarioCombustiveis = new Dicionario<>();
+        private final Dicionario<Long> dicionarioModelos = new Dicionario<>();
+        private final Dicionario<Long> dicionarioMarcas = new Dicionario<>();
+        private final List<String> nomesModelos = new ArrayList<>();
+        private final List<Integer> marcaDoModelo = new ArrayList<>();
+        private final List<String> nomesMarcas = new ArrayList<>();
+
+        Colunas() {
+            alocar(CAPACIDADE_INICIAL);
+        }
+
+        int quantidade() {
+            return tamanho - quantidadeRemovidos;
+        }
+
+        // ------------------------------------------------------------ filtro e ordenação
+
+        int[] filtrar(FiltroCarroDTO filtro) {
+            int anoMin = filtro.getAnoMin() != null ? filtro.getAnoMin() : Integer.MIN_VALUE + 1;
+            int anoMax = filtro.getAnoMax() != null ? filtro.getAnoMax() : Integer.MAX_VALUE;
+            boolean filtraAno = filtro.getAnoMin() != null || filtro.getAnoMax() != null;
+            long valorMin = filtro.getPrecoMin() != null ? paraCentavos(filtro.getPrecoMin()) : Long.MIN_VALUE + 1;
+            long valorMax = filtro.getPrecoMax() != null ? paraCentavos(filtro.getPrecoMax()) : Long.MAX_VALUE;
+            boolean filtraValor = filtro.getPrecoMin() != null || filtro.getPrecoMax() != null;
+            int portas = filtro.getNumPortas() != null ? filtro.getNumPortas() : INT_NULO;
+
+            boolean[] coresAceitas = aceitos(dicionarioCores, filtro.getCor());
+            boolean[] combustiveisAceitos = aceitos(dicionarioCombustiveis, filtro.getCombustivel());
+            boolean[] modelosAceitos = modelosAceitos(filtro);
+            boolean[] marcasAceitas = marcasAceitas(filtro);
+
+            int[] resultado = new int[Math.min(tamanho, 1024)];
+            int quantidade = 0;
+            for (int i = 0; i < tamanho; i++) {
+                if (removidos[i]
+                        || (filtraAno && (anos[i] == INT_NULO || anos[i] < anoMin || anos[i] > anoMax))
+                        || (filtraValor && (valoresCentavos[i] == LONG_NULO
+                                || valoresCentavos[i] < valorMin || valoresCentavos[i] > valorMax))
+                        || (portas != INT_NULO && numPortas[i] != portas)
+                        || (coresAceitas != null && (cores[i] == CODIGO_NULO || !coresAceitas[cores[i]]))
+                        || (combustiveisAceitos != null
+                                && (combustiveis[i] == CODIGO_NULO || !combustiveisAceitos[combustiveis[i]]))
+                        || (modelosAceitos != null && !modelosAceitos[modelos[i]])
+                        || (marcasAceitas != null && !marcasAceitas[marcas[i]])) {
+                    continue;
+                }
+                if (quantidade == resultado.length) {
+                    resultado = Arrays.copyOf(resultado, Math.max(16, quantidade * 2));
+                }
+                resultado[quantidade++] = i;
+            }
+            return Arrays.copyOf(resultado, quantidade);
+        }
+
+        /**
+         * Códigos do dicionário iguais ao valor do filtro pela chave de comparação (null: sem filtro)
+         */
+        private static boolean[] aceitos(Dicionario<String> dicionario, String valor) {
+            if (valor == null) {
+                return null;
+            }
+            String chave = chaveComparacao(valor);
+            boolean[] aceitos = new boolean[dicionario.tamanho()];
+            for (int codigo = 0; codigo < aceitos.length; codigo++) {
+                aceitos[codigo] = chave.equals(chaveComparacao(dicionario.valor(codigo)));
+            }
+            return aceitos;
+        }
+
+        private boolean[] modelosAceitos(FiltroCarroDTO filtro) {
+            if (filtro.getModeloId() == null && (filtro.getModelo() == null || filtro.getModelo().isBlank())) {
+                return null;
+            }
+            boolean[] aceitos = new boolean[nomesModelos.size()];
+            String nome = filtro.getModelo() != null ? chaveComparacao(filtro.getModelo()) : null;
+            for (int codigo = 0; codigo < aceitos.length; codigo++) {
+                aceitos[codigo] = (filtro.getModeloId() == null
+                        || filtro.getModeloId().equals(dicionarioModelos.valor(codigo)))
+                        && (nome == null || nome.isEmpty() || nome.equals(chaveComparacao(nomesModelos.get(codigo))));
+            }
+            return aceitos;
+        }
+
+        private boolean[] marcasAceitas(FiltroCarroDTO filtro) {
+            if (filtro.getMarcaId() == null && (filtro.getMarca() == null || filtro.getMarca().isBlank())) {
+                return null;
+            }
+            boolean[] aceitas = new boolean[nomesMarcas.size()];
+            String nome = filtro.getMarca() != null ? chaveComparacao(filtro.getMarca()) : null;
+            for (int codigo = 0; codigo < aceitas.length; codigo++) {
+                aceitas[codigo] = (filtro.getMarcaId() == null
+                        || filtro.getMarcaId().equals(dicionarioMarcas.valor(codigo)))
+                        && (nome == null || nome.isEmpty() || nome.equals(chaveComparacao(nomesMarcas.get(codigo))));
+            }
+            return aceitas;
+        }
+
+        int[] ordenar(int[] posicoes, String ordenarPor, boolean decrescente) {
+            String ordem = ordenarPor == null ? "id" : ordenarPor;
+            if (ordem.equals("id")) {
+                // As linhas já estão em ordem de id
+                return decrescente ? inverter(posicoes) : posicoes;
+            }
+
+            Comparator<Integer> comparador;
+            if (ordem.equals("valor")) {
+                comparador = Comparator.comparingLong(p -> valoresCentavos[p]);
+            } else if (ordem.equals("ano")) {
+                comparador = Comparator.comparingInt(p -> anos[p]);
+            } else {
+                throw new IllegalArgumentException("Ordenação não suportada: " + ordenarPor);
+            }
+            if (decrescente) {
+                comparador = comparador.reversed();
+            }
+            // Desempate pela posição, que segue a ordem de id crescente também na ordem decrescente
+            // (como no repositório)
+            Comparator<Integer> comparadorFinal = comparador.thenComparingInt(p -> p);
+            return IntStream.of(posicoes).boxed().sorted(comparadorFinal).mapToInt(Integer::intValue).toArray();
+        }
+
+        private static int[] inverter(int[] posicoes) {
+            int[] invertido = new int[posicoes.length];
+            for (int i = 0; i < posicoes.length; i++) {
+                invertido[i] = posicoes[posicoes.length - 1 - i];
+            }
+            return invertido;
+        }
+
+        // ------------------------------------------------------------ escrita das colunas
+
+        void gravar(CarroIndiceDTO linha) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, linha.getId());
+            if (posicao < 0) {
+                posicao = -(posicao + 1);
+                abrirPosicao(posicao);
+                ids[posicao] = linha.getId();
+            } else if (removidos[posicao]) {
+                quantidadeRemovidos--;
+            }
+            removidos[posicao] = false;
+            anos[posicao] = linha.getAno() != null ? linha.getAno() : INT_NULO;
+            valoresCentavos[posicao] = linha.getValor() != null ? paraCentavos(linha.getValor()) : LONG_NULO;
+            numPortas[posicao] = linha.getNumPortas() != null ? linha.getNumPortas().byteValue() : 0;
+            cores[posicao] = linha.getCor() != null ? dicionarioCores.codificar(linha.getCor()) : CODIGO_NULO;
+            combustiveis[posicao] = linha.getCombustivel() != null
+                    ? dicionarioCombustiveis.codificar(linha.getCombustivel()) : CODIGO_NULO;
+            marcas[posicao] = codificarMarca(linha.getMarcaId(), linha.getNomeMarca());
+            modelos[posicao] = codificarModelo(linha.getModeloId(), linha.getNomeModelo(), marcas[posicao]);
+            timestamps[posicao] = linha.getTimestampCadastro() != null ? linha.getTimestampCadastro() : LONG_NULO;
+            criacoes[posicao] = paraMicros(linha.getDataCriacao());
+            atualizacoes[posicao] = paraMicros(linha.getDataAtualizacao());
+        }
+
+        /**
+         * Gravar uma linha relida fora da trava, sem desfazer o que uma releitura posterior já gravou:
+         * ignora a linha se o carro foi removido (ids não voltam) ou se a versão indexada é mais nova
+         */
+        void gravarSeMaisRecente(CarroIndiceDTO linha) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, linha.getId());
+            if (posicao >= 0
+                    && (removidos[posicao] || atualizacoes[posicao] > paraMicros(linha.getDataAtualizacao()))) {
+                return;
+            }
+            gravar(linha);
+        }
+
+        void remover(Long id) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                marcarRemovido(posicao);
+            }
+        }
+
+        void removerDoModelo(Long modeloId) {
+            Integer codigo = dicionarioModelos.codigo(modeloId);
+            if (codigo != null) {
+                removerOnde(modelos, codigo);
+            }
+        }
+
+        void removerDaMarca(Long marcaId) {
+            Integer codigo = dicionarioMarcas.codigo(marcaId);
+            if (codigo != null) {
+                removerOnde(marcas, codigo);
+            }
+        }
+
+        private void removerOnde(int[] coluna, int codigo) {
+            for (int i = 0; i < tamanho; i++) {
+                if (coluna[i] == codigo) {
+                    marcarRemovido(i);
+                }
+            }
+        }
+
+        private void marcarRemovido(int posicao) {
+            if (!removidos[posicao]) {
+                removidos[posicao] = true;
+                quantidadeRemovidos++;
+                if (quantidadeRemovidos > CAPACIDADE_INICIAL && quantidadeRemovidos > tamanho / 4) {
+                    compactar();
+                }
+            }
+        }
+
+        void renomearMarca(Long marcaId, String nome) {
+            Integer codigo = dicionarioMarcas.codigo(marcaId);
+            if (codigo != null) {
+                nomesMarcas.set(codigo, nome);
+            }
+        }
+
+        /**
+         * Nome e marca atuais de um modelo; a troca de marca também muda a coluna de marca dos seus carros
+         */
+        void atualizarModelo(Long modeloId, String nome, Long marcaId, String nomeMarca) {
+            Integer codigo = dicionarioModelos.codigo(modeloId);
+            if (codigo == null) {
+                return;
+            }
+            int marca = codificarMarca(marcaId, nomeMarca);
+            nomesModelos.set(codigo, nome);
+            if (marcaDoModelo.get(codigo) != marca) {
+                marcaDoModelo.set(codigo, marca);
+                for (int i = 0; i < tamanho; i++) {
+                    if (modelos[i] == codigo) {
+                        marcas[i] = marca;
+                    }
+                }
+            }
+        }
+
+        private int codificarMarca(Long marcaId, String nome) {
+            int codigo = dicionarioMarcas.codificar(marcaId);
+            if (codigo == nomesMarcas.size()) {
+                nomesMarcas.add(nome);
+            } else {
+                nomesMarcas.set(codigo, nome);
+            }
+            return codigo;
+        }
+
+        private int codificarModelo(Long modeloId, String nome, int marca) {
+            int codigo = dicionarioModelos.codificar(modeloId);
+            if (codigo == nomesModelos.size()) {
+                nomesModelos.add(nome);
+                marcaDoModelo.add(marca);
+            } else {
+                nomesModelos.set(codigo, nome);
+                marcaDoModelo.set(codigo, marca);
+            }
+            return codigo;
+        }
+
+        private void abrirPosicao(int posicao) {
+            if (tamanho == ids.length) {
+                redimensionar(ids.length * 2);
+            }
+            if (posicao < tamanho) {
+                // Ids fora de ordem (commits concorrentes) exigem deslocar as colunas
+                int quantidade = tamanho - posicao;
+                System.arraycopy(ids, posicao, ids, posicao + 1, quantidade);
+                System.arraycopy(removidos, posicao, removidos, posicao + 1, quantidade);
+                System.arraycopy(anos, posicao, anos, posicao + 1, quantidade);
+                System.arraycopy(valoresCentavos, posicao, valoresCentavos, posicao + 1, quantidade);
+                System.arraycopy(numPortas, posicao, numPortas, posicao + 1, quantidade);
+                System.arraycopy(cores, posicao, cores, posicao + 1, quantidade);
+                System.arraycopy(combustiveis, posicao, combustiveis, posicao + 1, quantidade);
+                System.arraycopy(modelos, posicao, modelos, posicao + 1, quantidade);
+                System.arraycopy(marcas, posicao, marcas, posicao + 1, quantidade);
+                System.arraycopy(timestamps, posicao, timestamps, posicao + 1, quantidade);
+                System.arraycopy(criacoes, posicao, criacoes, posicao + 1, quantidade);
+                System.arraycopy(atualizacoes, posicao, atualizacoes, posicao + 1, quantidade);
+            }
+            tamanho++;
+        }
+
+        private void compactar() {
+            int destino = 0;
+            for (int origem = 0; origem < tamanho; origem++) {
+                if (removidos[origem]) {
+                    continue;
+                }
+                if (destino != origem) {
+                    ids[destino] = ids[origem];
+                    anos[destino] = anos[origem];
+                    valoresCentavos[destino] = valoresCentavos[origem];
+                    numPortas[destino] = numPortas[origem];
+                    cores[destino] = cores[origem];
+                    combustiveis[destino] = combustiveis[origem];
+                    modelos[destino] = modelos[origem];
+                    marcas[destino] = marcas[origem];
+                    timestamps[destino] = timestamps[origem];
+                    criacoes[destino] = criacoes[origem];
+                    atualizacoes[destino] = atualizacoes[origem];
+                    removidos[destino] = false;
+                }
+                destino++;
+            }
+            Arrays.fill(removidos, destino, tamanho, false);
+            tamanho = destino;
+            quantidadeRemovidos = 0;
+        }
+
+        private void alocar(int capacidade) {
+            ids = new long[capacidade];
+            removidos = new boolean[capacidade];
+            anos = new int[capacidade];
+            valoresCentavos = new long[capacidade];
+            numPortas = new byte[capacidade];
+            cores = new int[capacidade];
+            combustiveis = new int[capacidade];
+            modelos = new int[capacidade];
+            marcas = new int[capacidade];
+            timestamps = new long[capacidade];
+            criacoes = new long[capacidade];
+            atualizacoes = new long[capacidade];
+        }
+
+        private void redimensionar(int capacidade) {
+            ids = Arrays.copyOf(ids, capacidade);
+            removidos = Arrays.copyOf(removidos, capacidade);
+            anos = Arrays.copyOf(anos, capacidade);
+            valoresCentavos = Arrays.copyOf(valoresCentavos, capacidade);
+            numPortas = Arrays.copyOf(numPortas, capacidade);
+            cores = Arrays.copyOf(cores, capacidade);
+            combustiveis = Arrays.copyOf(combustiveis, capacidade);
+            modelos = Arrays.copyOf(modelos, capacidade);
+            marcas = Arrays.copyOf(marcas, capacidade);
+            timestamps = Arrays.copyOf(timestamps, capacidade);
+            criacoes = Arrays.copyOf(criacoes, capacidade);
+            atualizacoes = Arrays.copyOf(atualizacoes, capacidade);
+        }
+
+        // ------------------------------------------------------------ leitura das colunas
+
+        CarroRespostaDTO linha(int posicao) {
+            return new CarroRespostaDTO(
+                    ids[posicao],
+                    nomesModelos.get(modelos[posicao]),
+                    nomesMarcas.get(marcas[posicao]),
+                    anos[posicao] != INT_NULO ? anos[posicao] : null,
+                    combustiveis[posicao] != CODIGO_NULO ? dicionarioCombustiveis.valor(combustiveis[posicao]) : null,
+                    numPortas[posicao] != 0 ? (int) numPortas[posicao] : null,
+                    cores[posicao] != CODIGO_NULO ? dicionarioCores.valor(cores[posicao]) : null,
+                    valoresCentavos[posicao] != LONG_NULO ? BigDecimal.valueOf(valoresCentavos[posicao] / 100.0) : null,
+                    timestamps[posicao] != LONG_NULO ? timestamps[posicao] : null,
+                    deMicros(criacoes[posicao]),
+                    deMicros(atualizacoes[posicao]));
+        }
+    }
+
+    /**
+     * Dicionário valor -> código sequencial
+     */
+    private static class Dicionario<T> {
+        private final Map<T, Integer> codigos = new HashMap<>();
+        private final List<T> valores = new ArrayList<>();
+
+        int codificar(T valor) {
+            return codigos.computeIfAbsent(valor, v -> {
+                valores.add(v);
+                return valores.size() - 1;
+            });
+        }
+
+        Integer codigo(T valor) {
+            return codigos.get(valor);
+        }
+
+        T valor(int codigo) {
+            return valores.get(codigo);
+        }
+
+        int tamanho() {
+            return valores.size();
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.ResultadoNomeDTO;
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas sobre os nomes de marcas e modelos, para busca por trecho do nome
+ * e tolerante a erros de digitação sem varrer as tabelas.
+ *
+ * Os nomes são normalizados (minúsculas, sem acentos e pontuação) e cada palavra gera trigramas com
+ * dois espaços antes e um depois, como o pg_trgm. Um resultado contém o texto buscado (pontuação acima de 1,
+ * maior quando o nome começa com ele) ou tem similaridade de trigramas (Jaccard) de pelo menos 0,3.
+ * Textos com menos de 3 caracteres não formam trigrama: encontram os nomes com uma palavra começando por eles,
+ * pelas listas dos trigramas de início de palavra ("  a" e " ab").
+ *
+ * Carregado quando a aplicação sobe e atualizado a cada alteração de marca ou modelo publicada pelos
+ * services, após o commit: o nome alterado é relido e só as listas dos seus trigramas mudam.
+ */
+@Component
+public class IndiceTrigramasNomes {
+
+    private static final double SIMILARIDADE_MINIMA = 0.3;
+    private static final int REMOVIDOS_PARA_COMPACTAR = 64;
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Comparator<Encontrado> ORDEM_RELEVANCIA = Comparator.comparingDouble(Encontrado::pontuacao).reversed()
+            .thenComparing(encontrado -> encontrado.documento().nome, String.CASE_INSENSITIVE_ORDER);
+
+    private final MarcaRepository marcaRepository;
+    private final ModeloRepository modeloRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final EventosDuranteCarga eventosDuranteCarga = new EventosDuranteCarga();
+    private volatile boolean carregado;
+
+    // Documentos por posição (nulo = removido, até a compactação) e listas de posições por trigrama
+    private final List<Documento> documentos = new ArrayList<>();
+    private final Map<String, Integer> posicoes = new HashMap<>();
+    private final Map<String, ListaPosicoes> listas = new HashMap<>();
+    private int removidos;
+
+    public IndiceTrigramasNomes(MarcaRepository marcaRepository,
+                                ModeloRepository modeloRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.marcaRepository = marcaRepository;
+        this.modeloRepository = modeloRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Indica se o índice já foi carregado
+     */
+    public boolean ativo() {
+        return carregado;
+    }
+
+    /**
+     * Indica se o texto é longo o bastante para a busca por trecho do nome (um trigrama inteiro);
+     * textos menores só encontram nomes com uma palavra começando por eles
+     */
+    public static boolean buscaPorTrecho(String texto) {
+        return normalizar(texto).length() >= 3;
+    }
+
+    /**
+     * (Re)carregar o índice inteiro a partir do banco
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        eventosDuranteCarga.iniciar();
+        try {
+            lock.writeLock().lock();
+            try {
+                limpar();
+                transactionTemplate.executeWithoutResult(status -> {
+                    marcaRepository.findAll().forEach(marca -> gravar(documento(marca)));
+                    modeloRepository.findAllComMarca().forEach(modelo -> gravar(documento(modelo)));
+                });
+                carregado = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            eventosDuranteCarga.concluir(this::reaplicar);
+        }
+    }
+
+    /**
+     * Buscar marcas e modelos pelo nome, dos mais relevantes para os menos
+     */
+    public List<ResultadoNomeDTO> buscar(String texto, int limite) {
+        return buscar(texto, null, true, limite);
+    }
+
+    /**
+     * Ids dos modelos cujo nome contém o texto (sem diferenciar maiúsculas e acentos), dos mais relevantes
+     * para os menos; com menos de 3 caracteres, os que têm uma palavra começando pelo texto
+     */
+    public List<Long> idsModelosContendo(String texto) {
+        List<Long> ids = new ArrayList<>();
+        for (ResultadoNomeDTO resultado : buscar(texto, Entidade.MODELO, false, Integer.MAX_VALUE)) {
+            ids.add(resultado.getId());
+        }
+        return ids;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        // A aplicação relê o nome do banco: roda fora da trava dos eventos
+        if (evento.getEntidade() != Entidade.CARRO && !eventosDuranteCarga.adiar(evento)) {
+            aplicar(evento);
+        }
+    }
+
+    /**
+     * Reaplicar as alterações que chegaram durante a carga; cada uma relê o nome do banco,
+     * então repetir uma que a carga já tinha lido não muda nada
+     */
+    private void reaplicar(List<CatalogoAlteradoEvent> eventos) {
+        if (eventos.stream().anyMatch(evento -> evento.getId() == null)) {
+            carregar();
+        } else {
+            eventos.forEach(this::aplicar);
+        }
+    }
+
+    private void aplicar(CatalogoAlteradoEvent evento) {
+        // Antes da primeira carga: o commit é anterior a ela, que lerá a alteração
+        if (!ativo()) {
+            return;
+        }
+        Long id = evento.getId();
+        if (id == null) {
+            carregar();
+        } else if (evento.getEntidade() == Entidade.MODELO) {
+            Optional<Modelo> modelo = evento.getOperacao() == Operacao.REMOVIDO ? Optional.empty()
+                    : transactionTemplate.execute(status -> modeloRepository.findComMarcaById(id));
+            comTravaDeEscrita(() -> {
+                remover(chave(Entidade.MODELO, id));
+                modelo.ifPresent(m -> gravar(documento(m)));
+            });
+        } else if (evento.getOperacao() == Operacao.REMOVIDO) {
+            // Os modelos da marca saem junto com ela
+            comTravaDeEscrita(() -> {
+                remover(chave(Entidade.MARCA, id));
+                for (Documento documento : List.copyOf(modelosDaMarca(id))) {
+                    remover(documento.chave());
+                }
+            });
+        } else {
+            // Marca nova ou renomeada: os modelos dela passam a exibir o nome atual
+            transactionTemplate.execute(status -> marcaRepository.findById(id)).ifPresent(marca -> comTravaDeEscrita(() -> {
+                remover(chave(Entidade.MARCA, id));
+                gravar(documento(marca));
+                for (Documento documento : modelosDaMarca(id)) {
+                    documentos.set(posicoes.get(documento.chave()), documento.comNomeMarca(marca.getNomeMarca()));
+                }
+            }));
+        }
+    }
+
+    // ---------------------------------------------------------------- consulta
+
+    private List<ResultadoNomeDTO> buscar(String texto, Entidade tipo, boolean aproximado, int limite) {
+        String consulta = normalizar(texto);
+        if (!ativo() || consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Encontrado> encontrados = new ArrayList<>();
+            if (consulta.length() < 3) {
+                // Sem trigrama inteiro: a lista do início de palavra traz os nomes com uma palavra começando pelo texto
+                ListaPosicoes lista = listas.get(consulta.length() == 1 ? "  " + consulta : " " + consulta);
+                for (int i = 0; lista != null && i < lista.tamanho; i++) {
+                    avaliar(documentos.get(lista.posicoes[i]), consulta, 0, tipo, aproximado, encontrados);
+                }
+            } else {
+                // Só os nomes com algum trigrama em comum são candidatos: as posições das listas dos trigramas,
+                // ordenadas, repetem-se uma vez por trigrama em comum
+                String[] trigramas = trigramas(consulta);
+                int quantidade = 0;
+                for (String trigrama : trigramas) {
+                    ListaPosicoes lista = listas.get(trigrama);
+                    quantidade += lista != null ? lista.tamanho : 0;
+                }
+                int[] ocorrencias = new int[quantidade];
+                int preenchidas = 0;
+                for (String trigrama : trigramas) {
+                    ListaPosicoes lista = listas.get(trigrama);
+                    if (lista != null) {
+                        System.arraycopy(lista.posicoes, 0, ocorrencias, preenchidas, lista.tamanho);
+                        preenchidas += lista.tamanho;
+                    }
+                }
+                Arrays.sort(ocorrencias);
+                for (int inicio = 0, fim; inicio < quantidade; inicio = fim) {
+                    fim = inicio + 1;
+                    while (fim < quantidade && ocorrencias[fim] == ocorrencias[inicio]) {
+                        fim++;
+                    }
+                    Documento documento = documentos.get(ocorrencias[inicio]);
+                    if (documento != null) {
+                        int comuns = fim - inicio;
+                        double similaridade = (double) comuns / (trigramas.length + documento.quantidadeTrigramas - comuns);
+                        avaliar(documento, consulta, similaridade, tipo, aproximado, encontrados);
+                    }
+                }
+            }
+            encontrados.sort(ORDEM_RELEVANCIA);
+
+            List<ResultadoNomeDTO> resultado = new ArrayList<>(Math.min(limite, encontrados.size()));
+            for (Encontrado encontrado : encontrados.subList(0, Math.min(limite, encontrados.size()))) {
+                Documento documento = encontrado.documento();
+                resultado.add(new ResultadoNomeDTO(documento.tipo.name(), documento.id, documento.nome, documento.marcaId,
+                        documento.nomeMarca, Math.round(encontrado.pontuacao() * 1000) / 1000.0));
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Incluir o documento se contiver o texto (pontuação acima de 1) ou, na busca aproximada, for parecido o bastante
+     */
+    private static void avaliar(Documento documento, String consulta, double similaridade, Entidade tipo,
+                                boolean aproximado, List<Encontrado> encontrados) {
+        if (documento == null || (tipo != null && documento.tipo != tipo)) {
+            return;
+        }
+        int inicio = documento.normalizado.indexOf(consulta);
+        if (inicio >= 0) {
+            double bonus = inicio == 0 ? 0.5 : documento.normalizado.charAt(inicio - 1) == ' ' ? 0.25 : 0;
+            encontrados.add(new Encontrado(documento, 1 + bonus + similaridade / 10));
+        } else if (aproximado && similaridade >= SIMILARIDADE_MINIMA) {
+            encontrados.add(new Encontrado(documento, similaridade));
+        }
+    }
+
+    // ---------------------------------------------------------------- escrita (com a trava de escrita)
+
+    private void comTravaDeEscrita(Runnable alteracao) {
+        lock.writeLock().lock();
+        try {
+            alteracao.run();
+            if (removidos > REMOVIDOS_PARA_COMPACTAR && removidos > documentos.size() / 2) {
+                compactar();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void gravar(Documento documento) {
+        int posicao = documentos.size();
+        documentos.add(documento);
+        posicoes.put(documento.chave(), posicao);
+        for (String trigrama : documento.trigramas) {
+            listas.computeIfAbsent(trigrama, t -> new ListaPosicoes()).adicionar(posicao);
+        }
+    }
+
+    /**
+     * Marcar como removido; a posição continua nas listas de trigramas até a compactação
+     */
+    private void remover(String chave) {
+        Integer posicao = posicoes.remove(chave);
+        if (posicao != null) {
+            documentos.set(posicao, null);
+            removidos++;
+        }
+    }
+
+    private List<Documento> modelosDaMarca(Long marcaId) {
+        List<Documento> modelos = new ArrayList<>();
+        for (Documento documento : documentos) {
+            if (documento != null && documento.tipo == Entidade.MODELO && marcaId.equals(documento.marcaId)) {
+                modelos.add(documento);
+            }
+        }
+        return modelos;
+    }
+
+    private void compactar() {
+        List<Documento> vivos = new ArrayList<>(documentos.size() - removidos);
+        for (Documento documento : documentos) {
+            if (documento != null) {
+                vivos.add(documento);
+            }
+        }
+        limpar();
+        vivos.forEach(this::gravar);
+    }
+
+    private void limpar() {
+        documentos.clear();
+        posicoes.clear();
+        listas.clear();
+        removidos = 0;
+    }
+
+    // ---------------------------------------------------------------- documentos e trigramas
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Trigramas distintos do texto normalizado, cada palavra com dois espaços antes e um depois
+     */
+    static String[] trigramas(String normalizado) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        for (String palavra : normalizado.split(" ")) {
+            if (palavra.isEmpty()) {
+                continue;
+            }
+            String preenchida = "  " + palavra + " ";
+            for (int i = 0; i + 3 <= preenchida.length(); i++) {
+                trigramas.add(preenchida.substring(i, i + 3));
+            }
+        }
+        return trigramas.toArray(String[]::new);
+    }
+
+    private static Documento documento(Marca marca) {
+        return new Documento(Entidade.MARCA, marca.getId(), marca.getNomeMarca(), marca.getId(), marca.getNomeMarca());
+    }
+
+    private static Documento documento(Modelo modelo) {
+        return new Documento(Entidade.MODELO, modelo.getId(), modelo.getNome(),
+                modelo.getMarca().getId(), modelo.getMarca().getNomeMarca());
+    }
+
+    private static final class Documento {
+        private final Entidade tipo;
+        private final Long id;
+        private final String nome;
+        private final Long marcaId;
+        private final String nomeMarca;
+        private final String normalizado;
+        private final String[] trigramas;
+        private final int quantidadeTrigramas;
+
+        Documento(Entidade tipo, Long id, String nome, Long marcaId, String nomeMarca) {
+            this.tipo = tipo;
+            this.id = id;
+            this.nome = nome;
+            this.marcaId = marcaId;
+            this.nomeMarca = nomeMarca;
+            this.normalizado = normalizar(nome);
+            this.trigramas = trigramas(normalizado);
+            this.quantidadeTrigramas = trigramas.length;
+        }
+
+        Documento comNomeMarca(String novoNomeMarca) {
+            return new Documento(tipo, id, nome, marcaId, novoNomeMarca);
+        }
+
+        String chave() {
+            return IndiceTrigramasNomes.chave(tipo, id);
+        }
+    }
+
+    private record Encontrado(Documento documento, double pontuacao) {}
+
+    private static String chave(Entidade tipo, Long id) {
+        return tipo.name() + "|" + id;
+    }
+
+    /**
+     * Posições dos documentos que contêm um trigrama, em ordem de inserção
+     */
+    private static final class ListaPosicoes {
+        private int[] posicoes = new int[4];
+        private int tamanho;
+
+        void adicionar(int posicao) {
+            if (tamanho == posicoes.length) {
+                posicoes = Arrays.copyOf(posicoes, tamanho * 2);
+            }
+            posicoes[tamanho++] = posicao;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Log estruturado (chave=valor) das alterações do catálogo, escrito após o commit.
+ *
+ * Controlado pelo nível do logger "catalogo.mutacoes" (desligado, nada é montado) e por uma taxa de
+ * amostragem em catalogo.log-mutacoes.amostragem (1.0 registra todas, 0.1 cerca de uma em dez).
+ */
+@Component
+public class LogMutacoesCatalogo {
+
+    private static final Logger log = LoggerFactory.getLogger("catalogo.mutacoes");
+
+    private final double amostragem;
+
+    public LogMutacoesCatalogo(@Value("${catalogo.log-mutacoes.amostragem:1.0}") double amostragem) {
+        if (amostragem < 0 || amostragem > 1) {
+            throw new IllegalArgumentException("catalogo.log-mutacoes.amostragem deve estar entre 0 e 1");
+        }
+        this.amostragem = amostragem;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoAlteradoEvent evento) {
+        if (!log.isInfoEnabled() || !amostrado()) {
+            return;
+        }
+        log.atInfo()
+                .addKeyValue("entidade", evento.getEntidade())
+                .addKeyValue("operacao", evento.getOperacao())
+                .addKeyValue("id", evento.getId())
+                .log("catalogo alterado");
+    }
+
+    private boolean amostrado() {
+        return amostragem >= 1 || ThreadLocalRandom.current().nextDouble() < amostragem;
+    }
+}
@@ -3,7 +3,11 @@ package com.wswork.carcatalog.service;
 import com.wswork.carcatalog.dto.MarcaDTO;
 import com.wswork.carcatalog.entity.Marca;
 import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +25,7 @@ import java.util.stream.Collectors;
 public class MarcaService {
     
     private final MarcaRepository marcaRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Buscar todas as marcas
@@ -66,6 +71,7 @@ public class MarcaService {
         marca.setDataAtualizacao(LocalDateTime.now());
         
         Marca marcaSalva = marcaRepository.save(marca);
+        publicar(Operacao.CRIADO, marcaSalva.getId());
         return converterParaDTO(marcaSalva);
     }
     
@@ -86,6 +92,7 @@ public class MarcaService {
         marca.setDataAtualizacao(LocalDateTime.now());
         
         Marca marcaAtualizada = marcaRepository.save(marca);
+        publicar(Operacao.ATUALIZADO, id);
         return converterParaDTO(marcaAtualizada);
     }
     
@@ -101,6 +108,7 @@ public class MarcaService {
         // TODO: Implementar verificação de dependências
         
         marcaRepository.deleteById(id);
+        publicar(Operacao.REMOVIDO, id);
     }
     
     /**
@@ -111,6 +119,13 @@ public class MarcaService {
         return marcaRepository.existsById(id);
     }
     
+    /**
+     * Publicar alteração do catálogo (os ouvintes reagem após o commit)
+     */
+    private void publicar(Operacao operacao, Long id) {
+        eventPublisher.publishEvent(new CatalogoAlteradoEvent(Entidade.MARCA, operacao, id));
+    }
+    
     /**
      * Converter Entity para DTO
      */
@@ -0,0 +1,121 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.MetricasRotaDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas por rota (método + padrão da URI): histograma de latência com percentis, contagem de
+ * requisições, respostas 304 (revalidadas pelo cliente via ETag), erros 4xx/5xx e bytes de resposta.
+ * Os medidores do Micrometer gravam sem travas; os de cada rota são criados uma vez e reaproveitados.
+ */
+@Component
+public class MetricasRotas {
+
+    public static final String METRICA_LATENCIA = "catalogo.rotas.latencia";
+    public static final String METRICA_ERROS = "catalogo.rotas.erros";
+    public static final String METRICA_NAO_MODIFICADAS = "catalogo.rotas.nao.modificadas";
+    public static final String METRICA_BYTES = "catalogo.rotas.bytes";
+
+    private static final double[] PERCENTIS = {0.5, 0.9, 0.99, 0.999};
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Medidores> porRota = new ConcurrentHashMap<>();
+
+    public MetricasRotas(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Registrar uma requisição concluída
+     */
+    public void registrar(String metodo, String rota, int status, long duracaoNanos, long bytes) {
+        Medidores medidores = porRota.computeIfAbsent(metodo + " " + rota, chave -> new Medidores(metodo, rota));
+        medidores.latencia.record(duracaoNanos, TimeUnit.NANOSECONDS);
+        medidores.bytes.record(bytes);
+        if (status == 304) {
+            medidores.naoModificadas.increment();
+        } else if (status >= 500) {
+            medidores.errosServidor.increment();
+        } else if (status >= 400) {
+            medidores.errosCliente.increment();
+        }
+    }
+
+    /**
+     * Resumo de todas as rotas, da maior para a menor latência p99
+     */
+    public List<MetricasRotaDTO> resumo() {
+        List<MetricasRotaDTO> resumo = new ArrayList<>(porRota.size());
+        porRota.forEach((chave, medidores) -> resumo.add(medidores.resumo(chave)));
+        resumo.sort(Comparator.comparing(MetricasRotaDTO::getP99Ms).reversed());
+        return resumo;
+    }
+
+    private final class Medidores {
+        private final Timer latencia;
+        private final DistributionSummary bytes;
+        private final Counter naoModificadas;
+        private final Counter errosCliente;
+        private final Counter errosServidor;
+
+        Medidores(String metodo, String rota) {
+            latencia = Timer.builder(METRICA_LATENCIA)
+                    .tag("metodo", metodo).tag("rota", rota)
+                    .publishPercentiles(PERCENTIS)
+                    .register(registry);
+            bytes = DistributionSummary.builder(METRICA_BYTES)
+                    .baseUnit("bytes")
+                    .tag("metodo", metodo).tag("rota", rota)
+                    .register(registry);
+            naoModificadas = Counter.builder(METRICA_NAO_MODIFICADAS)
+                    .tag("metodo", metodo).tag("rota", rota)
+                    .register(registry);
+            errosCliente = Counter.builder(METRICA_ERROS)
+                    .tag("metodo", metodo).tag("rota", rota).tag("tipo", "4xx")
+                    .register(registry);
+            errosServidor = Counter.builder(METRICA_ERROS)
+                    .tag("metodo", metodo).tag("rota", rota).tag("tipo", "5xx")
+                    .register(registry);
+        }
+
+        MetricasRotaDTO resumo(String chave) {
+            HistogramSnapshot snapshot = latencia.takeSnapshot();
+            MetricasRotaDTO dto = new MetricasRotaDTO();
+            dto.setRota(chave);
+            dto.setRequisicoes(snapshot.count());
+            dto.setNaoModificadas((long) naoModificadas.count());
+            dto.setErros4xx((long) errosCliente.count());
+            dto.setErros5xx((long) errosServidor.count());
+            for (ValueAtPercentile percentil : snapshot.percentileValues()) {
+                double ms = percentil.value(TimeUnit.MILLISECONDS);
+                if (percentil.percentile() == 0.5) {
+                    dto.setP50Ms(ms);
+                } else if (percentil.percentile() == 0.9) {
+                    dto.setP90Ms(ms);
+                } else if (percentil.percentile() == 0.99) {
+                    dto.setP99Ms(ms);
+                } else if (percentil.percentile() == 0.999) {
+                    dto.setP999Ms(ms);
+                }
+            }
+            dto.setMaxMs(snapshot.max(TimeUnit.MILLISECONDS));
+            dto.setMediaMs(snapshot.mean(TimeUnit.MILLISECONDS));
+            dto.setBytesTotal((long) bytes.totalAmount());
+            dto.setBytesMedio(bytes.mean());
+            return dto;
+        }
+    }
+}
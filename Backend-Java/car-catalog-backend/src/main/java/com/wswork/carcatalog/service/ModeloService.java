@@ -5,13 +5,20 @@ import com.wswork.carcatalog.entity.Modelo;
 import com.wswork.carcatalog.entity.Marca;
 import com.wswork.carcatalog.repository.ModeloRepository;
 import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +31,8 @@ public class ModeloService {
     
     private final ModeloRepository modeloRepository;
     private final MarcaRepository marcaRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IndiceTrigramasNomes indiceNomes;
     
     /**
      * Buscar todos os modelos
@@ -57,12 +66,25 @@ public class ModeloService {
     }
     
     /**
-     * Buscar modelos por nome (contendo)
+     * Buscar modelos por nome (contendo), os que começam pelo texto primeiro
+     * (pelo índice de trigramas; a consulta LIKE é usada antes de ele ser carregado e para textos
+     * curtos demais para formar um trigrama)
      */
     @Transactional(readOnly = true)
     public List<ModeloDTO> buscarPorNome(String nome) {
-        return modeloRepository.findByNomeContainingIgnoreCase(nome)
+        if (!indiceNomes.ativo() || !IndiceTrigramasNomes.buscaPorTrecho(nome)) {
+            return modeloRepository.findByNomeContainingIgnoreCase(nome)
+                    .stream()
+                    .map(this::converterParaDTO)
+                    .collect(Collectors.toList());
+        }
+        List<Long> ids = indiceNomes.idsModelosContendo(nome);
+        Map<Long, Modelo> porId = modeloRepository.findAllById(ids)
                 .stream()
+                .collect(Collectors.toMap(Modelo::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
                 .map(this::converterParaDTO)
                 .collect(Collectors.toList());
     }
@@ -89,6 +111,7 @@ public class ModeloService {
         modelo.setDataAtualizacao(LocalDateTime.now());
         
         Modelo modeloSalvo = modeloRepository.save(modelo);
+        publicar(Operacao.CRIADO, modeloSalvo.getId());
         return converterParaDTO(modeloSalvo);
     }
     
@@ -117,6 +140,7 @@ public class ModeloService {
         modelo.setDataAtualizacao(LocalDateTime.now());
         
         Modelo modeloAtualizado = modeloRepository.save(modelo);
+        publicar(Operacao.ATUALIZADO, id);
         return converterParaDTO(modeloAtualizado);
     }
     
@@ -132,6 +156,7 @@ public class ModeloService {
         // TODO: Implementar verificação de dependências
         
         modeloRepository.deleteById(id);
+        publicar(Operacao.REMOVIDO, id);
     }
     
     /**
@@ -142,6 +167,13 @@ public class ModeloService {
         return modeloRepository.existsById(id);
     }
     
+    /**
+     * Publicar alteração do catálogo (os ouvintes reagem após o commit)
+     */
+    private void publicar(Operacao operacao, Long id) {
+        eventPublisher.publishEvent(new CatalogoAlteradoEvent(Entidade.MODELO, operacao, id));
+    }
+    
     /**
      * Converter Entity para DTO
      */
@@ -151,7 +183,8 @@ public class ModeloService {
         dto.setMarcaId(modelo.getMarca().getId());
         dto.setNomeMarca(modelo.getMarca().getNomeMarca());
         dto.setNome(modelo.getNome());
-        dto.setValorFipe(java.math.BigDecimal.valueOf(modelo.getValorFipe()));
+        // Modelos criados junto com um carro (find-or-create) não têm valor FIPE
+        dto.setValorFipe(modelo.getValorFipe() != null ? java.math.BigDecimal.valueOf(modelo.getValorFipe()) : null);
         dto.setDataCriacao(modelo.getDataCriacao());
         dto.setDataAtualizacao(modelo.getDataAtualizacao());
         return dto;
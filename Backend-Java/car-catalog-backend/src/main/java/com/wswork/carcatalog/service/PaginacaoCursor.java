@@ -0,0 +1,76 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.PaginaDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilitário de paginação por cursor (keyset).
+ * O cursor é a chave de ordenação do último item da página, codificada em Base64 (URL safe)
+ * junto com o tipo de ordenação, para que não possa ser reaproveitado em outra listagem.
+ */
+final class PaginacaoCursor {
+    
+    static final int LIMITE_PADRAO = 50;
+    static final int LIMITE_MAXIMO = 500;
+    
+    private static final String SEPARADOR = ":";
+    
+    private PaginacaoCursor() {}
+    
+    /**
+     * Aplicar limite padrão e teto de itens por página
+     */
+    static int normalizarLimite(Integer limite) {
+        if (limite == null) {
+            return LIMITE_PADRAO;
+        }
+        if (limite < 1) {
+            throw new IllegalArgumentException("Limite deve ser maior que zero");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+    
+    /**
+     * Codificar as chaves do último item visto
+     */
+    static String codificar(String ordem, Object... chaves) {
+        StringBuilder conteudo = new StringBuilder(ordem);
+        for (Object chave : chaves) {
+            conteudo.append(SEPARADOR).append(chave);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(conteudo.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodificar um cursor, validando o tipo de ordenação e o número de chaves
+     */
+    static String[] decodificar(String cursor, String ordem, int quantidadeChaves) {
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARADOR);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        if (partes.length != quantidadeChaves + 1 || !partes[0].equals(ordem)) {
+            throw new IllegalArgumentException("Cursor inválido para esta listagem");
+        }
+        String[] chaves = new String[quantidadeChaves];
+        System.arraycopy(partes, 1, chaves, 0, quantidadeChaves);
+        return chaves;
+    }
+    
+    /**
+     * Montar a página a partir de uma consulta que buscou limite + 1 linhas
+     */
+    static <T> PaginaDTO<T> montar(List<T> linhas, int limite, Function<T, String> cursorDoItem) {
+        boolean temMais = linhas.size() > limite;
+        List<T> itens = temMais ? linhas.subList(0, limite) : linhas;
+        String proximoCursor = temMais ? cursorDoItem.apply(itens.get(itens.size() - 1)) : null;
+        return new PaginaDTO<>(itens, limite, temMais, proximoCursor);
+    }
+}
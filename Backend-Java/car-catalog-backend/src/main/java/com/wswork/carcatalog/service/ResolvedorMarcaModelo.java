@@ -0,0 +1,189 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.MarcaRef;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.ModeloRef;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Busca-ou-cria de marcas e modelos seguro sob escrita concorrente.
+ *
+ * Requisições com o mesmo nome são serializadas por travas particionadas (striped) pelo nome normalizado;
+ * cada criação roda e faz commit na sua própria transação, e a violação de unicidade vinda de outra
+ * instância da aplicação é resolvida relendo a linha que venceu. Deve ser chamado fora de transação:
+ * dentro de uma, cada requisição seguraria duas conexões do pool ao mesmo tempo.
+ */
+@Component
+public class ResolvedorMarcaModelo {
+
+    private static final int NUMERO_TRAVAS = 64;
+
+    private final MarcaRepository marcaRepository;
+    private final ModeloRepository modeloRepository;
+    private final CacheNomesCatalogo cacheNomes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate novaTransacao;
+    private final ReentrantLock[] travas = new ReentrantLock[NUMERO_TRAVAS];
+
+    public ResolvedorMarcaModelo(MarcaRepository marcaRepository,
+                                 ModeloRepository modeloRepository,
+                                 CacheNomesCatalogo cacheNomes,
+                                 ApplicationEventPublisher eventPublisher,
+                                 PlatformTransactionManager transactionManager) {
+        this.marcaRepository = marcaRepository;
+        this.modeloRepository = modeloRepository;
+        this.cacheNomes = cacheNomes;
+        this.eventPublisher = eventPublisher;
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < NUMERO_TRAVAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Buscar a marca pelo nome (cache, depois banco) ou criá-la
+     */
+    public MarcaRef marca(String nomeMarca) {
+        return marca(nomeMarca, () -> { });
+    }
+
+    /**
+     * Buscar ou criar a marca, chamando aoCriar só se esta chamada inseriu a linha
+     */
+    public MarcaRef marca(String nomeMarca, Runnable aoCriar) {
+        return marca(nomeMarca, aoCriar, true);
+    }
+
+    /**
+     * Criar a marca que uma busca em conjunto acabou de não encontrar: tenta o INSERT sem buscar de novo
+     * e, se outra requisição a criou nesse meio tempo, devolve a existente
+     */
+    public MarcaRef criarMarca(String nomeMarca, Runnable aoCriar) {
+        return marca(nomeMarca, aoCriar, false);
+    }
+
+    private MarcaRef marca(String nomeMarca, Runnable aoCriar, boolean buscarAntes) {
+        MarcaRef ref = cacheNomes.marca(nomeMarca);
+        if (ref != null) {
+            return ref;
+        }
+        ReentrantLock trava = trava("marca|" + normalizar(nomeMarca));
+        trava.lock();
+        try {
+            // Outra requisição pode ter criado a marca enquanto esta esperava a trava
+            ref = cacheNomes.marca(nomeMarca);
+            if (ref != null) {
+                return ref;
+            }
+            // No banco o nome é comparado como na chave do cache: sem espaços nas pontas e sem diferenciar maiúsculas
+            long geracao = cacheNomes.geracao();
+            String nome = nomeMarca.trim();
+            Marca marca = buscarOuCriar(
+                    () -> marcaRepository.findFirstByNomeMarcaIgnoreCaseOrderByIdAsc(nome),
+                    () -> marcaRepository.saveAndFlush(new Marca(nome)),
+                    Entidade.MARCA, Marca::getId, aoCriar, buscarAntes);
+            return cacheNomes.registrar(marca, geracao);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Buscar o modelo pelo nome dentro da marca (cache, depois banco) ou criá-lo
+     */
+    public ModeloRef modelo(MarcaRef marca, String nomeModelo) {
+        return modelo(marca, nomeModelo, () -> { });
+    }
+
+    /**
+     * Buscar ou criar o modelo, chamando aoCriar só se esta chamada inseriu a linha
+     */
+    public ModeloRef modelo(MarcaRef marca, String nomeModelo, Runnable aoCriar) {
+        return modelo(marca, nomeModelo, aoCriar, true);
+    }
+
+    /**
+     * Criar o modelo que uma busca em conjunto acabou de não encontrar (como criarMarca)
+     */
+    public ModeloRef criarModelo(MarcaRef marca, String nomeModelo, Runnable aoCriar) {
+        return modelo(marca, nomeModelo, aoCriar, false);
+    }
+
+    private ModeloRef modelo(MarcaRef marca, String nomeModelo, Runnable aoCriar, boolean buscarAntes) {
+        ModeloRef ref = cacheNomes.modelo(marca.id(), nomeModelo);
+        if (ref != null) {
+            return ref;
+        }
+        ReentrantLock trava = trava("modelo|" + marca.id() + "|" + normalizar(nomeModelo));
+        trava.lock();
+        try {
+            ref = cacheNomes.modelo(marca.id(), nomeModelo);
+            if (ref != null) {
+                return ref;
+            }
+            long geracao = cacheNomes.geracao();
+            String nome = nomeModelo.trim();
+            Modelo modelo = buscarOuCriar(
+                    () -> modeloRepository.findFirstByMarcaIdAndNomeIgnoreCaseOrderByIdAsc(marca.id(), nome),
+                    () -> modeloRepository.saveAndFlush(new Modelo(marcaRepository.getReferenceById(marca.id()), nome)),
+                    Entidade.MODELO, Modelo::getId, aoCriar, buscarAntes);
+            return cacheNomes.registrar(modelo, geracao);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    /**
+     * Buscar (se buscarAntes) e, se não existir, inserir em uma transação própria; se o INSERT perder
+     * a corrida para outra requisição (violação de unicidade), reler a linha gravada por ela
+     */
+    private <T> T buscarOuCriar(Supplier<Optional<T>> busca, Supplier<T> criacao,
+                                Entidade entidade, Function<T, Long> id, Runnable aoCriar, boolean buscarAntes) {
+        AtomicBoolean criou = new AtomicBoolean();
+        try {
+            T resultado = novaTransacao.execute(status -> {
+                Optional<T> existente = buscarAntes ? busca.get() : Optional.empty();
+                return existente.orElseGet(() -> {
+                    T criado = criacao.get();
+                    eventPublisher.publishEvent(new CatalogoAlteradoEvent(entidade, Operacao.CRIADO, id.apply(criado)));
+                    criou.set(true);
+                    return criado;
+                });
+            });
+            // Só depois do commit: a criação pode ainda falhar nele por unicidade
+            if (criou.get()) {
+                aoCriar.run();
+            }
+            return resultado;
+        } catch (DataIntegrityViolationException e) {
+            return novaTransacao.execute(status -> busca.get()).orElseThrow(() -> e);
+        }
+    }
+
+    private ReentrantLock trava(String chave) {
+        return travas[Math.floorMod(chave.hashCode(), NUMERO_TRAVAS)];
+    }
+
+    private static String normalizar(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,338 @@
+package com.wswork.carcatalog.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wswork.carcatalog.CarCatalogBackendApplication;
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.LoteCarrosResultadoDTO;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Teste de carga HTTP: sobe a aplicação (perfil dev, H2) em uma porta livre, cadastra um catálogo
+ * sintético pelo POST /api/carros/batch e dispara tráfego misto com N clientes simultâneos
+ * (cada um, em uma thread virtual, envia a próxima requisição assim que recebe a resposta anterior)
+ * durante o tempo configurado.
+ * Ao final grava um relatório JSON com vazão e percentis de latência por operação.
+ *
+ * Configuração por propriedades de sistema (ver o perfil carga do pom.xml):
+ * carga.concorrencia, carga.duracao e carga.aquecimento (segundos), carga.carros, carga.semente,
+ * carga.threads-virtuais (sobe a aplicação atendendo em threads virtuais), carga.relatorio (arquivo de saída)
+ * e carga.url (usa uma instância já em execução em vez de subir uma).
+ */
+public class CargaHttp {
+
+	/**
+	 * Operações do tráfego misto e seus pesos
+	 */
+	enum Operacao {
+		LISTAR(20),
+		FILTRAR(25),
+		BUSCAR_POR_ID(30),
+		CRIAR(8),
+		ATUALIZAR(7),
+		DELETAR(5),
+		CARS_JSON(5);
+
+		private final int peso;
+
+		Operacao(int peso) {
+			this.peso = peso;
+		}
+	}
+
+	private static final String[] MARCAS = {"Toyota", "Volkswagen", "Fiat", "Chevrolet", "Honda", "Hyundai", "Renault", "Jeep"};
+	private static final String[] COMBUSTIVEIS = {"FLEX", "GASOLINA", "DIESEL", "ELETRICO", "HIBRIDO"};
+	private static final String[] CORES = {"PRATA", "PRETO", "BRANCO", "CINZA", "VERMELHO", "AZUL"};
+	private static final int MODELOS_POR_MARCA = 12;
+	private static final int TAMANHO_LOTE = 5_000;
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final int concorrencia;
+	private final int duracaoSegundos;
+	private final int aquecimentoSegundos;
+	private final int quantidadeCarros;
+	private final long semente;
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+	private final HttpClient cliente = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+	private final Operacao[] sorteio;
+
+	private String url;
+	// Modo da aplicação embarcada (nulo com carga.url)
+	private Boolean threadsVirtuais;
+	// Ids conhecidos: criações sobrescrevem uma posição, remoções a zeram (cada id é removido por uma thread só)
+	private AtomicLongArray ids;
+
+	CargaHttp(int concorrencia, int duracaoSegundos, int aquecimentoSegundos, int quantidadeCarros, long semente) {
+		this.concorrencia = concorrencia;
+		this.duracaoSegundos = duracaoSegundos;
+		this.aquecimentoSegundos = aquecimentoSegundos;
+		this.quantidadeCarros = quantidadeCarros;
+		this.semente = semente;
+		List<Operacao> pesos = new ArrayList<>();
+		for (Operacao operacao : Operacao.values()) {
+			for (int i = 0; i < operacao.peso; i++) {
+				pesos.add(operacao);
+			}
+		}
+		this.sorteio = pesos.toArray(Operacao[]::new);
+	}
+
+	public static void main(String[] args) throws Exception {
+		CargaHttp teste = new CargaHttp(
+				Integer.getInteger("carga.concorrencia", 16),
+				Integer.getInteger("carga.duracao", 60),
+				Integer.getInteger("carga.aquecimento", 10),
+				Integer.getInteger("carga.carros", 10_000),
+				Long.getLong("carga.semente", 42L));
+		String urlExterna = System.getProperty("carga.url", "");
+		boolean threadsVirtuais = Boolean.getBoolean("carga.threads-virtuais");
+		Path relatorio = Path.of(System.getProperty("carga.relatorio",
+				"target/carga/relatorio-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json"));
+
+		ConfigurableApplicationContext contexto = null;
+		try {
+			if (urlExterna.isBlank()) {
+				contexto = iniciarAplicacao(threadsVirtuais);
+				teste.url = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+				teste.threadsVirtuais = threadsVirtuais;
+			} else {
+				teste.url = urlExterna.replaceAll("/+$", "");
+			}
+			Map<String, Object> resultado = teste.executar();
+			Files.createDirectories(relatorio.toAbsolutePath().getParent());
+			teste.objectMapper.writerWithDefaultPrettyPrinter().writeValue(relatorio.toFile(), resultado);
+			imprimir(resultado, relatorio);
+		} finally {
+			if (contexto != null) {
+				contexto.close();
+			}
+		}
+	}
+
+	/**
+	 * Subir a aplicação em uma porta livre, com os níveis de log de produção
+	 */
+	private static ConfigurableApplicationContext iniciarAplicacao(boolean threadsVirtuais) {
+		return new SpringApplicationBuilder(CarCatalogBackendApplication.class)
+				.profiles("dev")
+				.run("--server.port=0",
+						"--spring.threads.virtual.enabled=" + threadsVirtuais,
+						"--spring.h2.console.enabled=false",
+						"--spring.jpa.show-sql=false",
+						"--spring.jpa.properties.hibernate.format_sql=false",
+						"--logging.level.org.springframework.web=INFO",
+						"--logging.level.org.hibernate.SQL=WARN",
+						"--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+						"--logging.level.com.wswork.carcatalog=INFO",
+						"--logging.level.catalogo.mutacoes=WARN");
+	}
+
+	Map<String, Object> executar() throws Exception {
+		popular();
+
+		long agora = System.nanoTime();
+		long inicioMedicao = agora + Duration.ofSeconds(aquecimentoSegundos).toNanos();
+		long fim = inicioMedicao + Duration.ofSeconds(duracaoSegundos).toNanos();
+		List<Map<Operacao, Latencias>> porThread = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < concorrencia; i++) {
+			Map<Operacao, Latencias> registros = new EnumMap<>(Operacao.class);
+			for (Operacao operacao : Operacao.values()) {
+				registros.put(operacao, new Latencias());
+			}
+			porThread.add(registros);
+			SplittableRandom aleatorio = new SplittableRandom(semente + i);
+			threads.add(Thread.ofVirtual().name("carga-" + i).start(() -> gerarTrafego(aleatorio, registros, inicioMedicao, fim)));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		Map<Operacao, Latencias> combinadas = new EnumMap<>(Operacao.class);
+		Latencias total = new Latencias();
+		for (Operacao operacao : Operacao.values()) {
+			Latencias latencias = new Latencias();
+			porThread.forEach(registros -> latencias.combinar(registros.get(operacao)));
+			combinadas.put(operacao, latencias);
+			total.combinar(latencias);
+		}
+		return relatorio(combinadas, total);
+	}
+
+	/**
+	 * Cadastrar o catálogo inicial em lotes e guardar os ids criados
+	 */
+	private void popular() throws IOException, InterruptedException {
+		SplittableRandom aleatorio = new SplittableRandom(semente);
+		ids = new AtomicLongArray(quantidadeCarros);
+		int posicao = 0;
+		while (posicao < quantidadeCarros) {
+			List<CarroDTO> lote = new ArrayList<>();
+			for (int i = 0; i < TAMANHO_LOTE && posicao + i < quantidadeCarros; i++) {
+				lote.add(carro(aleatorio));
+			}
+			HttpResponse<byte[]> resposta = enviar(requisicao("/api/carros/batch")
+					.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(lote))));
+			if (resposta.statusCode() != 201) {
+				throw new IllegalStateException("Falha ao cadastrar o catálogo: HTTP " + resposta.statusCode());
+			}
+			for (Long id : objectMapper.readValue(resposta.body(), LoteCarrosResultadoDTO.class).getIds()) {
+				ids.set(posicao++, id);
+			}
+		}
+	}
+
+	private void gerarTrafego(SplittableRandom aleatorio, Map<Operacao, Latencias> registros, long inicioMedicao, long fim) {
+		long inicio;
+		while ((inicio = System.nanoTime()) < fim) {
+			Operacao operacao = sorteio[aleatorio.nextInt(sorteio.length)];
+			int status;
+			try {
+				status = executar(operacao, aleatorio);
+			} catch (IOException e) {
+				status = 0;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			if (inicio >= inicioMedicao) {
+				registros.get(operacao).registrar(System.nanoTime() - inicio, status);
+			}
+		}
+	}
+
+	private int executar(Operacao operacao, SplittableRandom aleatorio) throws IOException, InterruptedException {
+		return switch (operacao) {
+			case LISTAR -> enviar(requisicao("/api/carros?limite=50&ordenarPor="
+					+ (aleatorio.nextBoolean() ? "valor" : "id")).GET()).statusCode();
+			case FILTRAR -> enviar(requisicao("/api/carros/search?marca=" + MARCAS[aleatorio.nextInt(MARCAS.length)]
+					+ "&anoMin=" + (2000 + aleatorio.nextInt(20)) + "&precoMax=" + (50_000 + aleatorio.nextInt(300_000))
+					+ "&ordenarPor=valor&tamanho=20").GET()).statusCode();
+			case BUSCAR_POR_ID -> enviar(requisicao("/api/carros/" + idAleatorio(aleatorio)).GET()).statusCode();
+			case CRIAR -> criar(aleatorio);
+			case ATUALIZAR -> enviar(requisicao("/api/carros/" + idAleatorio(aleatorio))
+					.PUT(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(carro(aleatorio))))).statusCode();
+			case DELETAR -> deletar(aleatorio);
+			case CARS_JSON -> enviar(requisicao("/cars.json").header("Accept-Encoding", "gzip").GET()).statusCode();
+		};
+	}
+
+	private int criar(SplittableRandom aleatorio) throws IOException, InterruptedException {
+		HttpResponse<byte[]> resposta = enviar(requisicao("/api/carros")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(carro(aleatorio)))));
+		if (resposta.statusCode() == 201) {
+			ids.set(aleatorio.nextInt(ids.length()), objectMapper.readTree(resposta.body()).get("id").asLong());
+		}
+		return resposta.statusCode();
+	}
+
+	private int deletar(SplittableRandom aleatorio) throws IOException, InterruptedException {
+		long id = 0;
+		for (int tentativa = 0; tentativa < 10 && id == 0; tentativa++) {
+			id = ids.getAndSet(aleatorio.nextInt(ids.length()), 0);
+		}
+		return enviar(requisicao("/api/carros/" + id).DELETE()).statusCode();
+	}
+
+	private long idAleatorio(SplittableRandom aleatorio) {
+		long id = 0;
+		for (int tentativa = 0; tentativa < 10 && id == 0; tentativa++) {
+			id = ids.get(aleatorio.nextInt(ids.length()));
+		}
+		return id;
+	}
+
+	private HttpRequest.Builder requisicao(String caminho) {
+		return HttpRequest.newBuilder(URI.create(url + caminho))
+				.timeout(TIMEOUT)
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json");
+	}
+
+	private HttpResponse<byte[]> enviar(HttpRequest.Builder requisicao) throws IOException, InterruptedException {
+		return cliente.send(requisicao.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private static CarroDTO carro(SplittableRandom aleatorio) {
+		int marca = aleatorio.nextInt(MARCAS.length);
+		CarroDTO carro = new CarroDTO();
+		carro.setNomeMarca(MARCAS[marca]);
+		carro.setNomeModelo(MARCAS[marca] + " Modelo " + (aleatorio.nextInt(MODELOS_POR_MARCA) + 1));
+		carro.setAno(2000 + aleatorio.nextInt(26));
+		carro.setCombustivel(COMBUSTIVEIS[aleatorio.nextInt(COMBUSTIVEIS.length)]);
+		carro.setNumPortas(aleatorio.nextBoolean() ? 4 : 2);
+		carro.setCor(CORES[aleatorio.nextInt(CORES.length)]);
+		carro.setValor(BigDecimal.valueOf(aleatorio.nextLong(2_000_000, 40_000_000), 2));
+		return carro;
+	}
+
+	private Map<String, Object> relatorio(Map<Operacao, Latencias> porOperacao, Latencias total) {
+		Map<String, Object> configuracao = new LinkedHashMap<>();
+		configuracao.put("url", url);
+		configuracao.put("threadsVirtuais", threadsVirtuais);
+		configuracao.put("concorrencia", concorrencia);
+		configuracao.put("duracaoSegundos", duracaoSegundos);
+		configuracao.put("aquecimentoSegundos", aquecimentoSegundos);
+		configuracao.put("carros", quantidadeCarros);
+		configuracao.put("semente", semente);
+		Map<String, Integer> pesos = new LinkedHashMap<>();
+		for (Operacao operacao : Operacao.values()) {
+			pesos.put(operacao.name(), operacao.peso);
+		}
+		configuracao.put("pesos", pesos);
+
+		Map<String, Object> ambiente = new LinkedHashMap<>();
+		ambiente.put("versao", System.getProperty("carga.versao", "desconhecida"));
+		ambiente.put("java", Runtime.version().toString());
+		ambiente.put("processadores", Runtime.getRuntime().availableProcessors());
+		ambiente.put("memoriaMaximaMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+		Map<String, Object> operacoes = new LinkedHashMap<>();
+		porOperacao.forEach((operacao, latencias) -> operacoes.put(operacao.name(), latencias.resumo(duracaoSegundos)));
+
+		Map<String, Object> relatorio = new LinkedHashMap<>();
+		relatorio.put("data", OffsetDateTime.now().toString());
+		relatorio.put("configuracao", configuracao);
+		relatorio.put("ambiente", ambiente);
+		relatorio.put("total", total.resumo(duracaoSegundos));
+		relatorio.put("operacoes", operacoes);
+		return relatorio;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void imprimir(Map<String, Object> relatorio, Path arquivo) {
+		System.out.printf("%n%-14s %10s %8s %10s %9s %9s %9s %9s%n",
+				"operacao", "requisicoes", "falhas", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms");
+		Map<String, Object> linhas = new LinkedHashMap<>((Map<String, Object>) relatorio.get("operacoes"));
+		linhas.put("TOTAL", relatorio.get("total"));
+		linhas.forEach((nome, valor) -> {
+			Map<String, Object> resumo = (Map<String, Object>) valor;
+			System.out.printf("%-14s %10s %8s %10s %9s %9s %9s %9s%n", nome, resumo.get("requisicoes"), resumo.get("falhas"),
+					resumo.get("vazao"), resumo.get("p50Ms"), resumo.get("p90Ms"), resumo.get("p99Ms"), resumo.get("p999Ms"));
+		});
+		System.out.printf("%nRelatório: %s%n", arquivo.toAbsolutePath());
+	}
+}
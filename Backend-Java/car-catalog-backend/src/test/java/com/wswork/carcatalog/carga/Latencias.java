@@ -0,0 +1,81 @@
+package com.wswork.carcatalog.carga;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latências (em nanossegundos) e status HTTP de uma operação. Cada thread de carga grava na sua
+ * própria instância, sem sincronização; ao final as instâncias são combinadas e os percentis são
+ * calculados sobre todas as amostras ordenadas (valores exatos, sem aproximação por buckets).
+ */
+class Latencias {
+
+	private static final double NANOS_POR_MS = 1_000_000.0;
+
+	private long[] amostras = new long[1024];
+	private int quantidade;
+	private long falhas;
+	private final Map<Integer, Long> porStatus = new TreeMap<>();
+
+	void registrar(long nanos, int status) {
+		if (quantidade == amostras.length) {
+			amostras = Arrays.copyOf(amostras, quantidade * 2);
+		}
+		amostras[quantidade++] = nanos;
+		porStatus.merge(status, 1L, Long::sum);
+		// Status 0 = erro de E/S (conexão recusada, timeout)
+		if (status == 0 || status >= 500) {
+			falhas++;
+		}
+	}
+
+	void combinar(Latencias outras) {
+		if (quantidade + outras.quantidade > amostras.length) {
+			amostras = Arrays.copyOf(amostras, quantidade + outras.quantidade);
+		}
+		System.arraycopy(outras.amostras, 0, amostras, quantidade, outras.quantidade);
+		quantidade += outras.quantidade;
+		falhas += outras.falhas;
+		outras.porStatus.forEach((status, total) -> porStatus.merge(status, total, Long::sum));
+	}
+
+	/**
+	 * Resumo para o relatório: contagens, vazão e percentis em milissegundos
+	 */
+	Map<String, Object> resumo(double segundos) {
+		long[] ordenadas = Arrays.copyOf(amostras, quantidade);
+		Arrays.sort(ordenadas);
+		long soma = 0;
+		for (long amostra : ordenadas) {
+			soma += amostra;
+		}
+		Map<String, Object> resumo = new LinkedHashMap<>();
+		resumo.put("requisicoes", quantidade);
+		resumo.put("falhas", falhas);
+		resumo.put("vazao", arredondar(quantidade / segundos));
+		resumo.put("mediaMs", arredondar(quantidade > 0 ? soma / NANOS_POR_MS / quantidade : 0));
+		resumo.put("p50Ms", percentil(ordenadas, 0.5));
+		resumo.put("p90Ms", percentil(ordenadas, 0.9));
+		resumo.put("p99Ms", percentil(ordenadas, 0.99));
+		resumo.put("p999Ms", percentil(ordenadas, 0.999));
+		resumo.put("maxMs", arredondar(quantidade > 0 ? ordenadas[quantidade - 1] / NANOS_POR_MS : 0));
+		Map<String, Long> status = new LinkedHashMap<>();
+		porStatus.forEach((codigo, total) -> status.put(codigo == 0 ? "erroES" : codigo.toString(), total));
+		resumo.put("status", status);
+		return resumo;
+	}
+
+	private static double percentil(long[] ordenadas, double percentil) {
+		if (ordenadas.length == 0) {
+			return 0;
+		}
+		int posicao = (int) Math.ceil(percentil * ordenadas.length) - 1;
+		return arredondar(ordenadas[Math.max(posicao, 0)] / NANOS_POR_MS);
+	}
+
+	private static double arredondar(double valor) {
+		return Math.round(valor * 1000) / 1000.0;
+	}
+}
@@ -0,0 +1,67 @@
+package com.wswork.carcatalog.config;
+
+import com.wswork.carcatalog.dto.MarcaDTO;
+import com.wswork.carcatalog.dto.ModeloDTO;
+import com.wswork.carcatalog.service.MarcaService;
+import com.wswork.carcatalog.service.ModeloService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class CacheEndpointTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MarcaService marcaService;
+
+	@Autowired
+	private ModeloService modeloService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void modelosPorMarcaVemDoCacheAteAlgumModeloMudar() throws Exception {
+		Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		MarcaDTO marca = marcaService.criar(new MarcaDTO(null, "Marca Cache", null, null));
+		ModeloDTO modelo = modeloService.criar(new ModeloDTO(null, marca.getId(), null, "Modelo Cache", BigDecimal.TEN, null, null));
+
+		modeloService.buscarPorMarca(marca.getId());
+		long consultas = estatisticas.getPrepareStatementCount();
+		List<ModeloDTO> modelos = modeloService.buscarPorMarca(marca.getId());
+		modeloService.buscarPorId(modelo.getId());
+		assertEquals(consultas, estatisticas.getPrepareStatementCount());
+		assertEquals("Marca Cache", modelos.get(0).getNomeMarca());
+
+		// Alterar um modelo invalida o resultado guardado da consulta
+		modelo.setNome("Modelo Cache 2");
+		modeloService.atualizar(modelo.getId(), modelo);
+		assertEquals("Modelo Cache 2", modeloService.buscarPorMarca(marca.getId()).get(0).getNome());
+
+		mockMvc.perform(get("/actuator/cache"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.regiao == 'com.wswork.carcatalog.entity.Modelo')].acertos").value(hasItem(greaterThan(0))))
+				.andExpect(jsonPath("$[?(@.regiao == 'default-query-results-region')].acertos").value(hasItem(greaterThan(0))));
+	}
+}
@@ -0,0 +1,31 @@
+package com.wswork.carcatalog.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataSourceLimitadoTest {
+
+	@Test
+	void limitaConexoesSimultaneasEDevolvePermissaoUmaVez() throws Exception {
+		DataSourceLimitado dataSource = new DataSourceLimitado(
+				new DriverManagerDataSource("jdbc:h2:mem:limitado", "sa", ""), 1, 50);
+
+		Connection primeira = dataSource.getConnection();
+		assertTrue(primeira.isValid(1));
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+		primeira.close();
+		primeira.close();
+		try (Connection segunda = dataSource.getConnection()) {
+			assertTrue(segunda.isValid(1));
+			// O segundo close() da primeira conexão não pode ter liberado uma permissão extra
+			assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+		}
+	}
+}
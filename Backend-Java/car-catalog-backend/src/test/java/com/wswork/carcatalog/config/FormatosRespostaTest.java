@@ -0,0 +1,68 @@
+package com.wswork.carcatalog.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.wswork.carcatalog.service.CarroService;
+import com.wswork.carcatalog.service.MarcaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class FormatosRespostaTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MarcaService marcaService;
+
+	@Autowired
+	private CarroService carroService;
+
+	@Test
+	void negociaJsonCborESmilePeloAccept() throws Exception {
+		assertEquals(MediaType.APPLICATION_JSON, FormatosResposta.negociar(null));
+		assertEquals(MediaType.APPLICATION_JSON, FormatosResposta.negociar("*/*"));
+		assertEquals(MediaType.APPLICATION_CBOR, FormatosResposta.negociar("application/cbor, application/json;q=0.5"));
+		assertEquals(MediaType.APPLICATION_JSON, FormatosResposta.negociar("application/x-jackson-smile;q=0.2, application/json"));
+		assertEquals(FormatosResposta.SMILE, FormatosResposta.negociar("application/x-jackson-smile"));
+
+		MvcResult cbor = mockMvc.perform(get("/api/marcas").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+				.andReturn();
+		JsonNode marcas = new CBORMapper().readTree(cbor.getResponse().getContentAsByteArray());
+		assertEquals(marcaService.buscarTodas().size(), marcas.size());
+		// Mesma configuração Jackson do JSON: datas em ISO-8601, não em arrays
+		assertTrue(marcas.get(0).get("dataCriacao").isTextual());
+		String etagJson = mockMvc.perform(get("/api/marcas")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etagJson, cbor.getResponse().getHeader(HttpHeaders.ETAG));
+
+		byte[] smile = mockMvc.perform(get("/cars.json").accept(FormatosResposta.SMILE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(FormatosResposta.SMILE))
+				.andReturn().getResponse().getContentAsByteArray();
+		JsonNode cars = new SmileMapper().readTree(smile);
+		assertEquals(carroService.buscarTodos().size(), cars.get("cars").size());
+		String json = mockMvc.perform(get("/cars.json")).andReturn().getResponse().getContentAsString();
+		assertEquals(new ObjectMapper().readTree(json), cars);
+	}
+}
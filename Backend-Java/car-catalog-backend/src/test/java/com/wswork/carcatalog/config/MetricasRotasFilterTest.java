@@ -0,0 +1,117 @@
+package com.wswork.carcatalog.config;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class MetricasRotasFilterTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void registraLatenciaErrosEBytesPorRota() throws Exception {
+		mockMvc.perform(get("/api/carros")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/carros")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/carros/{id}", 987654321L)).andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/actuator/rotas"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[?(@.rota == 'GET /api/carros')].requisicoes").value(2))
+				.andExpect(jsonPath("$[?(@.rota == 'GET /api/carros')].bytesTotal").value(hasItem(greaterThan(0))))
+				.andExpect(jsonPath("$[?(@.rota == 'GET /api/carros/{id}')].erros4xx").value(1))
+				.andExpect(jsonPath("$[?(@.rota == 'GET /api/carros/{id}')].p99Ms").isNotEmpty());
+	}
+
+	@Test
+	void listagensRespondem304EnquantoOsAgregadosNaoMudam() throws Exception {
+		Integer marca = JsonPath.read(mockMvc.perform(post("/api/marcas").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nomeMarca\": \"Marca ETag\"}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString(), "$.id");
+		String etagMarcas = mockMvc.perform(get("/api/marcas"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String etagModelos = mockMvc.perform(get("/api/modelos"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/marcas").header(HttpHeaders.IF_NONE_MATCH, etagMarcas))
+				.andExpect(status().isNotModified());
+		mockMvc.perform(get("/api/modelos").header(HttpHeaders.IF_NONE_MATCH, etagModelos))
+				.andExpect(status().isNotModified());
+
+		// Renomear a marca muda as duas listagens (a de modelos exibe o nome da marca)
+		mockMvc.perform(put("/api/marcas/{id}", marca).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"nomeMarca\": \"Marca ETag 2\"}"))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/api/marcas").header(HttpHeaders.IF_NONE_MATCH, etagMarcas))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(etagMarcas)));
+		mockMvc.perform(get("/api/modelos").header(HttpHeaders.IF_NONE_MATCH, etagModelos))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/rotas"))
+				.andExpect(jsonPath("$[?(@.rota == 'GET /api/marcas')].naoModificadas").value(hasItem(1)))
+				.andExpect(jsonPath("$[?(@.rota == 'GET /api/modelos')].naoModificadas").value(hasItem(1)));
+	}
+
+	@Test
+	void atualizacaoDeCarroUsaAETagDaVersaoNoIfMatch() throws Exception {
+		String carro = "{\"nomeMarca\": \"Marca If-Match\", \"nomeModelo\": \"Modelo If-Match\", \"ano\": 2022, "
+				+ "\"combustivel\": \"FLEX\", \"numPortas\": 4, \"cor\": \"PRATA\", \"valor\": 65000}";
+		Integer id = JsonPath.read(mockMvc.perform(post("/api/carros").contentType(MediaType.APPLICATION_JSON)
+						.content(carro))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString(), "$.id");
+
+		// O navegador só deixa o front ler a ETag de outra origem se ela for exposta pelo CORS
+		String etag = mockMvc.perform(get("/api/carros/{id}", id).header(HttpHeaders.ORIGIN, "http://front.exemplo"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString(HttpHeaders.ETAG)))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(etag);
+
+		String novaEtag = mockMvc.perform(put("/api/carros/{id}", id).contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag).content(carro))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotNull(novaEtag);
+		assertNotEquals(etag, novaEtag);
+
+		// ETag antiga: outra edição já passou por cima dela
+		mockMvc.perform(put("/api/carros/{id}", id).contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag).content(carro))
+				.andExpect(status().isConflict());
+		mockMvc.perform(put("/api/carros/{id}", id).contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, "versao-qualquer").content(carro))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/carros/{id}", id))
+				.andExpect(header().string(HttpHeaders.ETAG, novaEtag));
+		mockMvc.perform(delete("/api/carros/{id}", id).header(HttpHeaders.IF_MATCH, novaEtag))
+				.andExpect(status().isNoContent());
+	}
+}
@@ -0,0 +1,59 @@
+package com.wswork.carcatalog.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class UnicidadeModelosMigracaoTest {
+
+	private static final long CARRO_ID = 9_000_001L;
+
+	@Autowired
+	private UnicidadeModelosMigracao migracao;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM carros WHERE id = ?", CARRO_ID);
+		jdbcTemplate.update("DELETE FROM modelos WHERE nome = 'Modelo Repetido'");
+		jdbcTemplate.update("DELETE FROM marcas WHERE nome_marca = 'Marca Migracao'");
+	}
+
+	@Test
+	void unificaModelosRepetidosAntesDeCriarARestricao() {
+		// Banco antigo: sem a restrição e com o mesmo modelo cadastrado duas vezes na marca
+		jdbcTemplate.execute("ALTER TABLE modelos DROP CONSTRAINT uk_modelos_marca_nome");
+		jdbcTemplate.update("INSERT INTO marcas (nome_marca) VALUES ('Marca Migracao')");
+		Long marcaId = jdbcTemplate.queryForObject("SELECT id FROM marcas WHERE nome_marca = 'Marca Migracao'", Long.class);
+		jdbcTemplate.update("INSERT INTO modelos (marca_id, nome) VALUES (?, 'Modelo Repetido')", marcaId);
+		jdbcTemplate.update("INSERT INTO modelos (marca_id, nome) VALUES (?, 'Modelo Repetido')", marcaId);
+		List<Long> modelos = jdbcTemplate.queryForList(
+				"SELECT id FROM modelos WHERE marca_id = ? ORDER BY id", Long.class, marcaId);
+		jdbcTemplate.update("INSERT INTO carros (id, modelo_id, ano, versao) VALUES (?, ?, 2020, 0)", CARRO_ID, modelos.get(1));
+
+		migracao.migrar();
+
+		assertEquals(List.of(modelos.get(0)),
+				jdbcTemplate.queryForList("SELECT id FROM modelos WHERE marca_id = ?", Long.class, marcaId));
+		assertEquals(modelos.get(0),
+				jdbcTemplate.queryForObject("SELECT modelo_id FROM carros WHERE id = ?", Long.class, CARRO_ID));
+		assertThrows(DataIntegrityViolationException.class,
+				() -> jdbcTemplate.update("INSERT INTO modelos (marca_id, nome) VALUES (?, 'Modelo Repetido')", marcaId));
+
+		// Com a restrição no lugar, subir de novo não altera nada
+		migracao.migrar();
+	}
+}
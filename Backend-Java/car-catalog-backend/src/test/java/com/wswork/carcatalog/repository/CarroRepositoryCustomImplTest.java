@@ -0,0 +1,134 @@
+package com.wswork.carcatalog.repository;
+
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.entity.Carro;
+import com.wswork.carcatalog.entity.Marca;
+import com.wswork.carcatalog.entity.Modelo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class CarroRepositoryCustomImplTest {
+
+	@Autowired
+	private CarroRepository carroRepository;
+
+	@Autowired
+	private MarcaRepository marcaRepository;
+
+	@Autowired
+	private ModeloRepository modeloRepository;
+
+	private final List<Carro> carros = new ArrayList<>();
+	private final List<Modelo> modelos = new ArrayList<>();
+	private final List<Marca> marcas = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		carroRepository.deleteAll(carros);
+		modeloRepository.deleteAll(modelos);
+		marcaRepository.deleteAll(marcas);
+	}
+
+	@Test
+	void cadaFiltroECombinacaoComPaginacao() {
+		Marca marcaA = salvar(marcas, marcaRepository, new Marca("Marca Criteria A"));
+		Marca marcaB = salvar(marcas, marcaRepository, new Marca("Marca Criteria B"));
+		Modelo modeloA = salvar(modelos, modeloRepository, new Modelo(marcaA, "Modelo Criteria A"));
+		Modelo modeloB = salvar(modelos, modeloRepository, new Modelo(marcaB, "Modelo Criteria B"));
+
+		// Cada filtro isolado e combinações, com quantos dos carros abaixo devem atender a cada um; os outros
+		// testes do contexto também gravam carros, então compara-se o acréscimo de cada contagem
+		Map<String, FiltroCarroDTO> filtros = new LinkedHashMap<>();
+		filtros.put("marcaId", filtro(f -> f.setMarcaId(marcaA.getId())));
+		filtros.put("marca", filtro(f -> f.setMarca("  marca criteria a ")));
+		filtros.put("modeloId", filtro(f -> f.setModeloId(modeloB.getId())));
+		filtros.put("modelo", filtro(f -> f.setModelo("MODELO CRITERIA B")));
+		filtros.put("anoMin", filtro(f -> f.setAnoMin(2031)));
+		filtros.put("anoMax", filtro(f -> f.setAnoMax(1801)));
+		filtros.put("combustivel", filtro(f -> f.setCombustivel("CRITERIA-HIDROGENIO")));
+		filtros.put("cor", filtro(f -> f.setCor("CRITERIA-VERDE")));
+		filtros.put("numPortas", filtro(f -> f.setNumPortas(9)));
+		filtros.put("precoMin", filtro(f -> f.setPrecoMin(9.0e12)));
+		filtros.put("precoMax", filtro(f -> f.setPrecoMax(0.5)));
+		filtros.put("marca+anoMin+combustivel", filtro(f -> {
+			f.setMarca("Marca Criteria A");
+			f.setAnoMin(2031);
+			f.setCombustivel("CRITERIA-HIDROGENIO");
+		}));
+		filtros.put("modeloId+cor+numPortas+faixaPreco", filtro(f -> {
+			f.setModeloId(modeloB.getId());
+			f.setCor("CRITERIA-VERDE");
+			f.setNumPortas(9);
+			f.setPrecoMin(0.1);
+			f.setPrecoMax(0.5);
+		}));
+		Map<String, Long> esperados = Map.ofEntries(
+				Map.entry("marcaId", 4L), Map.entry("marca", 4L), Map.entry("modeloId", 3L), Map.entry("modelo", 3L),
+				Map.entry("anoMin", 3L), Map.entry("anoMax", 1L), Map.entry("combustivel", 3L), Map.entry("cor", 2L),
+				Map.entry("numPortas", 3L), Map.entry("precoMin", 1L), Map.entry("precoMax", 2L),
+				Map.entry("marca+anoMin+combustivel", 2L), Map.entry("modeloId+cor+numPortas+faixaPreco", 1L));
+
+		Map<String, Long> antes = new LinkedHashMap<>();
+		filtros.forEach((nome, filtro) -> antes.put(nome, contar(filtro)));
+
+		salvar(carros, carroRepository, new Carro(modeloA, 2031, "CRITERIA-HIDROGENIO", 9, "CRITERIA-VERDE", 100.0));
+		salvar(carros, carroRepository, new Carro(modeloA, 2032, "CRITERIA-HIDROGENIO", 4, "PRETO", 9.5e12));
+		salvar(carros, carroRepository, new Carro(modeloA, 2020, "FLEX", 4, "PRETO", 0.3));
+		salvar(carros, carroRepository, new Carro(modeloA, 1800, "FLEX", 4, "PRETO", 200.0));
+		salvar(carros, carroRepository, new Carro(modeloB, 2033, "CRITERIA-HIDROGENIO", 9, "CRITERIA-VERDE", 0.4));
+		salvar(carros, carroRepository, new Carro(modeloB, 2020, "FLEX", 9, "PRETO", 300.0));
+		salvar(carros, carroRepository, new Carro(modeloB, 2020, "FLEX", 2, "BRANCO", 300.0));
+
+		filtros.forEach((nome, filtro) -> assertEquals(esperados.get(nome), contar(filtro) - antes.get(nome), nome));
+
+		// Paginação: marca A por valor decrescente, páginas de 3 com total e ordem estáveis
+		FiltroCarroDTO marca = filtros.get("marcaId");
+		Page<CarroRespostaDTO> primeira = carroRepository.buscar(marca, PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "valor")));
+		Page<CarroRespostaDTO> segunda = carroRepository.buscar(marca, PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "valor")));
+		assertEquals(4, primeira.getTotalElements());
+		assertEquals(2, primeira.getTotalPages());
+		assertEquals(List.of(9.5e12, 200.0, 100.0), primeira.getContent().stream().map(c -> c.getValor().doubleValue()).toList());
+		assertEquals(List.of(0.3), segunda.getContent().stream().map(c -> c.getValor().doubleValue()).toList());
+		assertEquals(4, segunda.getTotalElements());
+
+		// Página cujo deslocamento não cabe em um int é recusada em vez de transbordar
+		assertThrows(InvalidDataAccessApiUsageException.class,
+				() -> carroRepository.buscar(marca, PageRequest.of(Integer.MAX_VALUE / 2, 100)));
+	}
+
+	private long contar(FiltroCarroDTO filtro) {
+		return carroRepository.buscar(filtro, PageRequest.of(0, 1)).getTotalElements();
+	}
+
+	private static <T> T salvar(List<T> salvos, JpaRepository<T, Long> repositorio, T entidade) {
+		T salva = repositorio.save(entidade);
+		salvos.add(salva);
+		return salva;
+	}
+
+	private static FiltroCarroDTO filtro(Consumer<FiltroCarroDTO> criterios) {
+		FiltroCarroDTO filtro = new FiltroCarroDTO();
+		criterios.accept(filtro);
+		return filtro;
+	}
+}
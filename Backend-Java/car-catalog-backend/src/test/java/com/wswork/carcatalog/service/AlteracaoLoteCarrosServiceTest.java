@@ -0,0 +1,77 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.AlteracaoLoteResultadoDTO;
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "catalogo.alteracao-lote.tamanho-bloco=3")
+@ActiveProfiles("dev")
+class AlteracaoLoteCarrosServiceTest {
+
+	@Autowired
+	private AlteracaoLoteCarrosService alteracaoLote;
+
+	@Autowired
+	private CarroService carroService;
+
+	@Test
+	void reajustaERemoveEmBlocosSomenteOsCarrosDoFiltro() {
+		List<Long> lote = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			lote.add(carroService.criar(carro("Marca Lote A", "Modelo Lote A", 2010 + i, "FLEX")).getId());
+		}
+		for (int i = 0; i < 4; i++) {
+			lote.add(carroService.criar(carro("Marca Lote B", "Modelo Lote B", 2020, i % 2 == 0 ? "FLEX" : "DIESEL")).getId());
+		}
+
+		// Marca sem diferenciar maiúsculas e faixa de ano: 5 carros em blocos de 3
+		FiltroCarroDTO anosRecentes = new FiltroCarroDTO();
+		anosRecentes.setMarca("marca lote a");
+		anosRecentes.setAnoMin(2015);
+		AlteracaoLoteResultadoDTO reajuste = alteracaoLote.reajustarValor(anosRecentes, 10);
+		assertEquals(5, reajuste.getQuantidade());
+		assertEquals(2, reajuste.getBlocos());
+		for (int i = 0; i < 10; i++) {
+			BigDecimal esperado = new BigDecimal(i >= 5 ? "55000.55" : "50000.5");
+			assertEquals(0, esperado.compareTo(carroService.buscarPorId(lote.get(i)).orElseThrow().getValor()));
+		}
+		assertEquals(1L, carroService.buscarEstadoPorId(lote.get(9)).orElseThrow().getVersao());
+
+		FiltroCarroDTO dieselB = new FiltroCarroDTO();
+		dieselB.setModelo("Modelo Lote B");
+		dieselB.setCombustivel("DIESEL");
+		assertEquals(2, alteracaoLote.remover(dieselB).getQuantidade());
+		assertEquals(2, lote.stream().skip(10).filter(id -> carroService.buscarPorId(id).isPresent()).count());
+		assertTrue(carroService.buscarPorId(lote.get(0)).isPresent());
+
+		// Sem filtro a alteração atingiria o catálogo inteiro
+		FiltroCarroDTO vazio = new FiltroCarroDTO();
+		vazio.setMarca(" ");
+		assertThrows(IllegalArgumentException.class, () -> alteracaoLote.remover(vazio));
+		assertThrows(IllegalArgumentException.class, () -> alteracaoLote.reajustarValor(anosRecentes, -100));
+	}
+
+	private CarroDTO carro(String nomeMarca, String nomeModelo, int ano, String combustivel) {
+		CarroDTO dto = new CarroDTO();
+		dto.setNomeMarca(nomeMarca);
+		dto.setNomeModelo(nomeModelo);
+		dto.setAno(ano);
+		dto.setCombustivel(combustivel);
+		dto.setNumPortas(4);
+		dto.setCor("BRANCO");
+		dto.setValor(new BigDecimal("50000.5"));
+		return dto;
+	}
+}
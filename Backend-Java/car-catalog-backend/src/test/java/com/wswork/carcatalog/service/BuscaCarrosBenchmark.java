@@ -0,0 +1,116 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroIndiceDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.entity.Carro;
+import com.wswork.carcatalog.repository.CarroRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.MarcaRef;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.ModeloRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca combinada (/api/carros/search) pelo índice colunar em memória e pela consulta JPA no H2,
+ * com o mesmo catálogo carregado nos dois.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class BuscaCarrosBenchmark {
+
+	private static final int TAMANHO_BLOCO = 10_000;
+
+	@Param({"100000", "1000000"})
+	private int quantidade;
+
+	@Param({"id", "valor"})
+	private String ordem;
+
+	private ConfigurableApplicationContext contexto;
+	private CarroRepository carroRepository;
+	private IndiceColunarCarros indice;
+	private FiltroCarroDTO filtro;
+	private PageRequest pagina;
+
+	@Setup
+	public void preparar() {
+		contexto = DadosBenchmark.aplicacao("--catalogo.indice-colunar.habilitado=true");
+		carroRepository = contexto.getBean(CarroRepository.class);
+		indice = contexto.getBean(IndiceColunarCarros.class);
+		popular();
+		// Carregado uma vez ao final, em vez de a cada bloco inserido
+		indice.carregar();
+
+		filtro = new FiltroCarroDTO();
+		filtro.setMarca("fiat");
+		filtro.setAnoMin(2015);
+		filtro.setPrecoMax(150_000.0);
+		pagina = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, ordem));
+	}
+
+	@TearDown
+	public void encerrar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public Page<CarroRespostaDTO> jpa() {
+		return carroRepository.buscar(filtro, pagina);
+	}
+
+	@Benchmark
+	public Page<CarroRespostaDTO> indiceColunar() {
+		return indice.buscarPagina(filtro, pagina);
+	}
+
+	/**
+	 * Inserir o catálogo sintético direto pelos repositórios (sem eventos), em blocos
+	 */
+	private void popular() {
+		ResolvedorMarcaModelo resolvedor = contexto.getBean(ResolvedorMarcaModelo.class);
+		ModeloRepository modeloRepository = contexto.getBean(ModeloRepository.class);
+		TransactionTemplate transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+		Map<String, ModeloRef> modelos = new HashMap<>();
+		List<Carro> bloco = new ArrayList<>(TAMANHO_BLOCO);
+		for (CarroIndiceDTO linha : DadosBenchmark.indice(quantidade)) {
+			ModeloRef modelo = modelos.computeIfAbsent(linha.getNomeModelo(), nome -> {
+				MarcaRef marca = resolvedor.marca(linha.getNomeMarca());
+				return resolvedor.modelo(marca, nome);
+			});
+			bloco.add(new Carro(modeloRepository.getReferenceById(modelo.id()), linha.getAno(), linha.getCombustivel(),
+					linha.getNumPortas(), linha.getCor(), linha.getValor()));
+			if (bloco.size() == TAMANHO_BLOCO) {
+				transacao.executeWithoutResult(status -> carroRepository.saveAll(bloco));
+				bloco.clear();
+			}
+		}
+		transacao.executeWithoutResult(status -> carroRepository.saveAll(bloco));
+	}
+}
@@ -0,0 +1,80 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.ResultadoNomeDTO;
+import com.wswork.carcatalog.entity.Modelo;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import com.wswork.carcatalog.service.CacheNomesCatalogo.MarcaRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de modelos por trecho do nome: índice de trigramas em memória x LIKE '%texto%' no banco
+ * (findByNomeContainingIgnoreCase), com 200 marcas e 10 mil modelos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class BuscaNomesBenchmark {
+
+	private static final int MARCAS = 200;
+	private static final int MODELOS_POR_MARCA = 50;
+
+	@Param({"mod", "modelo 4", "modleo 42"})
+	private String texto;
+
+	private ConfigurableApplicationContext contexto;
+	private IndiceTrigramasNomes indice;
+	private ModeloRepository modeloRepository;
+
+	@Setup
+	public void preparar() {
+		contexto = DadosBenchmark.aplicacao();
+		ResolvedorMarcaModelo resolvedor = contexto.getBean(ResolvedorMarcaModelo.class);
+		for (int i = 0; i < MARCAS; i++) {
+			MarcaRef marca = resolvedor.marca("Marca " + i);
+			for (int j = 0; j < MODELOS_POR_MARCA; j++) {
+				resolvedor.modelo(marca, "Modelo " + i + "-" + j);
+			}
+		}
+		indice = contexto.getBean(IndiceTrigramasNomes.class);
+		modeloRepository = contexto.getBean(ModeloRepository.class);
+		indice.carregar();
+	}
+
+	@TearDown
+	public void encerrar() {
+		contexto.close();
+	}
+
+	@Benchmark
+	public List<ResultadoNomeDTO> indiceTrigramas() {
+		return indice.buscar(texto, 20);
+	}
+
+	@Benchmark
+	public List<Long> indiceContendo() {
+		return indice.idsModelosContendo(texto);
+	}
+
+	@Benchmark
+	public List<Modelo> like() {
+		return modeloRepository.findByNomeContainingIgnoreCase(texto);
+	}
+}
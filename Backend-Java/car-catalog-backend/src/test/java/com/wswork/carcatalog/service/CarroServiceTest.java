@@ -0,0 +1,271 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.LoteCarrosResultadoDTO;
+import com.wswork.carcatalog.dto.MarcaDTO;
+import com.wswork.carcatalog.dto.PaginaDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import com.wswork.carcatalog.repository.CarroRepository;
+import com.wswork.carcatalog.repository.MarcaRepository;
+import com.wswork.carcatalog.repository.ModeloRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("dev")
+class CarroServiceTest {
+
+	@Autowired
+	private CarroService carroService;
+
+	@Autowired
+	private MarcaService marcaService;
+
+	@Autowired
+	private CarroRepository carroRepository;
+
+	@Autowired
+	private MarcaRepository marcaRepository;
+
+	@Autowired
+	private ModeloRepository modeloRepository;
+
+	@Autowired
+	private CacheNomesCatalogo cacheNomes;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics estatisticas;
+
+	@BeforeEach
+	void setUp() {
+		estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		carroRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void listagensExecutamUmUnicoSelectIndependenteDoTamanho() {
+		criarCarros(3);
+		assertEquals(1, statementsPara(() -> assertEquals(3, carroService.buscarTodos().size())));
+
+		criarCarros(30);
+		assertEquals(1, statementsPara(() -> assertEquals(33, carroService.buscarTodos().size())));
+		assertEquals(1, statementsPara(() -> assertEquals(33, carroService.buscarTodosFormatados().size())));
+		assertEquals(1, statementsPara(() -> assertEquals(33, carroService.buscarPorAno(2020).size())));
+
+		Long id = carroService.buscarTodos().get(0).getId();
+		assertEquals(1, statementsPara(() -> assertEquals(id, carroService.buscarPorId(id).orElseThrow().getId())));
+	}
+
+	@Test
+	void paginacaoPorCursorPercorreTodosOsCarrosSemRepetir() {
+		criarCarros(25);
+
+		for (String ordem : List.of("id", "valor", "ano")) {
+			List<Long> ids = new ArrayList<>();
+			String cursor = null;
+			do {
+				PaginaDTO<CarroRespostaDTO> pagina = carroService.buscarPagina(cursor, 10, ordem);
+				pagina.getItens().forEach(carro -> ids.add(carro.getId()));
+				cursor = pagina.getProximoCursor();
+			} while (cursor != null);
+
+			assertEquals(25, ids.size());
+			assertEquals(25, new HashSet<>(ids).size());
+		}
+	}
+
+	@Test
+	void criacaoEmLoteResolveNomesPorConjuntoEAgrupaInserts() {
+		List<CarroDTO> carros = new ArrayList<>();
+		for (int i = 0; i < 240; i++) {
+			CarroDTO dto = new CarroDTO();
+			dto.setNomeMarca("Marca Lote " + (i % 3));
+			dto.setNomeModelo("Modelo Lote " + (i % 6));
+			dto.setAno(2015 + i % 8);
+			dto.setCombustivel("FLEX");
+			dto.setNumPortas(4);
+			dto.setCor("PRETO");
+			dto.setValor(BigDecimal.valueOf(40000 + i));
+			carros.add(dto);
+		}
+
+		long statements = statementsPara(() -> {
+			LoteCarrosResultadoDTO resultado = carroService.criarEmLote(carros);
+			assertEquals(240, resultado.getQuantidade());
+			assertEquals(6, resultado.getModelosCriados());
+			assertTrue(resultado.getIds().stream().allMatch(id -> id >= 1000));
+			assertEquals(240, new HashSet<>(resultado.getIds()).size());
+		});
+		// 2 consultas de nomes + 9 inserts de marca/modelo + poucos blocos de sequência e de INSERT de carros
+		assertTrue(statements < 40, "statements: " + statements);
+		assertEquals(240, carroService.buscarPorCombustivel("FLEX").size());
+
+		// Nomes já existentes, escritos com outras maiúsculas/espaços, não contam como criados
+		CarroDTO repetido = carros.get(0);
+		repetido.setNomeMarca(" marca lote 0 ");
+		repetido.setNomeModelo("MODELO LOTE 0");
+		CarroDTO novo = carros.get(1);
+		novo.setNomeModelo("Modelo Lote Novo");
+		LoteCarrosResultadoDTO segundo = carroService.criarEmLote(List.of(repetido, novo));
+		assertEquals(0, segundo.getMarcasCriadas());
+		assertEquals(1, segundo.getModelosCriados());
+	}
+
+	@Test
+	void criacaoComMarcaEModeloConhecidosNaoConsultaOsNomes() {
+		CarroRespostaDTO primeiro = carroService.criar(carro("Marca Cache", "Modelo Cache"));
+
+		// Nomes já conhecidos: apenas o INSERT do carro (e no máximo um avanço da sequência)
+		long statements = statementsPara(() -> {
+			for (int i = 0; i < 3; i++) {
+				CarroRespostaDTO criado = carroService.criar(carro(" marca cache", "MODELO CACHE "));
+				assertEquals("Marca Cache", criado.getNomeMarca());
+				assertEquals("Modelo Cache", criado.getNomeModelo());
+			}
+		});
+		assertTrue(statements <= 4, "statements: " + statements);
+
+		// Renomear a marca invalida a entrada: o nome antigo volta a criar uma marca nova
+		Long marcaId = marcaService.buscarPorNome("Marca Cache").orElseThrow().getId();
+		MarcaDTO renomeada = new MarcaDTO();
+		renomeada.setNomeMarca("Marca Cache Renomeada");
+		marcaService.atualizar(marcaId, renomeada);
+
+		assertEquals("Marca Cache Renomeada", carroService.buscarPorId(primeiro.getId()).orElseThrow().getNomeMarca());
+		assertEquals("Marca Cache", carroService.criar(carro("Marca Cache", "Modelo Cache")).getNomeMarca());
+		assertTrue(marcaService.buscarPorNome("Marca Cache").isPresent());
+	}
+
+	@Test
+	void buscaNoBancoAposFaltaNoCacheNormalizaONome() {
+		carroService.criar(carro("Marca Fria", "Modelo Frio"));
+		long marcas = marcaRepository.count();
+		long modelos = modeloRepository.count();
+
+		// Cache vazio: a marca e o modelo têm de ser achados no banco pelo nome normalizado
+		cacheNomes.aoAlterarCatalogo(new CatalogoAlteradoEvent(Entidade.MARCA, Operacao.LOTE, null));
+		CarroRespostaDTO criado = carroService.criar(carro(" marca fria ", "MODELO FRIO "));
+
+		assertEquals("Marca Fria", criado.getNomeMarca());
+		assertEquals("Modelo Frio", criado.getNomeModelo());
+		assertEquals(marcas, marcaRepository.count());
+		assertEquals(modelos, modeloRepository.count());
+	}
+
+	@Test
+	void criacaoConcorrenteComMarcasEModelosNovosNaoFalhaNemDuplica() throws Exception {
+		int threads = 8;
+		int carrosPorThread = 30;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch largada = new CountDownLatch(1);
+		List<Future<?>> tarefas = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			tarefas.add(executor.submit(() -> {
+				largada.await();
+				for (int i = 0; i < carrosPorThread; i++) {
+					// 3 marcas x 5 modelos, todos inexistentes: as primeiras criações disputam os mesmos nomes
+					carroService.criar(carro("Marca Concorrente " + (i % 3), "Modelo Concorrente " + (i % 5)));
+				}
+				return null;
+			}));
+		}
+		largada.countDown();
+		try {
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(threads * carrosPorThread, carroRepository.count());
+		for (int m = 0; m < 3; m++) {
+			assertTrue(marcaService.buscarPorNome("Marca Concorrente " + m).isPresent());
+		}
+		assertEquals(15, modeloRepository.findByNomeContainingIgnoreCase("Modelo Concorrente").size());
+	}
+
+	@Test
+	void atualizacaoERemocaoSaoUmSelectEUmaEscritaComControleDeVersao() {
+		Long id = carroService.criar(carro("Marca Versao", "Modelo Versao")).getId();
+		carroService.criar(carro("Marca Versao", "Modelo Versao 2"));
+		CarroDTO alteracao = carro("Marca Versao", "Modelo Versao 2");
+		alteracao.setValor(BigDecimal.valueOf(80000));
+
+		// Marca e modelo já conhecidos: leitura do estado (com a versão) e o UPDATE condicional
+		assertEquals(2, statementsPara(() -> assertEquals(1L, carroService.atualizar(id, alteracao, 0L).getVersao())));
+		assertEquals("Modelo Versao 2", carroService.buscarPorId(id).orElseThrow().getNomeModelo());
+
+		// Versão desatualizada: a edição concorrente é recusada em vez de sobrescrita
+		assertThrows(OptimisticLockingFailureException.class, () -> carroService.atualizar(id, carro("Marca Versao", "Modelo Versao"), 0L));
+		assertThrows(OptimisticLockingFailureException.class, () -> carroService.deletar(id, 0L));
+		assertEquals(1L, carroService.buscarEstadoPorId(id).orElseThrow().getVersao());
+
+		assertEquals(2, statementsPara(() -> carroService.deletar(id, 1L)));
+		assertTrue(carroService.buscarPorId(id).isEmpty());
+		assertThrows(RuntimeException.class, () -> carroService.deletar(id));
+	}
+
+	private void criarCarros(int quantidade) {
+		for (int i = 0; i < quantidade; i++) {
+			CarroDTO dto = new CarroDTO();
+			dto.setNomeMarca("Marca Teste " + (i % 7));
+			dto.setNomeModelo("Modelo Teste " + i);
+			dto.setAno(2020);
+			dto.setCombustivel("FLEX");
+			dto.setNumPortas(4);
+			dto.setCor("PRATA");
+			dto.setValor(BigDecimal.valueOf(50000 + i));
+			carroService.criar(dto);
+		}
+	}
+
+	private CarroDTO carro(String nomeMarca, String nomeModelo) {
+		CarroDTO dto = new CarroDTO();
+		dto.setNomeMarca(nomeMarca);
+		dto.setNomeModelo(nomeModelo);
+		dto.setAno(2021);
+		dto.setCombustivel("GASOLINA");
+		dto.setNumPortas(2);
+		dto.setCor("AZUL");
+		dto.setValor(BigDecimal.valueOf(75000));
+		return dto;
+	}
+
+	private long statementsPara(Runnable consulta) {
+		estatisticas.clear();
+		consulta.run();
+		return estatisticas.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,81 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroFormatadoDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.entity.Carro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de carros para os DTOs de resposta: a partir da entidade (CarroService) e pelos construtores
+ * usados nas projeções JPQL, incluindo BigDecimal.valueOf(double) do valor. Cada operação converte a lista inteira.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class ConversaoCarrosBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int quantidade;
+
+	private List<Carro> carros;
+	private String[] nomesModelos;
+	private long[] modeloIds;
+
+	@Setup
+	public void preparar() {
+		carros = DadosBenchmark.carros(quantidade);
+		nomesModelos = new String[carros.size()];
+		modeloIds = new long[carros.size()];
+		for (int i = 0; i < nomesModelos.length; i++) {
+			int marca = i % DadosBenchmark.MARCAS.length;
+			int modelo = i % DadosBenchmark.MODELOS_POR_MARCA;
+			nomesModelos[i] = DadosBenchmark.nomeModelo(marca, modelo);
+			modeloIds[i] = DadosBenchmark.modeloId(marca, modelo);
+		}
+	}
+
+	@Benchmark
+	public void entidadeParaResposta(Blackhole bh) {
+		for (int i = 0; i < carros.size(); i++) {
+			bh.consume(CarroService.converterParaRespostaDTO(carros.get(i), nomesModelos[i],
+					DadosBenchmark.MARCAS[i % DadosBenchmark.MARCAS.length]));
+		}
+	}
+
+	@Benchmark
+	public void projecaoResposta(Blackhole bh) {
+		for (int i = 0; i < carros.size(); i++) {
+			Carro carro = carros.get(i);
+			bh.consume(new CarroRespostaDTO(carro.getId(), nomesModelos[i], DadosBenchmark.MARCAS[i % DadosBenchmark.MARCAS.length],
+					carro.getAno(), carro.getCombustivel(), carro.getNumPortas(), carro.getCor(), carro.getValor(),
+					carro.getTimestampCadastro(), carro.getDataCriacao(), carro.getDataAtualizacao()));
+		}
+	}
+
+	@Benchmark
+	public void projecaoFormatado(Blackhole bh) {
+		for (int i = 0; i < carros.size(); i++) {
+			Carro carro = carros.get(i);
+			bh.consume(new CarroFormatadoDTO(carro.getId(), carro.getTimestampCadastro(), modeloIds[i], carro.getAno(),
+					carro.getCombustivel(), carro.getNumPortas(), carro.getCor(), nomesModelos[i], carro.getValor(),
+					DadosBenchmark.MARCAS[i % DadosBenchmark.MARCAS.length]));
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.CarroIndiceDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.event.TransactionalApplicationListener;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão de criação de carros (o trabalho do POST /api/carros, sem a camada HTTP) com o log estruturado
+ * das alterações ligado (INFO, assíncrono), desligado (OFF) e, como referência, trocado por um
+ * System.out.println síncrono da mesma linha após o commit (SYSTEM_OUT). O console vai para um arquivo
+ * temporário com flush a cada linha, como um stdout redirecionado: no modo síncrono a thread da requisição
+ * paga a escrita, no assíncrono só o enfileiramento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Threads(4)
+public class CriacaoCarrosBenchmark {
+
+	private static final int QUANTIDADE_VARIACOES = 4096;
+
+	@Param({"INFO", "OFF", "SYSTEM_OUT"})
+	private String logMutacoes;
+
+	private ConfigurableApplicationContext contexto;
+	private CarroService carroService;
+	private PrintStream saidaOriginal;
+	private Path console;
+	private CarroDTO[] carros;
+	private final AtomicInteger proximo = new AtomicInteger();
+
+	@Setup
+	public void preparar() throws IOException {
+		saidaOriginal = System.out;
+		console = Files.createTempFile("criacao-carros", ".log");
+		System.setOut(new PrintStream(new FileOutputStream(console.toFile()), true));
+		boolean systemOut = logMutacoes.equals("SYSTEM_OUT");
+		contexto = DadosBenchmark.aplicacao("--logging.level.catalogo.mutacoes=" + (systemOut ? "OFF" : logMutacoes));
+		carroService = contexto.getBean(CarroService.class);
+		if (systemOut) {
+			contexto.addApplicationListener(TransactionalApplicationListener.forPayload(
+					(CatalogoAlteradoEvent evento) -> System.out.println(OffsetDateTime.now() + "  INFO --- ["
+							+ Thread.currentThread().getName() + "] catalogo.mutacoes : catalogo alterado entidade="
+							+ evento.getEntidade() + " operacao=" + evento.getOperacao() + " id=" + evento.getId())));
+		}
+
+		List<CarroIndiceDTO> linhas = DadosBenchmark.indice(QUANTIDADE_VARIACOES);
+		carros = new CarroDTO[linhas.size()];
+		for (int i = 0; i < carros.length; i++) {
+			CarroIndiceDTO linha = linhas.get(i);
+			CarroDTO dto = new CarroDTO();
+			dto.setNomeMarca(linha.getNomeMarca());
+			dto.setNomeModelo(linha.getNomeModelo());
+			dto.setAno(linha.getAno());
+			dto.setCombustivel(linha.getCombustivel());
+			dto.setNumPortas(linha.getNumPortas());
+			dto.setCor(linha.getCor());
+			dto.setValor(BigDecimal.valueOf(linha.getValor()));
+			carros[i] = dto;
+		}
+	}
+
+	@TearDown
+	public void encerrar() throws IOException {
+		contexto.close();
+		System.out.close();
+		System.setOut(saidaOriginal);
+		Files.deleteIfExists(console);
+	}
+
+	@Benchmark
+	public CarroRespostaDTO criar() {
+		return carroService.criar(carros[Math.floorMod(proximo.getAndIncrement(), carros.length)]);
+	}
+}
@@ -0,0 +1,126 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.CarCatalogBackendApplication;
+import com.wswork.carcatalog.dto.CarroFormatadoDTO;
+import com.wswork.carcatalog.dto.CarroIndiceDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.entity.Carro;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Catálogo sintético (determinístico) usado pelos benchmarks JMH
+ */
+final class DadosBenchmark {
+
+	static final String[] MARCAS = {"Toyota", "Volkswagen", "Fiat", "Chevrolet", "Honda", "Hyundai", "Renault", "Jeep"};
+	static final String[] COMBUSTIVEIS = {"FLEX", "GASOLINA", "DIESEL", "ELETRICO", "HIBRIDO"};
+	static final String[] CORES = {"PRATA", "PRETO", "BRANCO", "CINZA", "VERMELHO", "AZUL"};
+	static final int MODELOS_POR_MARCA = 12;
+
+	private static final LocalDateTime DATA_BASE = LocalDateTime.of(2024, 1, 1, 8, 0);
+	private static final long ID_INICIAL = 1000L;
+
+	private DadosBenchmark() {
+	}
+
+	/**
+	 * Subir a aplicação sem servidor web, com o banco H2 do perfil dev e os níveis de log de produção
+	 */
+	static ConfigurableApplicationContext aplicacao(String... argumentos) {
+		List<String> todos = new ArrayList<>(List.of(
+				"--spring.jpa.show-sql=false",
+				"--spring.jpa.properties.hibernate.format_sql=false",
+				"--logging.level.org.springframework.web=INFO",
+				"--logging.level.org.hibernate.SQL=WARN",
+				"--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+				"--logging.level.com.wswork.carcatalog=INFO"));
+		todos.addAll(List.of(argumentos));
+		return new SpringApplicationBuilder(CarCatalogBackendApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("dev")
+				.run(todos.toArray(String[]::new));
+	}
+
+	static List<Carro> carros(int quantidade) {
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		List<Carro> carros = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			Carro carro = new Carro(null, ano(aleatorio), combustivel(aleatorio), portas(aleatorio), cor(aleatorio), valor(aleatorio));
+			carro.setId(ID_INICIAL + i);
+			carro.setDataCriacao(DATA_BASE.plusSeconds(i));
+			carro.setDataAtualizacao(DATA_BASE.plusSeconds(i));
+			carros.add(carro);
+		}
+		return carros;
+	}
+
+	static List<CarroRespostaDTO> respostas(int quantidade) {
+		List<CarroRespostaDTO> respostas = new ArrayList<>(quantidade);
+		for (CarroIndiceDTO linha : indice(quantidade)) {
+			respostas.add(new CarroRespostaDTO(linha.getId(), linha.getNomeModelo(), linha.getNomeMarca(), linha.getAno(),
+					linha.getCombustivel(), linha.getNumPortas(), linha.getCor(), linha.getValor(),
+					linha.getTimestampCadastro(), linha.getDataCriacao(), linha.getDataAtualizacao()));
+		}
+		return respostas;
+	}
+
+	static List<CarroFormatadoDTO> formatados(int quantidade) {
+		List<CarroFormatadoDTO> formatados = new ArrayList<>(quantidade);
+		for (CarroIndiceDTO linha : indice(quantidade)) {
+			formatados.add(new CarroFormatadoDTO(linha.getId(), linha.getTimestampCadastro(), linha.getModeloId(),
+					linha.getAno(), linha.getCombustivel(), linha.getNumPortas(), linha.getCor(), linha.getNomeModelo(),
+					linha.getValor(), linha.getNomeMarca()));
+		}
+		return formatados;
+	}
+
+	static List<CarroIndiceDTO> indice(int quantidade) {
+		SplittableRandom aleatorio = new SplittableRandom(42);
+		List<CarroIndiceDTO> linhas = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			int marca = aleatorio.nextInt(MARCAS.length);
+			int modelo = aleatorio.nextInt(MODELOS_POR_MARCA);
+			linhas.add(new CarroIndiceDTO(ID_INICIAL + i, modeloId(marca, modelo), nomeModelo(marca, modelo),
+					(long) marca + 1, MARCAS[marca], ano(aleatorio), combustivel(aleatorio), portas(aleatorio),
+					cor(aleatorio), valor(aleatorio), 1_704_096_000L + i, DATA_BASE.plusSeconds(i), DATA_BASE.plusSeconds(i)));
+		}
+		return linhas;
+	}
+
+	// Ids dos modelos: de 1 a MARCAS.length * MODELOS_POR_MARCA, em sequência por marca
+	static long modeloId(int marca, int modelo) {
+		return (long) marca * MODELOS_POR_MARCA + modelo + 1;
+	}
+
+	static String nomeModelo(int marca, int modelo) {
+		return MARCAS[marca] + " Modelo " + (modelo + 1);
+	}
+
+	private static int ano(SplittableRandom aleatorio) {
+		return 2000 + aleatorio.nextInt(26);
+	}
+
+	private static String combustivel(SplittableRandom aleatorio) {
+		return COMBUSTIVEIS[aleatorio.nextInt(COMBUSTIVEIS.length)];
+	}
+
+	private static int portas(SplittableRandom aleatorio) {
+		return aleatorio.nextBoolean() ? 4 : 2;
+	}
+
+	private static String cor(SplittableRandom aleatorio) {
+		return CORES[aleatorio.nextInt(CORES.length)];
+	}
+
+	// Valores com centavos, como chegam pela API
+	private static double valor(SplittableRandom aleatorio) {
+		return Math.round(aleatorio.nextDouble(20_000, 400_000) * 100) / 100.0;
+	}
+}
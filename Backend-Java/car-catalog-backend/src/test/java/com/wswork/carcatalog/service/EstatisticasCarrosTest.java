@@ -0,0 +1,132 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.EstatisticaGrupoDTO;
+import com.wswork.carcatalog.dto.EstatisticasCarrosDTO;
+import com.wswork.carcatalog.repository.CarroRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class EstatisticasCarrosTest {
+
+	@Autowired
+	private EstatisticasCarros estatisticas;
+
+	@Autowired
+	private CarroService carroService;
+
+	@MockitoSpyBean
+	private CarroRepository carroRepository;
+
+	@Test
+	void acumuladoresAcompanhamCriacaoAtualizacaoRemocaoELote() {
+		// Outros contextos de teste recriam o banco em memória: partir do conteúdo atual
+		estatisticas.carregar();
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			ids.add(carroService.criar(carro("Marca Stats " + (i % 2), "Modelo Stats " + (i % 4), 2018 + i % 3,
+					i % 2 == 0 ? "FLEX" : "DIESEL", 30000 + i * 1000)).getId());
+		}
+		conferir();
+
+		// Atualizar troca modelo, ano e valor; remover desconta, inclusive o valor mínimo do grupo
+		carroService.atualizar(ids.get(1), carro("Marca Stats 0", "Modelo Stats 2", 2024, "ELETRICO", 99999.5));
+		carroService.deletar(ids.get(0));
+		conferir();
+
+		carroService.criarEmLote(List.of(carro("Marca Stats 1", "Modelo Stats 9", 2010, "GASOLINA", 15000)));
+		conferir();
+	}
+
+	@Test
+	void alteracoesDuranteACargaNaoSaoContadasDuasVezes() throws Exception {
+		estatisticas.carregar();
+		Long atualizado = carroService.criar(carro("Marca Stats Carga", "Modelo Stats A", 2019, "FLEX", 41000)).getId();
+		Long removido = carroService.criar(carro("Marca Stats Carga", "Modelo Stats A", 2020, "FLEX", 42000)).getId();
+
+		// O espião de um repositório do Spring Data delega ao proxy original pela resposta padrão
+		Answer<?> original = mockingDetails(carroRepository).getMockCreationSettings().getDefaultAnswer();
+		// Escritas de outras threads enquanto a carga roda: uma antes da leitura dos carros, com o aviso
+		// entregue durante a carga, e duas depois dela
+		doAnswer(invocacao -> {
+			emOutraThread(() -> carroService.criar(carro("Marca Stats Carga", "Modelo Stats B", 2021, "DIESEL", 43000)));
+			Object linhas = original.answer(invocacao);
+			emOutraThread(() -> carroService.atualizar(atualizado,
+					carro("Marca Stats Carga", "Modelo Stats B", 2022, "ELETRICO", 44000)));
+			emOutraThread(() -> carroService.deletar(removido));
+			return linhas;
+		}).when(carroRepository).streamAllIndice();
+		estatisticas.carregar();
+
+		conferir();
+	}
+
+	// Com prazo: uma escrita que espere pela carga travaria o teste
+	private static void emOutraThread(Runnable escrita) throws Exception {
+		CompletableFuture.runAsync(escrita).get(30, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Comparar as estatísticas com as calculadas a partir da listagem de todos os carros
+	 */
+	private void conferir() {
+		List<CarroRespostaDTO> carros = carroService.buscarTodos();
+		EstatisticasCarrosDTO resumo = estatisticas.resumo();
+
+		assertEquals(carros.size(), resumo.getTotal());
+		Map<String, DoubleSummaryStatistics> porMarca = carros.stream().collect(Collectors.groupingBy(
+				CarroRespostaDTO::getNomeMarca, Collectors.summarizingDouble(carro -> carro.getValor().doubleValue())));
+		assertEquals(porMarca.keySet(), resumo.getPorMarca().stream().map(EstatisticaGrupoDTO::getNome).collect(Collectors.toSet()));
+		for (EstatisticaGrupoDTO marca : resumo.getPorMarca()) {
+			DoubleSummaryStatistics esperado = porMarca.get(marca.getNome());
+			assertEquals(esperado.getCount(), marca.getQuantidade());
+			assertEquals(esperado.getMin(), marca.getValorMinimo());
+			assertEquals(esperado.getMax(), marca.getValorMaximo());
+			assertEquals(esperado.getSum(), marca.getValorTotal(), 0.001);
+		}
+		Map<String, Long> porModelo = contar(carros, carro -> carro.getNomeMarca() + "/" + carro.getNomeModelo());
+		assertEquals(porModelo, resumo.getPorModelo().stream().collect(Collectors.toMap(
+				modelo -> modelo.getNomeMarca() + "/" + modelo.getNome(), EstatisticaGrupoDTO::getQuantidade)));
+		assertEquals(contar(carros, CarroRespostaDTO::getAno), resumo.getPorAno());
+		assertEquals(contar(carros, CarroRespostaDTO::getCombustivel), resumo.getPorCombustivel());
+		assertEquals(contar(carros, CarroRespostaDTO::getCor), resumo.getPorCor());
+	}
+
+	private static <K> Map<K, Long> contar(List<CarroRespostaDTO> carros, Function<CarroRespostaDTO, K> chave) {
+		return carros.stream().collect(Collectors.groupingBy(chave, TreeMap::new, Collectors.counting()));
+	}
+
+	private CarroDTO carro(String marca, String modelo, int ano, String combustivel, double valor) {
+		CarroDTO dto = new CarroDTO();
+		dto.setNomeMarca(marca);
+		dto.setNomeModelo(modelo);
+		dto.setAno(ano);
+		dto.setCombustivel(combustivel);
+		dto.setNumPortas(4);
+		dto.setCor("PRATA");
+		dto.setValor(BigDecimal.valueOf(valor));
+		return dto;
+	}
+}
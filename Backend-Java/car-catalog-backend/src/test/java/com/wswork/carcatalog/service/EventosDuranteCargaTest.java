@@ -0,0 +1,38 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventosDuranteCargaTest {
+
+	@Test
+	void eventosDuranteACargaSaoEntreguesAoFimDelaNaOrdem() {
+		EventosDuranteCarga eventosDuranteCarga = new EventosDuranteCarga();
+		List<Long> aplicados = new ArrayList<>();
+		List<Long> reconciliados = new ArrayList<>();
+
+		eventosDuranteCarga.aplicarOuAdiar(evento(1L), evento -> aplicados.add(evento.getId()));
+		eventosDuranteCarga.iniciar();
+		eventosDuranteCarga.aplicarOuAdiar(evento(2L), evento -> aplicados.add(evento.getId()));
+		eventosDuranteCarga.aplicarOuAdiar(evento(3L), evento -> aplicados.add(evento.getId()));
+		assertEquals(List.of(1L), aplicados);
+
+		eventosDuranteCarga.concluir(eventos -> eventos.forEach(evento -> reconciliados.add(evento.getId())));
+		assertEquals(List.of(2L, 3L), reconciliados);
+
+		// Fora da carga, de novo aplicados na hora
+		eventosDuranteCarga.aplicarOuAdiar(evento(4L), evento -> aplicados.add(evento.getId()));
+		assertEquals(List.of(1L, 4L), aplicados);
+	}
+
+	private static CatalogoAlteradoEvent evento(Long id) {
+		return new CatalogoAlteradoEvent(Entidade.MODELO, Operacao.ATUALIZADO, id);
+	}
+}
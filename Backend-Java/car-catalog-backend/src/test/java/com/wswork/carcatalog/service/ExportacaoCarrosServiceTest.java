@@ -0,0 +1,70 @@
+package com.wswork.carcatalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.service.ExportacaoCarrosService.Formato;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class ExportacaoCarrosServiceTest {
+
+	@Autowired
+	private ExportacaoCarrosService exportacao;
+
+	@Autowired
+	private CarroService carroService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void exportaTodosOsCarrosEmNdjsonECsv() throws Exception {
+		CarroDTO dto = new CarroDTO();
+		dto.setNomeMarca("Marca Export");
+		dto.setNomeModelo("Modelo \"Export\", 2.0");
+		dto.setAno(2021);
+		dto.setCombustivel("FLEX");
+		dto.setNumPortas(4);
+		dto.setCor("PRETO");
+		dto.setValor(new BigDecimal("45000.5"));
+		Long id = carroService.criar(dto).getId();
+		List<CarroRespostaDTO> carros = carroService.buscarTodos();
+
+		String[] linhasNdjson = exportar(Formato.NDJSON).split("\n");
+		assertEquals(carros.size(), linhasNdjson.length);
+		for (int i = 0; i < carros.size(); i++) {
+			JsonNode linha = objectMapper.readTree(linhasNdjson[i]);
+			assertEquals(carros.get(i).getId(), linha.get("id").asLong());
+			assertEquals(carros.get(i).getNomeModelo(), linha.get("nomeModelo").asText());
+		}
+
+		String[] linhasCsv = exportar(Formato.CSV).split("\r\n");
+		assertEquals(carros.size() + 1, linhasCsv.length);
+		assertTrue(linhasCsv[0].startsWith("id,nomeModelo,nomeMarca,"));
+		String esperado = id + ",\"Modelo \"\"Export\"\", 2.0\",Marca Export,2021,FLEX,4,PRETO,45000.5,";
+		assertTrue(List.of(linhasCsv).stream().anyMatch(linha -> linha.startsWith(esperado)));
+
+		assertThrows(IllegalArgumentException.class, () -> Formato.de("xml"));
+	}
+
+	private String exportar(Formato formato) throws Exception {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream();
+		exportacao.exportar(formato, saida);
+		return saida.toString(StandardCharsets.UTF_8);
+	}
+}
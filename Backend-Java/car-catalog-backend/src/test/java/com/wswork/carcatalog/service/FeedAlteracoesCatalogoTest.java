@@ -0,0 +1,72 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.MarcaDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class FeedAlteracoesCatalogoTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MarcaService marcaService;
+
+	@Test
+	void enviaAlteracoesEResyncParaQuemReconectaAtrasado() throws Exception {
+		MockHttpServletResponse feed = mockMvc.perform(get("/api/carros/stream").accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn().getResponse();
+
+		MarcaDTO marca = marcaService.criar(new MarcaDTO(null, "Marca Feed", null, null));
+		String esperado = "event:alteracao\ndata:{\"entidade\":\"MARCA\",\"operacao\":\"CRIADO\",\"id\":" + marca.getId() + "}";
+		assertTrue(aguardar(feed, esperado), feed.getContentAsString());
+
+		// Reconexão com um id anterior ao último evento: o cliente perdeu alterações e deve recarregar
+		MockHttpServletResponse reconexao = reconectar("0");
+		assertTrue(aguardar(reconexao, "event:resync"), reconexao.getContentAsString());
+
+		// Com o id do último evento nada se perdeu: segue recebendo as alterações, sem "resync"
+		Matcher ultimoId = Pattern.compile("id:(\\S+)\nevent:alteracao").matcher(feed.getContentAsString());
+		assertTrue(ultimoId.find());
+		MockHttpServletResponse emDia = reconectar(ultimoId.group(1));
+		MarcaDTO outra = marcaService.criar(new MarcaDTO(null, "Marca Feed 2", null, null));
+		assertTrue(aguardar(emDia, "\"id\":" + outra.getId() + "}"), emDia.getContentAsString());
+		assertFalse(emDia.getContentAsString().contains("event:resync"), emDia.getContentAsString());
+
+		// O mesmo número de evento de antes de um reinício (outra época) não vale como em dia
+		String numero = ultimoId.group(1).substring(ultimoId.group(1).indexOf('-') + 1);
+		MockHttpServletResponse outraEpoca = reconectar("0-" + (Long.parseLong(numero) + 1));
+		assertTrue(aguardar(outraEpoca, "event:resync"), outraEpoca.getContentAsString());
+	}
+
+	private MockHttpServletResponse reconectar(String ultimoIdRecebido) throws Exception {
+		return mockMvc.perform(get("/api/carros/stream").header("Last-Event-ID", ultimoIdRecebido))
+				.andExpect(request().asyncStarted())
+				.andReturn().getResponse();
+	}
+
+	private static boolean aguardar(MockHttpServletResponse resposta, String trecho) throws Exception {
+		for (int i = 0; i < 100 && !resposta.getContentAsString().contains(trecho); i++) {
+			Thread.sleep(50);
+		}
+		return resposta.getContentAsString().contains(trecho);
+	}
+}
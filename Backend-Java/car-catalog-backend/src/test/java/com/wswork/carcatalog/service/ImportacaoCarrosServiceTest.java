@@ -0,0 +1,91 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.ImportacaoResultadoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class ImportacaoCarrosServiceTest {
+
+	@Autowired
+	private ImportacaoCarrosService importacao;
+
+	@Autowired
+	private CarroService carroService;
+
+	@Test
+	void importaEmBlocosERejeitaRegistrosInvalidos() throws Exception {
+		StringBuilder json = new StringBuilder("{\"versao\": {\"ignorado\": [1, 2]}, \"cars\": [");
+		for (int i = 0; i < 2500; i++) {
+			json.append(i > 0 ? "," : "").append("""
+					{"id": %d, "timestamp_cadastro": 1696539488, "modelo_id": 12, "ano": %d, "combustivel": "FLEX",
+					 "num_portas": 4, "cor": "AZUL", "nome_modelo": "Import %d", "valor": %d, "marca": "Marca Import"}"""
+					.formatted(i, 2010 + i % 10, i % 7, 20000 + i));
+		}
+		// Sem marca, ano fora do intervalo e tipo inválido: rejeitados sem interromper a importação
+		json.append(",{\"ano\": 2020, \"combustivel\": \"FLEX\", \"num_portas\": 4, \"cor\": \"AZUL\", \"nome_modelo\": \"X\", \"valor\": 1}");
+		json.append(",{\"ano\": 1800, \"combustivel\": \"FLEX\", \"num_portas\": 4, \"cor\": \"AZUL\", \"nome_modelo\": \"X\", \"valor\": 1, \"marca\": \"M\"}");
+		json.append(",{\"ano\": \"novo\", \"marca\": \"M\", \"nome_modelo\": \"X\"}");
+		json.append("]}");
+
+		long antes = carrosDaMarca("Marca Import");
+		ImportacaoResultadoDTO resultado = importacao.importar(
+				new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(2503, resultado.getLidos());
+		assertEquals(2500, resultado.getImportados());
+		assertEquals(3, resultado.getRejeitados());
+		assertEquals(3, resultado.getErros().size());
+		assertEquals(3, resultado.getBlocos());
+		assertTrue(resultado.getCarrosPorSegundo() > 0);
+		assertEquals(antes + 2500, carrosDaMarca("Marca Import"));
+
+		// Estrutura inválida é rejeitada por inteiro
+		assertThrows(IllegalArgumentException.class, () -> importacao.importar(
+				new ByteArrayInputStream("{\"carros\": []}".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	void jsonInvalidoNoMeioMantemOsBlocosGravadosEInformaAPosicao() throws Exception {
+		StringBuilder json = new StringBuilder("{\"cars\": [");
+		for (int i = 0; i < 5; i++) {
+			json.append("""
+					{"ano": 2015, "combustivel": "FLEX", "num_portas": 4, "cor": "PRETO", "nome_modelo": "Parcial",
+					 "valor": %d, "marca": "Marca Import Parcial"},""".formatted(30000 + i));
+		}
+		json.append("{\"ano\": 2015, \"marca\": }]}");
+
+		long antes = carrosDaMarca("Marca Import Parcial");
+		ImportacaoResultadoDTO resultado = importacao.importar(
+				new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)), 2);
+
+		// Dois blocos completos e o incompleto com o quinto carro, lido antes do erro
+		assertEquals(5, resultado.getImportados());
+		assertEquals(3, resultado.getBlocos());
+		assertEquals(5, resultado.getPosicaoErro());
+		assertTrue(resultado.getErros().get(0).startsWith("JSON inválido no carro na posição 5"));
+		assertEquals(antes + 5, carrosDaMarca("Marca Import Parcial"));
+	}
+
+	@Test
+	void tamanhoDeBlocoForaDoIntervaloERecusado() {
+		for (int tamanhoBloco : new int[] {0, -1, 10_001}) {
+			assertThrows(IllegalArgumentException.class, () -> importacao.importar(
+					new ByteArrayInputStream("{\"cars\": []}".getBytes(StandardCharsets.UTF_8)), tamanhoBloco));
+		}
+	}
+
+	private long carrosDaMarca(String nomeMarca) {
+		return carroService.buscarTodos().stream().filter(carro -> nomeMarca.equals(carro.getNomeMarca())).count();
+	}
+}
@@ -0,0 +1,78 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import com.wswork.carcatalog.dto.MarcaDTO;
+import com.wswork.carcatalog.dto.ModeloDTO;
+import com.wswork.carcatalog.dto.SugestaoDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class IndiceAutocompleteTest {
+
+	@Autowired
+	private IndiceAutocomplete indice;
+
+	@Autowired
+	private CarroService carroService;
+
+	@Autowired
+	private MarcaService marcaService;
+
+	@Autowired
+	private ModeloService modeloService;
+
+	@Test
+	void sugereOsMaisReferenciadosPrimeiroEAcompanhaAlteracoes() {
+		assertTrue(indice.ativo());
+		MarcaDTO marca = marcaService.criar(new MarcaDTO(null, "Zetta Motors", null, null));
+		ModeloDTO zetaline = modeloService.criar(new ModeloDTO(null, marca.getId(), null, "Zetaline", BigDecimal.TEN, null, null));
+		CarroRespostaDTO primeiro = carroService.criar(carro("Zetta Motors", "Zeta Cross"));
+		carroService.criar(carro("Zetta Motors", "Zeta Cross"));
+		carroService.criar(carro("Zetta Motors", "Zetaline"));
+
+		// Marca soma os carros dos modelos; modelo mais referenciado antes do menos
+		assertEquals(List.of("Zetta Motors", "Zeta Cross", "Zetaline"), nomes("ZET"));
+		assertEquals(3L, indice.sugerir("zetta", 1).get(0).getCarros());
+		// Também pelo início de qualquer palavra do nome
+		assertEquals(List.of("Zeta Cross"), nomes("cro"));
+
+		// Carro trocado de modelo move o peso
+		carroService.atualizar(primeiro.getId(), carro("Zetta Motors", "Zetaline"));
+		carroService.criar(carro("Zetta Motors", "Zetaline"));
+		assertEquals(List.of("Zetta Motors", "Zetaline", "Zeta Cross"), nomes("zet"));
+
+		// Renomear o modelo troca as chaves dele na árvore
+		zetaline.setNome("Omega Line");
+		modeloService.atualizar(zetaline.getId(), zetaline);
+		assertEquals(List.of("Zetta Motors", "Zeta Cross"), nomes("zet"));
+		assertEquals(3L, indice.sugerir("omega", 1).get(0).getCarros());
+		assertTrue(nomes("zetal").isEmpty());
+	}
+
+	private List<String> nomes(String prefixo) {
+		return indice.sugerir(prefixo, IndiceAutocomplete.SUGESTOES_POR_NO).stream().map(SugestaoDTO::getNome).toList();
+	}
+
+	private CarroDTO carro(String marca, String modelo) {
+		CarroDTO dto = new CarroDTO();
+		dto.setNomeMarca(marca);
+		dto.setNomeModelo(modelo);
+		dto.setAno(2024);
+		dto.setCombustivel("FLEX");
+		dto.setNumPortas(4);
+		dto.setCor("PRATA");
+		dto.setValor(BigDecimal.valueOf(50000));
+		return dto;
+	}
+}
@@ -0,0 +1,128 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.CarroDTO;
+import com.wswork.carcatalog.dto.FiltroCarroDTO;
+import com.wswork.carcatalog.repository.CarroRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "catalogo.indice-colunar.habilitado=true")
+@ActiveProfiles("dev")
+class IndiceColunarCarrosTest {
+
+	@Autowired
+	private CarroService carroService;
+
+	@Autowired
+	private CarroRepository carroRepository;
+
+	@Autowired
+	private IndiceColunarCarros indice;
+
+	@AfterEach
+	void tearDown() {
+		carroRepository.deleteAllInBatch();
+		indice.carregar();
+	}
+
+	@Test
+	void indiceAcompanhaCriacaoAtualizacaoERemocao() {
+		assertTrue(indice.ativo());
+		for (int i = 0; i < 20; i++) {
+			carroService.criar(carro("Marca " + (i % 3), "Modelo " + (i % 5), 2010 + i % 10, i % 2 == 0 ? "FLEX" : "DIESEL",
+					BigDecimal.valueOf(30000 + i * 1000.5)));
+		}
+		assertEquals(carroRepository.findAllResposta(), carroService.buscarTodos());
+
+		Long id = carroService.buscarTodos().get(3).getId();
+		carroService.atualizar(id, carro("Marca 9", "Modelo 9", 2024, "ELETRICO", BigDecimal.valueOf(99999.99)));
+		carroService.deletar(carroService.buscarTodos().get(0).getId());
+
+		assertEquals(carroRepository.findAllResposta(), carroService.buscarTodos());
+		assertEquals(carroRepository.findRespostaByCombustivel("FLEX"), carroService.buscarPorCombustivel("FLEX"));
+		assertEquals(carroRepository.findRespostaByAno(2024), carroService.buscarPorAno(2024));
+
+		FiltroCarroDTO filtro = new FiltroCarroDTO();
+		filtro.setMarca("marca 1");
+		filtro.setPrecoMin(32000.0);
+		for (String ordem : List.of("id", "valor", "ano")) {
+			for (Sort.Direction direcao : Sort.Direction.values()) {
+				PageRequest pagina = PageRequest.of(0, 50, Sort.by(direcao, ordem));
+				assertEquals(carroRepository.buscar(filtro, pagina).getContent(),
+						indice.buscarPagina(filtro, pagina).getContent());
+			}
+		}
+	}
+
+	@Test
+	void filtrosDeTextoNaoDiferenciamMaiusculasComoOBanco() {
+		for (int i = 0; i < 6; i++) {
+			carroService.criar(carro("Marca " + (i % 2), "Modelo " + (i % 3), 2020, i % 2 == 0 ? "FLEX" : "Diesel",
+					BigDecimal.valueOf(50000 + i)));
+		}
+		FiltroCarroDTO filtro = new FiltroCarroDTO();
+		filtro.setCor("prata");
+		filtro.setCombustivel("diesel");
+		filtro.setModelo("MODELO 1");
+		filtro.setMarca("mArCa 1");
+		PageRequest pagina = PageRequest.of(0, 50, Sort.by("id"));
+		List<?> esperado = carroRepository.buscar(filtro, pagina).getContent();
+		assertFalse(esperado.isEmpty());
+		assertEquals(esperado, indice.buscarPagina(filtro, pagina).getContent());
+	}
+
+	@Test
+	void ordemDecrescenteDesempataPorIdCrescenteComoORepositorio() {
+		for (int i = 0; i < 6; i++) {
+			carroService.criar(carro("Marca 1", "Modelo 1", 2020 + i % 2, "FLEX", BigDecimal.valueOf(50000 + 1000 * (i % 2))));
+		}
+		FiltroCarroDTO filtro = new FiltroCarroDTO();
+		for (String ordem : List.of("valor", "ano")) {
+			PageRequest pagina = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, ordem));
+			assertEquals(carroRepository.buscar(filtro, pagina).getContent(),
+					indice.buscarPagina(filtro, pagina).getContent());
+		}
+	}
+
+	@Test
+	void loteRecarregaOIndiceEmOutraThread() throws InterruptedException {
+		carroService.criar(carro("Marca 1", "Modelo 1", 2020, "FLEX", BigDecimal.valueOf(50000)));
+		List<CarroDTO> lote = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			lote.add(carro("Marca 2", "Modelo " + i, 2015 + i, "DIESEL", BigDecimal.valueOf(40000 + i)));
+		}
+		carroService.criarEmLote(lote);
+
+		for (int i = 0; i < 100 && !indice.ativo(); i++) {
+			Thread.sleep(50);
+		}
+		assertTrue(indice.ativo());
+		assertEquals(11, indice.quantidade());
+		assertEquals(carroRepository.findAllResposta(), carroService.buscarTodos());
+	}
+
+	private CarroDTO carro(String marca, String modelo, int ano, String combustivel, BigDecimal valor) {
+		CarroDTO dto = new CarroDTO();
+		dto.setNomeMarca(marca);
+		dto.setNomeModelo(modelo);
+		dto.setAno(ano);
+		dto.setCombustivel(combustivel);
+		dto.setNumPortas(4);
+		dto.setCor("PRATA");
+		dto.setValor(valor);
+		return dto;
+	}
+}
@@ -0,0 +1,63 @@
+package com.wswork.carcatalog.service;
+
+import com.wswork.carcatalog.dto.MarcaDTO;
+import com.wswork.carcatalog.dto.ModeloDTO;
+import com.wswork.carcatalog.dto.ResultadoNomeDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+class IndiceTrigramasNomesTest {
+
+	@Autowired
+	private IndiceTrigramasNomes indice;
+
+	@Autowired
+	private MarcaService marcaService;
+
+	@Autowired
+	private ModeloService modeloService;
+
+	@Test
+	void buscaPorTrechoComErroDeDigitacaoEAcompanhaAlteracoes() {
+		assertTrue(indice.ativo());
+		MarcaDTO marca = marcaService.criar(new MarcaDTO(null, "Citroën", null, null));
+		ModeloDTO c3 = modeloService.criar(new ModeloDTO(null, marca.getId(), null, "C3 Aircross", BigDecimal.TEN, null, null));
+		ModeloDTO c4 = modeloService.criar(new ModeloDTO(null, marca.getId(), null, "C4 Cactus", BigDecimal.TEN, null, null));
+
+		// Trecho do nome, sem acento e sem diferenciar maiúsculas; quem começa com o texto vem primeiro
+		assertEquals(List.of(c4.getId()), indice.idsModelosContendo("CACT"));
+		assertEquals("Citroën", indice.buscar("citroen", 5).get(0).getNome());
+		assertEquals(List.of("C3 Aircross"), modeloService.buscarPorNome("aircr").stream().map(ModeloDTO::getNome).toList());
+
+		// Menos de 3 caracteres: pelo índice, só nomes com uma palavra começando pelo texto;
+		// a busca de modelos por nome usa o LIKE e continua achando o trecho no meio da palavra
+		assertEquals(List.of(c4.getId()), indice.idsModelosContendo("c4"));
+		assertTrue(indice.idsModelosContendo("ct").isEmpty());
+		assertEquals(List.of("C4 Cactus"), modeloService.buscarPorNome("ct").stream().map(ModeloDTO::getNome).toList());
+
+		// Erro de digitação: encontrado por similaridade, com pontuação menor que 1
+		ResultadoNomeDTO aproximado = indice.buscar("citroem", 5).get(0);
+		assertEquals(marca.getId(), aproximado.getId());
+		assertTrue(aproximado.getPontuacao() < 1);
+
+		// Renomear a marca atualiza os modelos; remover o modelo o tira do índice
+		marcaService.atualizar(marca.getId(), new MarcaDTO(null, "Citroen", null, null));
+		assertEquals("Citroen", indice.buscar("aircross", 5).get(0).getNomeMarca());
+		modeloService.deletar(c3.getId());
+		assertTrue(indice.idsModelosContendo("aircross").isEmpty());
+
+		modeloService.deletar(c4.getId());
+		marcaService.deletar(marca.getId());
+		assertTrue(indice.buscar("citroen", 5).isEmpty());
+	}
+}
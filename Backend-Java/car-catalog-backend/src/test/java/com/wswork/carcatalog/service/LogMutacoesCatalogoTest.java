@@ -0,0 +1,81 @@
+package com.wswork.carcatalog.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.read.ListAppender;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Entidade;
+import com.wswork.carcatalog.event.CatalogoAlteradoEvent.Operacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogMutacoesCatalogoTest {
+
+	private static final int ALTERACOES = 4000;
+
+	private final Logger logger = (Logger) LoggerFactory.getLogger("catalogo.mutacoes");
+	private final ListAppender<ILoggingEvent> registrados = new ListAppender<>();
+	private final List<Appender<ILoggingEvent>> appendersOriginais = new ArrayList<>();
+	private Level nivelOriginal;
+
+	@BeforeEach
+	void setUp() {
+		// Os eventos vão só para a lista, não para o console
+		logger.iteratorForAppenders().forEachRemaining(appendersOriginais::add);
+		appendersOriginais.forEach(logger::detachAppender);
+		nivelOriginal = logger.getLevel();
+		logger.setLevel(Level.INFO);
+		registrados.start();
+		logger.addAppender(registrados);
+	}
+
+	@AfterEach
+	void tearDown() {
+		logger.detachAppender(registrados);
+		logger.setLevel(nivelOriginal);
+		appendersOriginais.forEach(logger::addAppender);
+	}
+
+	@Test
+	void amostragemRegistraAFracaoConfiguradaDasAlteracoes() {
+		assertEquals(ALTERACOES, registrar(1.0));
+		assertEquals(0, registrar(0.0));
+
+		// Uma em quatro, com folga de mais de 5 desvios-padrão (cerca de 27 em 4000)
+		int amostradas = registrar(0.25);
+		assertTrue(amostradas > 850 && amostradas < 1150, "amostradas: " + amostradas);
+
+		ILoggingEvent evento = registrados.list.get(0);
+		assertEquals("catalogo alterado", evento.getMessage());
+		assertEquals("entidade", evento.getKeyValuePairs().get(0).key);
+		assertEquals(Entidade.CARRO, evento.getKeyValuePairs().get(0).value);
+
+		assertThrows(IllegalArgumentException.class, () -> new LogMutacoesCatalogo(1.5));
+	}
+
+	@Test
+	void loggerDesligadoNaoRegistraNada() {
+		logger.setLevel(Level.OFF);
+		assertEquals(0, registrar(1.0));
+	}
+
+	private int registrar(double amostragem) {
+		registrados.list.clear();
+		LogMutacoesCatalogo log = new LogMutacoesCatalogo(amostragem);
+		for (long id = 0; id < ALTERACOES; id++) {
+			log.aoAlterarCatalogo(new CatalogoAlteradoEvent(Entidade.CARRO, Operacao.CRIADO, id));
+		}
+		return registrados.list.size();
+	}
+}
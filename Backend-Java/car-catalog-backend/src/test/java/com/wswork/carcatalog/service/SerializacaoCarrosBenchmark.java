@@ -0,0 +1,133 @@
+package com.wswork.carcatalog.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.wswork.carcatalog.dto.CarroFormatadoDTO;
+import com.wswork.carcatalog.dto.CarroRespostaDTO;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialização Jackson das listas de CarroRespostaDTO (endpoints /api/carros) e do envelope {"cars": [...]}
+ * do cars.json, escritas em uma saída descartável, em JSON, CBOR e Smile. Cada operação serializa a lista inteira.
+ * O tamanho da saída no formato, sem e com gzip, sai nos resultados secundários (bytes, bytesGzip).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class SerializacaoCarrosBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	private int quantidade;
+
+	@Param({"json", "cbor", "smile"})
+	private String formato;
+
+	private ObjectMapper objectMapper;
+	private List<CarroRespostaDTO> respostas;
+	private List<CarroFormatadoDTO> formatados;
+	private int bytesLista;
+	private int bytesListaGzip;
+	private int bytesEnvelope;
+	private int bytesEnvelopeGzip;
+	// Saída que descarta os bytes e continua utilizável após close() (o Jackson fecha o destino ao terminar)
+	private final OutputStream descarte = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	@Setup
+	public void preparar() throws IOException {
+		// Mesma configuração do ObjectMapper criado pelo Spring Boot (e dos mapeadores de FormatosResposta)
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.factory(fabrica(formato))
+				.build();
+		respostas = DadosBenchmark.respostas(quantidade);
+		formatados = DadosBenchmark.formatados(quantidade);
+
+		ByteArrayOutputStream lista = new ByteArrayOutputStream();
+		objectMapper.writeValue(lista, respostas);
+		ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+		try (JsonGenerator gerador = objectMapper.createGenerator(envelope)) {
+			CarsJsonService.escrever(gerador, formatados.iterator());
+		}
+		bytesLista = lista.size();
+		bytesListaGzip = gzip(lista.toByteArray());
+		bytesEnvelope = envelope.size();
+		bytesEnvelopeGzip = gzip(envelope.toByteArray());
+	}
+
+	/**
+	 * Tamanho da saída de uma operação, reportado pelo JMH junto da vazão
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Tamanho {
+		public long bytes;
+		public long bytesGzip;
+	}
+
+	@Benchmark
+	public List<CarroRespostaDTO> listaResposta(Tamanho tamanho) throws IOException {
+		objectMapper.writeValue(descarte, respostas);
+		tamanho.bytes = bytesLista;
+		tamanho.bytesGzip = bytesListaGzip;
+		return respostas;
+	}
+
+	@Benchmark
+	public long envelopeCars(Tamanho tamanho) throws IOException {
+		tamanho.bytes = bytesEnvelope;
+		tamanho.bytesGzip = bytesEnvelopeGzip;
+		try (JsonGenerator gerador = objectMapper.createGenerator(descarte)) {
+			return CarsJsonService.escrever(gerador, formatados.iterator());
+		}
+	}
+
+	private static JsonFactory fabrica(String formato) {
+		return switch (formato) {
+			case "cbor" -> new CBORFactory();
+			case "smile" -> new SmileFactory();
+			default -> new JsonFactory();
+		};
+	}
+
+	private static int gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream saida = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+			gzip.write(bytes);
+		}
+		return saida.size();
+	}
+}